@@ -1,5 +1,10 @@
 package com.graceconsulting.cardmanagement.config;
 
+import com.graceconsulting.cardmanagement.security.BCryptStrengthCalibrator;
+import com.graceconsulting.cardmanagement.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -8,8 +13,57 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class PasswordEncoderConfig {
 
+    @Value("${security.password.bcrypt.strength:10}")
+    private int strength;
+
+    @Value("${security.password.bcrypt.calibrate:false}")
+    private boolean calibrate;
+
+    @Value("${security.password.bcrypt.target-ms:50}")
+    private long targetMs;
+
+    @Value("${security.password.bcrypt.min-strength:10}")
+    private int minStrength;
+
+    @Value("${security.password.bcrypt.max-strength:16}")
+    private int maxStrength;
+
+    @Value("${security.password.executor.enabled:false}")
+    private boolean executorEnabled;
+
+    @Value("${security.password.executor.core-fraction:0.5}")
+    private double coreFraction;
+
+    @Value("${security.password.executor.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.password.executor.max-wait-ms:2000}")
+    private long maxWaitMs;
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength(meterRegistry));
+        if (!executorEnabled) {
+            return bcrypt;
+        }
+        int threads = Math.max(1, (int) (Runtime.getRuntime().availableProcessors() * coreFraction));
+        return new BoundedPasswordEncoder(bcrypt, threads, queueCapacity, maxWaitMs, meterRegistry);
+    }
+
+    // Hashes gravados com work factor menor são atualizados no próximo login (RehashingAuthenticationProvider)
+    private int bcryptStrength(MeterRegistry meterRegistry) {
+        if (!calibrate) {
+            return strength;
+        }
+        BCryptStrengthCalibrator.Calibration calibration =
+                BCryptStrengthCalibrator.calibrate(targetMs, minStrength, maxStrength);
+        Gauge.builder("auth.password.bcrypt.strength", calibration::strength)
+                .description("Work factor do BCrypt escolhido na calibração")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.bcrypt.cost", calibration::millis)
+                .description("Custo medido de um hash BCrypt no work factor escolhido")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        return calibration.strength();
     }
 }
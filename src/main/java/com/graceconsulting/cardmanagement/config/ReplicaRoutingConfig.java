@@ -0,0 +1,90 @@
+package com.graceconsulting.cardmanagement.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de leitura ({@code datasource.routing.enabled=true}): o primário continua vindo de
+ * {@code spring.datasource.*}, inclusive {@code spring.datasource.hikari.*}, e cada URL de {@code datasource.routing.replica-urls} ganha um pool
+ * próprio, com as mesmas credenciais e driver.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "datasource.routing.enabled", havingValue = "true")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Value("${datasource.routing.replica-urls:}")
+    private List<String> replicaUrls;
+
+    @Value("${datasource.routing.replica-pool-size:10}")
+    private int replicaPoolSize;
+
+    @Value("${datasource.routing.replica-connection-timeout-ms:250}")
+    private long replicaConnectionTimeoutMs;
+
+    @Value("${datasource.routing.max-lag-ms:5000}")
+    private long maxLagMs;
+
+    @Value("${datasource.routing.lag-query:SHOW REPLICA STATUS}")
+    private String lagQuery;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties,
+                                                             HikariDataSource primaryDataSource,
+                                                             MeterRegistry meterRegistry) {
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            // Os 30 s padrão do Hikari prenderiam a leitura numa réplica travada; o primário é o fallback
+            replica.setConnectionTimeout(replicaConnectionTimeoutMs);
+            replica.setValidationTimeout(replicaConnectionTimeoutMs);
+            // Réplica fora do ar não pode impedir a subida: ela entra no rodízio quando a verificação passar
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        if (replicas.isEmpty()) {
+            log.warn("Roteamento de leitura habilitado sem réplicas: todas as consultas vão ao primário");
+        } else {
+            log.info("Roteamento de leitura habilitado: {} réplica(s)", replicas.size());
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, meterRegistry, maxLagMs, lagQuery);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,265 @@
+package com.graceconsulting.cardmanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Envia as transações read-only às réplicas, em round robin entre as saudáveis, e todo o resto ao
+ * primário. A decisão depende do flag read-only da transação, que só existe depois do início dela:
+ * por isso este DataSource fica atrás de um {@code LazyConnectionDataSourceProxy}, que adia a obtenção
+ * da conexão até o primeiro comando. Réplica que falha ao entregar conexão sai do rodízio até a
+ * próxima verificação de saúde, e a leitura cai no primário; sem réplica saudável, tudo vai ao primário.
+ *
+ * <p>A verificação de saúde também mede o atraso de replicação com {@code lagQuery}: réplica atrasada
+ * além de {@code maxLagMillis}, ou com a replicação parada, sai do rodízio até alcançar o primário.
+ * A consulta padrão lê {@code Seconds_Behind_Source} de {@code SHOW REPLICA STATUS}; qualquer outra
+ * (uma tabela de heartbeat, por exemplo) deve devolver o atraso em milissegundos na primeira coluna.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+    private static final String REPLICA_PREFIX = "replica-";
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+    private static final String SECONDS_BEHIND_SOURCE = "Seconds_Behind_Source";
+    private static final long UNKNOWN_LAG = -1;
+
+    // Leituras que precisam ver as próprias escritas (read-your-writes) ignoram as réplicas
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final AtomicIntegerArray healthy;
+    private final AtomicLongArray lagMillis;
+    private final long maxLagMillis;
+    private final String lagQuery;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final Counter replicaReads;
+    private final Counter primaryReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, MeterRegistry meterRegistry) {
+        this(primary, replicas, meterRegistry, 0, null);
+    }
+
+    /**
+     * @param maxLagMillis atraso máximo tolerado; zero ou negativo desliga a medição
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, MeterRegistry meterRegistry,
+                                    long maxLagMillis, String lagQuery) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.healthy = new AtomicIntegerArray(replicas.size());
+        this.lagMillis = new AtomicLongArray(replicas.size());
+        this.maxLagMillis = maxLagMillis;
+        this.lagQuery = lagQuery;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(REPLICA_PREFIX + i, replicas.get(i));
+            healthy.set(i, 1);
+            lagMillis.set(i, UNKNOWN_LAG);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+
+        this.replicaReads = Counter.builder("datasource.routing.reads")
+                .description("Conexões de transações read-only por destino")
+                .tag("target", "replica")
+                .register(meterRegistry);
+        this.primaryReads = Counter.builder("datasource.routing.reads")
+                .description("Conexões de transações read-only por destino")
+                .tag("target", "primary")
+                .register(meterRegistry);
+        Gauge.builder("datasource.replicas.healthy", this, ReplicaRoutingDataSource::getHealthyReplicaCount)
+                .description("Réplicas de leitura no rodízio")
+                .register(meterRegistry);
+        for (int i = 0; i < replicas.size(); i++) {
+            int replica = i;
+            Gauge.builder("datasource.replicas.lag", this, routing -> routing.lagMillis(replica))
+                    .description("Atraso de replicação, em ms, medido na última verificação")
+                    .tag("replica", String.valueOf(replica))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Executa {@code action} com as conexões obtidas nesta thread vindo do primário, mesmo em transação read-only.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            } else {
+                FORCE_PRIMARY.set(previous);
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || FORCE_PRIMARY.get() != null) {
+            return PRIMARY;
+        }
+        int replica = nextHealthyReplica();
+        return replica < 0 ? PRIMARY : REPLICA_PREFIX + replica;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        if (PRIMARY.equals(key)) {
+            if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                primaryReads.increment();
+            }
+            return primary.getConnection();
+        }
+        int replica = Integer.parseInt(((String) key).substring(REPLICA_PREFIX.length()));
+        try {
+            Connection connection = replicas.get(replica).getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLTransientConnectionException e) {
+            // Tempo esgotado sem falha de conexão registrada pelo pool: a réplica está saturada, não fora do ar
+            if (e.getCause() != null) {
+                markUnhealthy(replica, e.getMessage());
+            }
+            primaryReads.increment();
+            return primary.getConnection();
+        } catch (SQLException e) {
+            markUnhealthy(replica, e.getMessage());
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+    }
+
+    /**
+     * Valida uma conexão de cada réplica, mede o atraso de replicação e atualiza o rodízio.
+     */
+    @Scheduled(fixedDelayString = "${datasource.routing.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    throw new SQLException("Conexão inválida");
+                }
+                if (maxLagMillis > 0) {
+                    long lag = measureLag(connection);
+                    lagMillis.set(i, lag);
+                    if (lag > maxLagMillis) {
+                        markUnhealthy(i, "atraso de replicação de " + lag + " ms, acima de " + maxLagMillis + " ms");
+                        continue;
+                    }
+                }
+                if (healthy.getAndSet(i, 1) == 0) {
+                    log.info("Réplica {} de volta ao rodízio de leitura", i);
+                }
+            } catch (SQLTransientConnectionException e) {
+                // Pool saturado pelas leituras não diz nada da réplica: a sonda fica para o próximo ciclo
+                if (e.getCause() == null) {
+                    log.debug("Verificação da réplica {} adiada: pool sem conexão livre", i);
+                    continue;
+                }
+                lagMillis.set(i, UNKNOWN_LAG);
+                markUnhealthy(i, e.getMessage());
+            } catch (SQLException e) {
+                lagMillis.set(i, UNKNOWN_LAG);
+                markUnhealthy(i, e.getMessage());
+            }
+        }
+    }
+
+    public int getHealthyReplicaCount() {
+        int count = 0;
+        for (int i = 0; i < healthy.length(); i++) {
+            count += healthy.get(i);
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private int nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(cursor.getAndIncrement(), Math.max(size, 1));
+        for (int offset = 0; offset < size; offset++) {
+            int candidate = (start + offset) % size;
+            if (healthy.get(candidate) == 1) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+
+    private long measureLag(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(VALIDATION_TIMEOUT_SECONDS);
+            try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                if (!resultSet.next()) {
+                    throw new SQLException("Réplica sem status de replicação");
+                }
+                int secondsColumn = secondsBehindSourceColumn(resultSet.getMetaData());
+                long lag = secondsColumn > 0 ? resultSet.getLong(secondsColumn) * 1000 : resultSet.getLong(1);
+                // NULL em Seconds_Behind_Source: a thread de replicação está parada e o atraso é desconhecido
+                if (resultSet.wasNull()) {
+                    throw new SQLException("Replicação parada");
+                }
+                return lag;
+            }
+        }
+    }
+
+    private static int secondsBehindSourceColumn(ResultSetMetaData metaData) throws SQLException {
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            if (SECONDS_BEHIND_SOURCE.equalsIgnoreCase(metaData.getColumnLabel(column))) {
+                return column;
+            }
+        }
+        return 0;
+    }
+
+    private double lagMillis(int replica) {
+        long lag = lagMillis.get(replica);
+        return lag == UNKNOWN_LAG ? Double.NaN : lag;
+    }
+
+    private void markUnhealthy(int replica, String reason) {
+        if (healthy.getAndSet(replica, 0) == 1) {
+            log.warn("Réplica {} fora do rodízio de leitura: {}", replica, reason);
+        }
+    }
+}
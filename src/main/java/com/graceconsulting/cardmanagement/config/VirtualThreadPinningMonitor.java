@@ -0,0 +1,97 @@
+package com.graceconsulting.cardmanagement.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Acompanha, via JFR, as virtual threads que ficam presas à carrier thread ({@code jdk.VirtualThreadPinned}):
+ * bloqueio dentro de {@code synchronized} ou de código nativo. Presa, a virtual thread ocupa a
+ * carrier durante a espera e o ganho de concorrência desaparece. Cada ocorrência acima do limiar
+ * vira métrica, e o primeiro registro de cada ponto do código é logado com a pilha.
+ */
+@Slf4j
+@Component
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final Counter pinned;
+    private final Timer pinnedDuration;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean enabled;
+
+    @Value("${virtual-threads.pinning-monitor.threshold-ms:20}")
+    private long thresholdMs;
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Virtual threads presas à carrier thread por mais que o limiar")
+                .register(meterRegistry);
+        this.pinnedDuration = Timer.builder("jvm.threads.virtual.pinned.duration")
+                .description("Tempo em que virtual threads ficaram presas à carrier thread")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        log.info("Virtual threads habilitadas; monitorando pinning acima de {} ms", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    void record(RecordedEvent event) {
+        pinned.increment();
+        pinnedDuration.record(event.getDuration());
+        String site = site(event);
+        if (reportedSites.add(site)) {
+            log.warn("Virtual thread presa à carrier por {} ms em {}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    // Primeiro frame fora do JDK: é ele que segura o monitor ou chama o código nativo
+    private static String site(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "desconhecido";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .filter(RecordedFrame::isJavaFrame)
+                .filter(frame -> !frame.getMethod().getType().getName().startsWith("java."))
+                .filter(frame -> !frame.getMethod().getType().getName().startsWith("jdk."))
+                .findFirst()
+                .or(() -> frames.stream().findFirst())
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .orElse("desconhecido");
+    }
+}
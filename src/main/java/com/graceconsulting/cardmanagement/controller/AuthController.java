@@ -2,17 +2,22 @@ package com.graceconsulting.cardmanagement.controller;
 
 import com.graceconsulting.cardmanagement.dto.AuthRequest;
 import com.graceconsulting.cardmanagement.dto.AuthResponse;
+import com.graceconsulting.cardmanagement.dto.RefreshTokenRequest;
 import com.graceconsulting.cardmanagement.dto.UserRegisterRequest;
 import com.graceconsulting.cardmanagement.service.AuthService;
 import com.graceconsulting.cardmanagement.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
 @Tag(name = "authentication", description = "Endpoints de autenticação e registro")
@@ -24,8 +29,27 @@ public class AuthController {
     @PostMapping("/login")
     @ResponseStatus(HttpStatus.OK)
     @Operation(summary = "authenticate-user", description = "Realiza login e retorna token JWT")
-    public AuthResponse login(@Valid @RequestBody AuthRequest request) {
-        return authService.authenticate(request);
+    public AuthResponse login(@Valid @RequestBody AuthRequest request, HttpServletRequest httpRequest) {
+        // Atrás de proxy o endereço é o do proxy, a menos que server.forward-headers-strategy esteja ligado
+        return authService.authenticate(request, httpRequest.getRemoteAddr());
+    }
+
+    @PostMapping("/refresh")
+    @ResponseStatus(HttpStatus.OK)
+    @Operation(summary = "refresh-token", description = "Troca um refresh token por um novo par de tokens")
+    public AuthResponse refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return authService.refresh(request.refreshToken());
+    }
+
+    @PostMapping("/logout")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "logout", description = "Revoga o access token do cabeçalho e o refresh token informado")
+    public void logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                       @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(accessToken, request != null ? request.refreshToken() : null);
     }
 
     @PostMapping("/register")
@@ -0,0 +1,38 @@
+package com.graceconsulting.cardmanagement.controller;
+
+import com.graceconsulting.cardmanagement.dto.ChangePasswordRequest;
+import com.graceconsulting.cardmanagement.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/users/me")
+@RequiredArgsConstructor
+@Tag(name = "users", description = "Endpoints da conta do usuário autenticado")
+@SecurityRequirement(name = "bearerAuth")
+public class UserController {
+
+    private final UserService userService;
+
+    @PostMapping("/password")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "change-password", description = "Troca a senha e revoga os tokens já emitidos")
+    public void changePassword(@Valid @RequestBody ChangePasswordRequest request, Authentication authentication) {
+        userService.changePassword(authentication.getName(), request.currentPassword(), request.newPassword());
+    }
+
+    @PostMapping("/deactivate")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "deactivate-user", description = "Desativa a própria conta e revoga os tokens já emitidos")
+    public void deactivate(Authentication authentication) {
+        userService.deactivate(authentication.getName());
+    }
+}
@@ -1,11 +1,19 @@
 package com.graceconsulting.cardmanagement.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 public record AuthResponse(
     String token,
     String type,
-    Long expiresIn
+    Long expiresIn,
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    String refreshToken
 ) {
     public AuthResponse(String token, Long expiresIn) {
-        this(token, "Bearer", expiresIn);
+        this(token, "Bearer", expiresIn, null);
+    }
+
+    public AuthResponse(String token, Long expiresIn, String refreshToken) {
+        this(token, "Bearer", expiresIn, refreshToken);
     }
 }
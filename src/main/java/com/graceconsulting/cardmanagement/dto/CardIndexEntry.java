@@ -0,0 +1,17 @@
+package com.graceconsulting.cardmanagement.dto;
+
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+
+public record CardIndexEntry(
+    UUID id,
+    String cardNumberHash,
+    LocalDateTime createdAt
+) {
+
+    // Projeções sobre colunas BINARY(32): a chave volta ao hexadecimal usado pelo hash em texto
+    public CardIndexEntry(UUID id, byte[] digest, LocalDateTime createdAt) {
+        this(id, HexFormat.of().formatHex(digest), createdAt);
+    }
+}
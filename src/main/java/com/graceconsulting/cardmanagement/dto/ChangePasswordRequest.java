@@ -0,0 +1,13 @@
+package com.graceconsulting.cardmanagement.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public record ChangePasswordRequest(
+    @NotBlank(message = "Senha atual é obrigatória")
+    String currentPassword,
+
+    @NotBlank(message = "Nova senha é obrigatória")
+    @Size(min = 6, message = "Password deve ter no mínimo 6 caracteres")
+    String newPassword
+) {}
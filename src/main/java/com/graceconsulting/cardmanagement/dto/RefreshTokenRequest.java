@@ -0,0 +1,8 @@
+package com.graceconsulting.cardmanagement.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshTokenRequest(
+    @NotBlank(message = "Refresh token é obrigatório")
+    String refreshToken
+) {}
@@ -0,0 +1,10 @@
+package com.graceconsulting.cardmanagement.dto;
+
+import java.time.LocalDateTime;
+
+public record UserTokenState(
+    String username,
+    int tokenVersion,
+    boolean active,
+    LocalDateTime updatedAt
+) {}
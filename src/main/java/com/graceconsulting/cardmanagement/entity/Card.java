@@ -11,7 +11,7 @@ import java.util.UUID;
 
 @Entity
 @Table(name = "cards", indexes = {
-    @Index(name = "idx_card_number_hash", columnList = "cardNumberHash")
+    @Index(name = "idx_card_number_bidx", columnList = "card_number_bidx")
 })
 @Data
 @Builder
@@ -23,16 +23,40 @@ public class Card {
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @Column(name = "card_number_encrypted", nullable = false, length = 512)
+    // Formato texto: nulas nas linhas do formato binário. O índice único do hash é mantido por
+    // CardStorageMigrationService, que o remove quando a migração para o binário termina
+    @Column(name = "card_number_encrypted", length = 512)
     private String cardNumberEncrypted;
 
-    @Column(name = "card_number_hash", nullable = false, unique = true, length = 64)
+    @Column(name = "card_number_hash", length = 64)
     private String cardNumberHash;
 
+    // Formato binário (card.storage.format=binary): mesmos valores, gravados como bytes crus
+    @Column(name = "card_number_cipher", length = 128)
+    private byte[] cardNumberCipher;
+
+    @Column(name = "card_number_digest", unique = true, columnDefinition = "binary(32)")
+    private byte[] cardNumberDigest;
+
+    // Blind index (card.blind-index.enabled=true): prefixo do HMAC indexado e digest completo para
+    // confirmação. O digest é único para barrar duplicatas sem depender do hash sem chave
+    @Column(name = "card_number_bidx")
+    private Long cardNumberBlindIndex;
+
+    @Column(name = "card_number_bidx_digest", unique = true, columnDefinition = "binary(32)")
+    private byte[] cardNumberBlindDigest;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @Column(name = "batch_id")
     private String batchId;
+
+    // Rotação de chave, migração binária e backfill do blind index regravam a linha inteira em nós
+    // diferentes: a versão faz a escrita baseada em leitura antiga falhar em vez de desfazer a outra
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    @Builder.Default
+    private long version = 0L;
 }
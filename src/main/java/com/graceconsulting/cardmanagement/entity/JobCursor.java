@@ -0,0 +1,48 @@
+package com.graceconsulting.cardmanagement.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Posição persistida de um job em lotes, para que ele retome de onde parou após um reinício. O
+ * lease indica qual nó está processando o job; os demais só assumem depois que ele expira.
+ */
+@Entity
+@Table(name = "job_cursors")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCursor {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(name = "last_id")
+    private UUID lastId;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private long processed = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean completed = false;
+
+    @Column(name = "lease_owner", length = 64)
+    private String leaseOwner;
+
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime updatedAt = LocalDateTime.now();
+}
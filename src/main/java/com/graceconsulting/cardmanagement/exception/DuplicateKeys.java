@@ -0,0 +1,50 @@
+package com.graceconsulting.cardmanagement.exception;
+
+import io.r2dbc.spi.R2dbcException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.sql.SQLException;
+import java.util.Set;
+
+/**
+ * Separa a violação de índice único das demais violações de integridade (NOT NULL, chave
+ * estrangeira, CHECK, truncamento): só a primeira significa "registro já cadastrado".
+ */
+public final class DuplicateKeys {
+
+    // PostgreSQL e H2
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+    // MySQL/MariaDB usam o SQLState genérico 23000; ER_DUP_ENTRY e ER_DUP_ENTRY_WITH_KEY_NAME
+    private static final Set<Integer> DUPLICATE_ENTRY_ERROR_CODES = Set.of(1062, 1586);
+
+    private DuplicateKeys() {
+    }
+
+    public static boolean isDuplicateKey(String sqlState, int errorCode) {
+        if (UNIQUE_VIOLATION_SQL_STATE.equals(sqlState)) {
+            return true;
+        }
+        return sqlState != null && sqlState.startsWith("23") && DUPLICATE_ENTRY_ERROR_CODES.contains(errorCode);
+    }
+
+    /**
+     * Percorre a cadeia de causas procurando a violação de índice único reportada pelo driver JDBC ou R2DBC.
+     */
+    public static boolean isDuplicateKey(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DuplicateKeyException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && isDuplicateKey(sql.getSQLState(), sql.getErrorCode())) {
+                return true;
+            }
+            if (cause instanceof R2dbcException r2dbc && isDuplicateKey(r2dbc.getSqlState(), r2dbc.getErrorCode())) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+}
@@ -3,11 +3,19 @@ package com.graceconsulting.cardmanagement.mapper;
 import com.graceconsulting.cardmanagement.dto.CardRequest;
 import com.graceconsulting.cardmanagement.dto.CardResponse;
 import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.service.BlindIndex;
+import com.graceconsulting.cardmanagement.service.CardBlindIndexBackfillService;
+import com.graceconsulting.cardmanagement.service.CardStorageMigrationService;
 import com.graceconsulting.cardmanagement.service.EncryptionService;
+import org.mapstruct.AfterMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
 import org.mapstruct.Named;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.HexFormat;
 
 @Mapper(componentModel = "spring")
 public abstract class CardMapper {
@@ -15,37 +23,95 @@ public abstract class CardMapper {
     @Autowired
     protected EncryptionService encryptionService;
 
+    @Autowired
+    protected CardStorageMigrationService cardStorageMigrationService;
+
+    @Autowired
+    protected CardBlindIndexBackfillService cardBlindIndexBackfillService;
+
+    @Value("${card.storage.format:text}")
+    protected String storageFormat;
+
+    @Value("${card.blind-index.enabled:false}")
+    protected boolean blindIndexEnabled;
+
+    @Value("${card.blind-index.retire-unkeyed-hash:false}")
+    protected boolean retireUnkeyedHash;
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "batchId", ignore = true)
-    @Mapping(target = "cardNumberEncrypted", source = "cardNumber", qualifiedByName = "encryptCardNumber")
-    @Mapping(target = "cardNumberHash", source = "cardNumber", qualifiedByName = "hashForMapping")
+    @Mapping(target = "cardNumberCipher", ignore = true)
+    @Mapping(target = "cardNumberDigest", ignore = true)
+    @Mapping(target = "cardNumberBlindIndex", ignore = true)
+    @Mapping(target = "cardNumberBlindDigest", ignore = true)
+    @Mapping(target = "cardNumberEncrypted", ignore = true)
+    @Mapping(target = "cardNumberHash", ignore = true)
+    @Mapping(target = "version", ignore = true)
     public abstract Card toEntity(CardRequest request);
 
     public Card toEntity(String cardNumber, String batchId) {
         String normalized = normalizeCardNumber(cardNumber);
-        return Card.builder()
-                .cardNumberEncrypted(encryptionService.encrypt(normalized))
-                .cardNumberHash(encryptionService.hash(normalized))
+        Card card = Card.builder()
                 .batchId(batchId)
                 .build();
+        applyStorageFormat(card, normalized);
+        applyBlindIndex(card, normalized);
+        return card;
     }
 
-    @Mapping(target = "maskedNumber", source = "originalCardNumber", qualifiedByName = "maskCardNumber")
-    @Mapping(target = "id", source = "card.id")
-    @Mapping(target = "createdAt", source = "card.createdAt")
-    public abstract CardResponse toResponse(Card card, String originalCardNumber);
+    @AfterMapping
+    protected void applyStorage(CardRequest request, @MappingTarget Card card) {
+        String normalized = normalizeCardNumber(request.cardNumber());
+        applyStorageFormat(card, normalized);
+        applyBlindIndex(card, normalized);
+    }
 
-    @Named("encryptCardNumber")
-    protected String encryptCardNumber(String cardNumber) {
-        return encryptionService.encrypt(normalizeCardNumber(cardNumber));
+    // No formato binário grava só as colunas VARBINARY/BINARY(32). O hash em texto segue preenchido
+    // até a migração terminar: é o índice único dele que barra duplicatas de linhas ainda não migradas
+    private void applyStorageFormat(Card card, String normalizedCardNumber) {
+        if ("binary".equalsIgnoreCase(storageFormat)) {
+            card.setCardNumberCipher(encryptionService.encryptToBytes(normalizedCardNumber));
+            if (isUnkeyedHashRetired()) {
+                return;
+            }
+            byte[] digest = encryptionService.hashBytes(normalizedCardNumber);
+            card.setCardNumberDigest(digest);
+            if (!cardStorageMigrationService.isBinaryReadable()) {
+                card.setCardNumberHash(HexFormat.of().formatHex(digest));
+            }
+        } else {
+            // O digest também vai no formato texto: um nó ainda em texto depois da migração concluída grava
+            // linhas que a busca binária encontra e que o índice único do digest barra como duplicadas
+            byte[] digest = encryptionService.hashBytes(normalizedCardNumber);
+            card.setCardNumberEncrypted(encryptionService.encrypt(normalizedCardNumber));
+            card.setCardNumberHash(HexFormat.of().formatHex(digest));
+            card.setCardNumberDigest(digest);
+        }
     }
 
-    @Named("hashForMapping")
-    protected String hashForMapping(String cardNumber) {
-        return encryptionService.hash(normalizeCardNumber(cardNumber));
+    // Com o blind index completo e a migração binária concluída, o índice único do digest do blind
+    // index basta para barrar duplicatas e o SHA-256 sem chave deixa de ser gravado nas novas linhas.
+    // No formato texto o hash continua: é por ele que a migração binária encontra as linhas antigas
+    private boolean isUnkeyedHashRetired() {
+        return retireUnkeyedHash
+                && cardStorageMigrationService.isBinaryReadable()
+                && cardBlindIndexBackfillService.isReadable();
+    }
+
+    public void applyBlindIndex(Card card, String normalizedCardNumber) {
+        if (blindIndexEnabled) {
+            BlindIndex blindIndex = encryptionService.blindIndex(normalizedCardNumber);
+            card.setCardNumberBlindIndex(blindIndex.prefix());
+            card.setCardNumberBlindDigest(blindIndex.digestBytes());
+        }
     }
 
+    @Mapping(target = "maskedNumber", source = "originalCardNumber", qualifiedByName = "maskCardNumber")
+    @Mapping(target = "id", source = "card.id")
+    @Mapping(target = "createdAt", source = "card.createdAt")
+    public abstract CardResponse toResponse(Card card, String originalCardNumber);
+
     @Named("maskCardNumber")
     protected String maskCardNumber(String cardNumber) {
         return encryptionService.maskCardNumber(cardNumber);
@@ -58,4 +124,8 @@ public abstract class CardMapper {
     public String hashCardNumber(String cardNumber) {
         return encryptionService.hash(normalizeCardNumber(cardNumber));
     }
+
+    public BlindIndex blindIndexCardNumber(String cardNumber) {
+        return encryptionService.blindIndex(normalizeCardNumber(cardNumber));
+    }
 }
@@ -17,6 +17,8 @@ public abstract class UserMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "active", constant = "true")
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "tokenVersion", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "password", source = "password", qualifiedByName = "encodePassword")
     public abstract User toEntity(UserRegisterRequest request);
 
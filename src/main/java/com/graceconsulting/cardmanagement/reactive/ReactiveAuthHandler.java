@@ -0,0 +1,53 @@
+package com.graceconsulting.cardmanagement.reactive;
+
+import com.graceconsulting.cardmanagement.dto.AuthRequest;
+import com.graceconsulting.cardmanagement.dto.UserRegisterRequest;
+import com.graceconsulting.cardmanagement.exception.BusinessException;
+import com.graceconsulting.cardmanagement.service.AuthService;
+import com.graceconsulting.cardmanagement.service.UserService;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Login e registro na stack reativa. BCrypt e JPA são bloqueantes, então rodam no
+ * {@code boundedElastic} e o event loop fica livre para as demais conexões.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveAuthHandler {
+
+    private final AuthService authService;
+    private final UserService userService;
+    private final Validator validator;
+
+    public Mono<ServerResponse> login(ServerRequest request) {
+        String clientIp = request.remoteAddress()
+                .map(address -> address.getAddress().getHostAddress())
+                .orElse(null);
+        return request.bodyToMono(AuthRequest.class)
+                .switchIfEmpty(Mono.error(new BusinessException("Corpo da requisição é obrigatório")))
+                .map(body -> ReactiveErrors.validate(validator, body))
+                .publishOn(Schedulers.boundedElastic())
+                .map(body -> authService.authenticate(body, clientIp))
+                .flatMap(response -> ServerResponse.ok().bodyValue(response))
+                .onErrorResume(ReactiveErrors::toResponse);
+    }
+
+    public Mono<ServerResponse> register(ServerRequest request) {
+        return request.bodyToMono(UserRegisterRequest.class)
+                .switchIfEmpty(Mono.error(new BusinessException("Corpo da requisição é obrigatório")))
+                .map(body -> ReactiveErrors.validate(validator, body))
+                .publishOn(Schedulers.boundedElastic())
+                .map(userService::register)
+                .flatMap(user -> ServerResponse.status(HttpStatus.CREATED).build())
+                .onErrorResume(ReactiveErrors::toResponse);
+    }
+}
@@ -0,0 +1,66 @@
+package com.graceconsulting.cardmanagement.reactive;
+
+import com.graceconsulting.cardmanagement.dto.BatchUploadResponse;
+import com.graceconsulting.cardmanagement.dto.CardRequest;
+import com.graceconsulting.cardmanagement.dto.CardSearchRequest;
+import com.graceconsulting.cardmanagement.exception.BusinessException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveCardHandler {
+
+    private final ReactiveCardService cardService;
+    private final Validator validator;
+
+    public Mono<ServerResponse> create(ServerRequest request) {
+        return request.bodyToMono(CardRequest.class)
+                .switchIfEmpty(Mono.error(new BusinessException("Corpo da requisição é obrigatório")))
+                .map(body -> ReactiveErrors.validate(validator, body))
+                .flatMap(cardService::createCard)
+                .flatMap(response -> ServerResponse.status(HttpStatus.CREATED).bodyValue(response))
+                .onErrorResume(ReactiveErrors::toResponse);
+    }
+
+    public Mono<ServerResponse> search(ServerRequest request) {
+        return request.bodyToMono(CardSearchRequest.class)
+                .switchIfEmpty(Mono.error(new BusinessException("Corpo da requisição é obrigatório")))
+                .map(body -> ReactiveErrors.validate(validator, body))
+                .flatMap(body -> cardService.searchCard(body.cardNumber()))
+                .flatMap(response -> ServerResponse.ok().bodyValue(response))
+                .onErrorResume(ReactiveErrors::toResponse);
+    }
+
+    /**
+     * Lê o multipart como eventos: o conteúdo da parte {@code file} segue para o serviço conforme chega
+     * do socket, sem {@code multipartData()} acumular o arquivo em memória ou em disco. As demais partes
+     * são descartadas à medida que passam.
+     */
+    public Mono<ServerResponse> uploadBatch(ServerRequest request) {
+        return request.bodyToFlux(PartEvent.class)
+                .windowUntil(PartEvent::isLast)
+                .concatMap(part -> part.switchOnFirst((first, events) -> {
+                    if (first.get() instanceof FilePartEvent file && "file".equals(file.name())) {
+                        return cardService.processBatchFile(events.map(PartEvent::content));
+                    }
+                    return events.doOnNext(event -> DataBufferUtils.release(event.content()))
+                            .thenMany(Flux.<BatchUploadResponse>empty());
+                }))
+                .next()
+                .switchIfEmpty(Mono.error(new BusinessException("Arquivo é obrigatório")))
+                .flatMap(response -> ServerResponse.ok().bodyValue(response))
+                .onErrorResume(ReactiveErrors::toResponse);
+    }
+}
@@ -0,0 +1,119 @@
+package com.graceconsulting.cardmanagement.reactive;
+
+import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.exception.DuplicateKeys;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+/**
+ * Acesso à tabela {@code cards} via R2DBC, com o mesmo layout gravado pelo JPA: no MySQL o UUID é
+ * {@code binary(16)}; nos demais bancos vai nativo. O cadastro é um {@code INSERT} comum — não
+ * {@code INSERT IGNORE}, que no MySQL também engole truncamento e NOT NULL como avisos — e só a
+ * violação do índice único conta como duplicidade. No PostgreSQL, {@code ON CONFLICT DO NOTHING}
+ * devolve zero linhas em vez do erro.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCardRepository {
+
+    private static final String COLUMNS = "(id, card_number_encrypted, card_number_hash, card_number_cipher,"
+            + " card_number_digest, card_number_bidx, card_number_bidx_digest, created_at, batch_id, version)";
+    private static final String VALUES = " VALUES (:id, :encrypted, :hash, :cipher, :digest, :bidx, :bidxDigest,"
+            + " :createdAt, :batchId, 0)";
+
+    private final DatabaseClient databaseClient;
+    private final boolean binaryUuid;
+    private final String insertSql;
+
+    public ReactiveCardRepository(DatabaseClient databaseClient, ConnectionFactory connectionFactory) {
+        this.databaseClient = databaseClient;
+        String database = connectionFactory.getMetadata().getName();
+        this.binaryUuid = database.contains("MySQL") || database.contains("MariaDB");
+        this.insertSql = "INSERT INTO cards " + COLUMNS + VALUES
+                + (database.contains("PostgreSQL") ? " ON CONFLICT DO NOTHING" : "");
+    }
+
+    /**
+     * @return {@code false} se já existir cartão com o mesmo hash
+     */
+    public Mono<Boolean> insertIfAbsent(Card card) {
+        if (card.getId() == null) {
+            card.setId(UUID.randomUUID());
+        }
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(insertSql)
+                .bind("id", bindableId(card.getId()));
+        spec = bindNullable(spec, "encrypted", card.getCardNumberEncrypted(), String.class);
+        spec = bindNullable(spec, "hash", card.getCardNumberHash(), String.class);
+        spec = bindNullable(spec, "cipher", card.getCardNumberCipher(), byte[].class);
+        spec = bindNullable(spec, "digest", card.getCardNumberDigest(), byte[].class);
+        spec = bindNullable(spec, "bidx", card.getCardNumberBlindIndex(), Long.class);
+        spec = bindNullable(spec, "bidxDigest", card.getCardNumberBlindDigest(), byte[].class);
+        spec = bindNullable(spec.bind("createdAt", card.getCreatedAt()), "batchId", card.getBatchId(), String.class);
+
+        return spec.fetch()
+                .rowsUpdated()
+                .map(rows -> rows == 1)
+                .onErrorResume(DuplicateKeys::isDuplicateKey, e -> Mono.just(false));
+    }
+
+    public Mono<UUID> findIdByHash(String cardNumberHash) {
+        return databaseClient.sql("SELECT id FROM cards WHERE card_number_hash = :hash")
+                .bind("hash", cardNumberHash)
+                .map(row -> toUuid(row.get("id")))
+                .one();
+    }
+
+    public Mono<UUID> findIdByDigest(byte[] cardNumberDigest) {
+        return databaseClient.sql("SELECT id FROM cards WHERE card_number_digest = :digest")
+                .bind("digest", cardNumberDigest)
+                .map(row -> toUuid(row.get("id")))
+                .one();
+    }
+
+    // Durante a migração binária a linha pode estar em qualquer um dos dois formatos
+    public Mono<UUID> findIdByDigestOrHash(byte[] cardNumberDigest, String cardNumberHash) {
+        return databaseClient.sql("SELECT id FROM cards WHERE card_number_digest = :digest OR card_number_hash = :hash")
+                .bind("digest", cardNumberDigest)
+                .bind("hash", cardNumberHash)
+                .map(row -> toUuid(row.get("id")))
+                .one();
+    }
+
+    // O prefixo BIGINT seleciona os candidatos pelo índice; o digest completo descarta colisões do prefixo
+    public Mono<UUID> findIdByBlindIndex(long prefix, byte[] digest) {
+        return databaseClient.sql("SELECT id FROM cards WHERE card_number_bidx = :prefix AND card_number_bidx_digest = :digest")
+                .bind("prefix", prefix)
+                .bind("digest", digest)
+                .map(row -> toUuid(row.get("id")))
+                .one();
+    }
+
+    private Object bindableId(UUID id) {
+        if (!binaryUuid) {
+            return id;
+        }
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .flip();
+    }
+
+    private static UUID toUuid(Object value) {
+        if (value instanceof UUID uuid) {
+            return uuid;
+        }
+        ByteBuffer buffer = value instanceof ByteBuffer byteBuffer ? byteBuffer.duplicate() : ByteBuffer.wrap((byte[]) value);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindNullable(DatabaseClient.GenericExecuteSpec spec,
+                                                                  String name, Object value, Class<?> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+}
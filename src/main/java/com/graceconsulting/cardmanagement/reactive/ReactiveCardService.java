@@ -0,0 +1,166 @@
+package com.graceconsulting.cardmanagement.reactive;
+
+import com.graceconsulting.cardmanagement.dto.BatchUploadResponse;
+import com.graceconsulting.cardmanagement.dto.CardRequest;
+import com.graceconsulting.cardmanagement.dto.CardResponse;
+import com.graceconsulting.cardmanagement.dto.CardSearchResponse;
+import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.enums.BatchCardResult;
+import com.graceconsulting.cardmanagement.exception.BusinessException;
+import com.graceconsulting.cardmanagement.exception.ResourceConflictException;
+import com.graceconsulting.cardmanagement.mapper.CardMapper;
+import com.graceconsulting.cardmanagement.service.BlindIndex;
+import com.graceconsulting.cardmanagement.service.CardBatchLines;
+import com.graceconsulting.cardmanagement.service.CardBlindIndexBackfillService;
+import com.graceconsulting.cardmanagement.service.CardIndexSnapshotService;
+import com.graceconsulting.cardmanagement.service.CardStorageMigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Versão não bloqueante do {@code CardService}: mesmo mapeamento, cifra e validação das linhas, com
+ * o acesso ao banco via R2DBC. O lote é lido como fluxo de buffers, sem carregar o arquivo inteiro, e
+ * as linhas são gravadas em paralelo limitado mantendo a ordem do relatório.
+ */
+@Slf4j
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveCardService {
+
+    private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
+
+    private final ReactiveCardRepository cardRepository;
+    private final CardMapper cardMapper;
+    private final CardIndexSnapshotService cardIndexSnapshotService;
+    private final CardStorageMigrationService cardStorageMigrationService;
+    private final CardBlindIndexBackfillService cardBlindIndexBackfillService;
+
+    private final StringDecoder lineDecoder = StringDecoder.allMimeTypes();
+
+    @Value("${card.reactive.batch.concurrency:16}")
+    private int batchConcurrency;
+
+    public Mono<CardResponse> createCard(CardRequest request) {
+        return Mono.fromCallable(() -> cardMapper.toEntity(request))
+                .flatMap(card -> cardRepository.insertIfAbsent(card)
+                        .flatMap(inserted -> inserted
+                                ? Mono.just(card)
+                                : Mono.<Card>error(new ResourceConflictException("Cartão já cadastrado no sistema"))))
+                .doOnNext(card -> log.info("Cartão criado com ID: {}", card.getId()))
+                .map(card -> cardMapper.toResponse(card, cardMapper.normalizeCardNumber(request.cardNumber())));
+    }
+
+    public Mono<CardSearchResponse> searchCard(String cardNumber) {
+        return Mono.defer(() -> {
+            String normalizedNumber = cardMapper.normalizeCardNumber(cardNumber);
+            String hash = cardMapper.hashCardNumber(normalizedNumber);
+
+            Optional<UUID> cached = cardIndexSnapshotService.lookup(cardIndexSnapshotService.isKeyedByBlindIndex()
+                    ? cardMapper.blindIndexCardNumber(normalizedNumber).digest()
+                    : hash);
+            Mono<UUID> id = cached.isPresent() ? Mono.just(cached.get()) : findCardId(hash, normalizedNumber);
+            return id.map(CardSearchResponse::found)
+                    .defaultIfEmpty(CardSearchResponse.notFound());
+        });
+    }
+
+    private Mono<UUID> findCardId(String hash, String normalizedNumber) {
+        if (cardBlindIndexBackfillService.isReadable()) {
+            BlindIndex blindIndex = cardMapper.blindIndexCardNumber(normalizedNumber);
+            return cardRepository.findIdByBlindIndex(blindIndex.prefix(), blindIndex.digestBytes());
+        }
+        if (cardStorageMigrationService.isBinaryReadable()) {
+            return cardRepository.findIdByDigest(HexFormat.of().parseHex(hash));
+        }
+        if (cardStorageMigrationService.isBinaryFormat()) {
+            return cardRepository.findIdByDigestOrHash(HexFormat.of().parseHex(hash), hash);
+        }
+        return cardRepository.findIdByHash(hash);
+    }
+
+    public Mono<BatchUploadResponse> processBatchFile(Flux<DataBuffer> content) {
+        String batchId = UUID.randomUUID().toString();
+        log.info("Processando arquivo em lote {}", batchId);
+
+        return lineDecoder.decode(content, STRING_TYPE, null, null)
+                .switchIfEmpty(Mono.error(new BusinessException("Arquivo vazio")))
+                .index((index, line) -> new BatchLine((int) (index + 1), line))
+                .filter(line -> !CardBatchLines.isHeaderOrFooterLine(line.text(), line.number()))
+                .map(line -> new BatchLine(line.number(), CardBatchLines.extractCardNumber(line.text())))
+                .filter(line -> line.text() != null && !line.text().isEmpty())
+                .flatMapSequential(line -> saveCardFromBatch(line, batchId), batchConcurrency)
+                .collect(BatchSummary::new, BatchSummary::add)
+                .map(summary -> summary.toResponse(batchId))
+                .doOnNext(response -> log.info("Lote {} processado: {} total, {} sucesso, {} duplicados, {} erros",
+                        batchId, response.totalProcessed(), response.successCount(),
+                        response.duplicateCount(), response.errorCount()));
+    }
+
+    private Mono<LineResult> saveCardFromBatch(BatchLine line, String batchId) {
+        if (!CardBatchLines.isValidCardNumber(line.text())) {
+            return Mono.just(new LineResult(line, BatchCardResult.INVALID, "Cartão inválido"));
+        }
+        return Mono.fromCallable(() -> cardMapper.toEntity(line.text(), batchId))
+                .flatMap(cardRepository::insertIfAbsent)
+                .map(inserted -> inserted
+                        ? new LineResult(line, BatchCardResult.SUCCESS, null)
+                        : new LineResult(line, BatchCardResult.DUPLICATE, "Cartão já cadastrado no sistema"))
+                .onErrorResume(e -> {
+                    log.warn("Erro ao processar linha {}: {}", line.number(), e.getMessage());
+                    return Mono.just(new LineResult(line, null, e.getMessage()));
+                });
+    }
+
+    private record BatchLine(int number, String text) {
+    }
+
+    // result null: falha inesperada ao gravar a linha, contada como erro
+    private record LineResult(BatchLine line, BatchCardResult result, String message) {
+    }
+
+    private static final class BatchSummary {
+
+        private int totalProcessed;
+        private int successCount;
+        private int duplicateCount;
+        private int errorCount;
+        private final List<BatchUploadResponse.BatchItemError> errors = new ArrayList<>();
+
+        void add(LineResult lineResult) {
+            totalProcessed++;
+            if (lineResult.result() == BatchCardResult.SUCCESS) {
+                successCount++;
+                return;
+            }
+            if (lineResult.result() == BatchCardResult.DUPLICATE) {
+                duplicateCount++;
+            } else {
+                errorCount++;
+            }
+            errors.add(new BatchUploadResponse.BatchItemError(
+                    lineResult.line().number(),
+                    CardBatchLines.maskCardNumber(lineResult.line().text()),
+                    lineResult.message()
+            ));
+        }
+
+        BatchUploadResponse toResponse(String batchId) {
+            return new BatchUploadResponse(batchId, totalProcessed, successCount, duplicateCount, errorCount, errors);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.graceconsulting.cardmanagement.reactive;
+
+import com.graceconsulting.cardmanagement.dto.ApiError;
+import com.graceconsulting.cardmanagement.exception.BusinessException;
+import com.graceconsulting.cardmanagement.exception.DuplicateKeys;
+import com.graceconsulting.cardmanagement.exception.ResourceConflictException;
+import com.graceconsulting.cardmanagement.exception.ServiceUnavailableException;
+import com.graceconsulting.cardmanagement.exception.TooManyRequestsException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Equivalente funcional do {@code GlobalExceptionHandler} para os handlers reativos: mesmos status,
+ * mensagens e cabeçalhos {@code Retry-After}.
+ */
+@Slf4j
+final class ReactiveErrors {
+
+    private ReactiveErrors() {
+    }
+
+    static <T> T validate(Validator validator, T body) {
+        Set<ConstraintViolation<T>> violations = validator.validate(body);
+        if (!violations.isEmpty()) {
+            throw new InvalidRequestException(violations.stream().map(ConstraintViolation::getMessage).toList());
+        }
+        return body;
+    }
+
+    static Mono<ServerResponse> toResponse(Throwable ex) {
+        if (ex instanceof InvalidRequestException invalid) {
+            log.warn("Validation errors: {}", invalid.errors);
+            return body(HttpStatus.BAD_REQUEST, new ApiError(HttpStatus.BAD_REQUEST.value(), "Erro de validação", invalid.errors));
+        }
+        if (ex instanceof BusinessException) {
+            log.warn("Business exception: {}", ex.getMessage());
+            return body(HttpStatus.BAD_REQUEST, new ApiError(HttpStatus.BAD_REQUEST.value(), ex.getMessage()));
+        }
+        if (ex instanceof ServerWebInputException) {
+            log.warn("Invalid request body: {}", ex.getMessage());
+            return body(HttpStatus.BAD_REQUEST, new ApiError(HttpStatus.BAD_REQUEST.value(), "Requisição inválida"));
+        }
+        if (ex instanceof ResourceConflictException) {
+            log.warn("Conflict exception: {}", ex.getMessage());
+            return body(HttpStatus.CONFLICT, new ApiError(HttpStatus.CONFLICT.value(), ex.getMessage()));
+        }
+        if (ex instanceof DataIntegrityViolationException integrity && DuplicateKeys.isDuplicateKey(integrity)) {
+            log.warn("Data integrity violation: {}", integrity.getMostSpecificCause().getMessage());
+            return body(HttpStatus.CONFLICT, new ApiError(HttpStatus.CONFLICT.value(), "Registro já cadastrado no sistema"));
+        }
+        if (ex instanceof BadCredentialsException || ex instanceof UsernameNotFoundException) {
+            log.warn("Authentication error: {}", ex.getMessage());
+            return body(HttpStatus.UNAUTHORIZED, new ApiError(HttpStatus.UNAUTHORIZED.value(), "Credenciais inválidas"));
+        }
+        if (ex instanceof TooManyRequestsException tooMany) {
+            log.warn("Too many requests: {}", ex.getMessage());
+            return ServerResponse.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(tooMany.getRetryAfterSeconds()))
+                    .bodyValue(new ApiError(HttpStatus.TOO_MANY_REQUESTS.value(), ex.getMessage()));
+        }
+        if (ex instanceof ServiceUnavailableException) {
+            log.warn("Service unavailable: {}", ex.getMessage());
+            return ServerResponse.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .bodyValue(new ApiError(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage()));
+        }
+        log.error("Unexpected error: ", ex);
+        return body(HttpStatus.INTERNAL_SERVER_ERROR,
+                new ApiError(HttpStatus.INTERNAL_SERVER_ERROR.value(), "Erro interno do servidor"));
+    }
+
+    private static Mono<ServerResponse> body(HttpStatus status, ApiError error) {
+        return ServerResponse.status(status).bodyValue(error);
+    }
+
+    static final class InvalidRequestException extends RuntimeException {
+
+        private final List<String> errors;
+
+        InvalidRequestException(List<String> errors) {
+            super("Erro de validação");
+            this.errors = errors;
+        }
+    }
+}
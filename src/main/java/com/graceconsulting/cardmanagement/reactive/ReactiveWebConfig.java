@@ -0,0 +1,147 @@
+package com.graceconsulting.cardmanagement.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graceconsulting.cardmanagement.security.JwtAuthenticator;
+import com.graceconsulting.cardmanagement.security.RehashingAuthenticationProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.ServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.context.ServerSecurityContextRepository;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Rotas e segurança da stack reativa (perfil {@code reactive}). O JWT é resolvido pelo mesmo
+ * {@link JwtAuthenticator} do filtro servlet; token ausente ou inválido segue anônimo e só é recusado
+ * nas rotas protegidas, como no servlet.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableWebFluxSecurity
+@RequiredArgsConstructor
+public class ReactiveWebConfig {
+
+    private final JwtAuthenticator jwtAuthenticator;
+    private final UserDetailsService userDetailsService;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    @Value("${security.password.rehash.queue-capacity:100}")
+    private int rehashQueueCapacity;
+
+    // O starter web deixa o Tomcat no classpath, e o Spring Boot o escolheria também para o WebFlux
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> cardRoutes(ReactiveCardHandler cardHandler, ReactiveAuthHandler authHandler) {
+        return RouterFunctions.route()
+                .POST("/api/cards", cardHandler::create)
+                .POST("/api/cards/search", cardHandler::search)
+                .POST("/api/cards/batch", cardHandler::uploadBatch)
+                .POST("/api/auth/login", authHandler::login)
+                .POST("/api/auth/register", authHandler::register)
+                .build();
+    }
+
+    @Bean
+    public SecurityWebFilterChain reactiveSecurityFilterChain(ServerHttpSecurity http) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(jwtSecurityContextRepository())
+                .authorizeExchange(exchange -> exchange
+                        .pathMatchers("/api/auth/**", "/actuator/health").permitAll()
+                        .anyExchange().authenticated()
+                )
+                .exceptionHandling(exception -> exception
+                        .authenticationEntryPoint(reactiveAuthenticationEntryPoint())
+                )
+                .build();
+    }
+
+    // AuthService depende do AuthenticationManager; sem HttpSecurity ele é montado aqui
+    @Bean
+    public AuthenticationManager authenticationManager() {
+        return new ProviderManager(new RehashingAuthenticationProvider(userDetailsService, userDetailsPasswordService,
+                passwordEncoder, rehashQueueCapacity, meterRegistry));
+    }
+
+    private ServerSecurityContextRepository jwtSecurityContextRepository() {
+        return new ServerSecurityContextRepository() {
+            @Override
+            public Mono<Void> save(ServerWebExchange exchange, SecurityContext context) {
+                return Mono.empty();
+            }
+
+            @Override
+            public Mono<SecurityContext> load(ServerWebExchange exchange) {
+                String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+                if (authorization == null || !authorization.startsWith("Bearer ")) {
+                    return Mono.empty();
+                }
+                String jwt = authorization.substring(7);
+                Mono<SecurityContext> context = Mono.fromCallable(() -> jwtAuthenticator.authenticate(jwt))
+                        .map(user -> new SecurityContextImpl(
+                                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities())));
+                // Fora do modo stateless a autenticação pode consultar o banco
+                return jwtAuthenticator.isStateless() ? context : context.subscribeOn(Schedulers.boundedElastic());
+            }
+        };
+    }
+
+    private ServerAuthenticationEntryPoint reactiveAuthenticationEntryPoint() {
+        return (exchange, authException) -> {
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+
+            Map<String, Object> body = Map.of(
+                    "status", HttpStatus.UNAUTHORIZED.value(),
+                    "error", "Unauthorized",
+                    "message", "Authentication required to access this resource",
+                    "path", exchange.getRequest().getPath().value()
+            );
+
+            DataBuffer buffer;
+            try {
+                buffer = exchange.getResponse().bufferFactory().wrap(objectMapper.writeValueAsBytes(body));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return exchange.getResponse().writeWith(Mono.just(buffer));
+        };
+    }
+}
@@ -1,16 +1,139 @@
 package com.graceconsulting.cardmanagement.repository;
 
+import com.graceconsulting.cardmanagement.dto.CardIndexEntry;
 import com.graceconsulting.cardmanagement.entity.Card;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface CardRepository extends JpaRepository<Card, UUID> {
+public interface CardRepository extends JpaRepository<Card, UUID>, CardRepositoryCustom {
 
+    // Buscas read-only também fora de transação (tentativas de hedging): com réplicas, vão a uma delas
+    @Transactional(readOnly = true)
     Optional<Card> findByCardNumberHash(String cardNumberHash);
 
     boolean existsByCardNumberHash(String cardNumberHash);
+
+    @Transactional(readOnly = true)
+    Optional<Card> findByCardNumberDigest(byte[] cardNumberDigest);
+
+    // Durante a migração binária a linha pode estar em qualquer um dos dois formatos
+    @Transactional(readOnly = true)
+    @Query("select c.id from Card c where c.cardNumberDigest = :digest or c.cardNumberHash = :hash")
+    Optional<UUID> findIdByDigestOrHash(@Param("digest") byte[] digest, @Param("hash") String hash);
+
+    boolean existsByCardNumberHashIsNotNull();
+
+    List<Card> findByCardNumberHashIsNotNull(Pageable pageable);
+
+    // Consultas IN do agrupamento de buscas: read-only para irem às réplicas
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.graceconsulting.cardmanagement.dto.CardIndexEntry(c.id, c.cardNumberHash, c.createdAt)
+            from Card c
+            where c.cardNumberHash in :hashes
+            """)
+    List<CardIndexEntry> findIndexEntriesByHashes(@Param("hashes") Collection<String> hashes);
+
+    // O prefixo BIGINT seleciona os candidatos pelo índice; o digest completo descarta colisões do prefixo
+    @Transactional(readOnly = true)
+    @Query("select c.id from Card c where c.cardNumberBlindIndex = :prefix and c.cardNumberBlindDigest = :digest")
+    Optional<UUID> findIdByBlindIndex(@Param("prefix") long prefix, @Param("digest") byte[] digest);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.graceconsulting.cardmanagement.dto.CardIndexEntry(c.id, c.cardNumberBlindDigest, c.createdAt)
+            from Card c
+            where c.cardNumberBlindIndex in :prefixes
+            """)
+    List<CardIndexEntry> findIndexEntriesByBlindIndexes(@Param("prefixes") Collection<Long> prefixes);
+
+    boolean existsByCardNumberBlindIndexIsNull();
+
+    List<Card> findByCardNumberBlindIndexIsNull(Pageable pageable);
+
+    @Transactional(readOnly = true)
+    @Query("""
+            select new com.graceconsulting.cardmanagement.dto.CardIndexEntry(c.id, c.cardNumberDigest, c.createdAt)
+            from Card c
+            where c.cardNumberDigest in :digests
+            """)
+    List<CardIndexEntry> findIndexEntriesByDigests(@Param("digests") Collection<byte[]> digests);
+
+    @Query("select c.id from Card c where c.id > :lastId order by c.id")
+    List<UUID> findIdsAfter(@Param("lastId") UUID lastId, Pageable pageable);
+
+    @Query("select c.id from Card c order by c.id")
+    List<UUID> findFirstIds(Pageable pageable);
+
+    // Paginação por keyset (createdAt, id) para não depender de OFFSET em tabelas grandes
+    @Query("""
+            select new com.graceconsulting.cardmanagement.dto.CardIndexEntry(c.id, c.cardNumberHash, c.createdAt)
+            from Card c
+            where c.createdAt > :since or (c.createdAt = :since and c.id > :lastId)
+            order by c.createdAt, c.id
+            """)
+    List<CardIndexEntry> findIndexEntriesAfter(@Param("since") LocalDateTime since,
+                                               @Param("lastId") UUID lastId,
+                                               Pageable pageable);
+
+    // Keyset no próprio hash: a primeira carga do snapshot chega já na ordem do arquivo
+    @Query("""
+            select new com.graceconsulting.cardmanagement.dto.CardIndexEntry(c.id, c.cardNumberHash, c.createdAt)
+            from Card c
+            where c.cardNumberHash > :after
+            order by c.cardNumberHash
+            """)
+    List<CardIndexEntry> findIndexEntriesOrderedByHash(@Param("after") String after, Pageable pageable);
+
+    // Com a migração binária concluída o hash em texto é anulado: o snapshot lê o digest, cujo
+    // hexadecimal é o próprio hash, e o arquivo gravado antes da migração continua válido
+    @Query("""
+            select new com.graceconsulting.cardmanagement.dto.CardIndexEntry(c.id, c.cardNumberDigest, c.createdAt)
+            from Card c
+            where c.cardNumberDigest is not null
+              and (c.createdAt > :since or (c.createdAt = :since and c.id > :lastId))
+            order by c.createdAt, c.id
+            """)
+    List<CardIndexEntry> findDigestEntriesAfter(@Param("since") LocalDateTime since,
+                                                @Param("lastId") UUID lastId,
+                                                Pageable pageable);
+
+    @Query("""
+            select new com.graceconsulting.cardmanagement.dto.CardIndexEntry(c.id, c.cardNumberDigest, c.createdAt)
+            from Card c
+            where c.cardNumberDigest > :after
+            order by c.cardNumberDigest
+            """)
+    List<CardIndexEntry> findDigestEntriesOrderedByDigest(@Param("after") byte[] after, Pageable pageable);
+
+    // Mesmas leituras do snapshot, chaveadas pelo digest do blind index em vez do hash sem chave
+    @Query("""
+            select new com.graceconsulting.cardmanagement.dto.CardIndexEntry(c.id, c.cardNumberBlindDigest, c.createdAt)
+            from Card c
+            where c.cardNumberBlindDigest is not null
+              and (c.createdAt > :since or (c.createdAt = :since and c.id > :lastId))
+            order by c.createdAt, c.id
+            """)
+    List<CardIndexEntry> findBlindIndexEntriesAfter(@Param("since") LocalDateTime since,
+                                                    @Param("lastId") UUID lastId,
+                                                    Pageable pageable);
+
+    @Query("""
+            select new com.graceconsulting.cardmanagement.dto.CardIndexEntry(c.id, c.cardNumberBlindDigest, c.createdAt)
+            from Card c
+            where c.cardNumberBlindDigest > :after
+            order by c.cardNumberBlindDigest
+            """)
+    List<CardIndexEntry> findBlindIndexEntriesOrderedByDigest(@Param("after") byte[] after, Pageable pageable);
 }
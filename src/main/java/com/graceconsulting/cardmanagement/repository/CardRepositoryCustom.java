@@ -0,0 +1,28 @@
+package com.graceconsulting.cardmanagement.repository;
+
+import com.graceconsulting.cardmanagement.entity.Card;
+
+public interface CardRepositoryCustom {
+
+    /**
+     * Insere o cartão em um único round trip, delegando a detecção de duplicidade aos índices
+     * únicos da tabela. Outras violações de integridade são propagadas.
+     *
+     * @return {@code false} quando já existe um cartão com o mesmo hash
+     */
+    boolean insertIfAbsent(Card card);
+
+    /**
+     * Cria o índice único de {@code card_number_hash} caso a coluna ainda não tenha nenhum. É a
+     * garantia de duplicidade do formato texto e das linhas ainda não migradas para o binário.
+     */
+    void ensureCardNumberHashUniqueIndex();
+
+    /**
+     * Remove todos os índices de {@code card_number_hash}, únicos ou não, depois que a migração
+     * para o formato binário esvaziou a coluna.
+     *
+     * @return quantidade de índices removidos
+     */
+    int dropCardNumberHashIndexes();
+}
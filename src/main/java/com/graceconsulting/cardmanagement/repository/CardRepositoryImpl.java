@@ -0,0 +1,131 @@
+package com.graceconsulting.cardmanagement.repository;
+
+import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.exception.DuplicateKeys;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.metamodel.mapping.JdbcMapping;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+public class CardRepositoryImpl implements CardRepositoryCustom {
+
+    private static final String COLUMNS = "(id, card_number_encrypted, card_number_hash, card_number_cipher,"
+            + " card_number_digest, card_number_bidx, card_number_bidx_digest, created_at, batch_id, version)";
+    private static final String VALUES = " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String HASH_COLUMN = "card_number_hash";
+    private static final String HASH_UNIQUE_INDEX = "uk_cards_card_number_hash";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public boolean insertIfAbsent(Card card) {
+        if (card.getId() == null) {
+            card.setId(UUID.randomUUID());
+        }
+
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(Card.class);
+        String sql = insertSql(session.getFactory().getJdbcServices().getDialect());
+        // Usa os mesmos binders do Hibernate para que o UUID e o LocalDateTime sejam gravados como no mapeamento
+        JdbcMapping id = persister.getIdentifierMapping().getSingleJdbcMapping();
+        JdbcMapping createdAt = persister.findAttributeMapping("createdAt").getSingleJdbcMapping();
+
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                id.getJdbcValueBinder().bind(statement, card.getId(), 1, session);
+                statement.setString(2, card.getCardNumberEncrypted());
+                statement.setString(3, card.getCardNumberHash());
+                statement.setBytes(4, card.getCardNumberCipher());
+                statement.setBytes(5, card.getCardNumberDigest());
+                statement.setObject(6, card.getCardNumberBlindIndex(), Types.BIGINT);
+                statement.setBytes(7, card.getCardNumberBlindDigest());
+                createdAt.getJdbcValueBinder().bind(statement, card.getCreatedAt(), 8, session);
+                statement.setString(9, card.getBatchId());
+                return statement.executeUpdate() == 1;
+            } catch (SQLException e) {
+                // Só a violação de índice único vira "já existe"; NOT NULL, truncamento e afins seguem como erro
+                if (DuplicateKeys.isDuplicateKey(e.getSQLState(), e.getErrorCode())) {
+                    return false;
+                }
+                throw e;
+            }
+        });
+    }
+
+    // No PostgreSQL um erro aborta a transação inteira, então o conflito (em qualquer índice único) é
+    // absorvido pelo próprio INSERT. No MySQL o erro desfaz só o comando: o INSERT simples deixa o
+    // ER_DUP_ENTRY identificar a duplicidade, sem o IGNORE que também rebaixaria truncamento e NOT NULL
+    // a avisos
+    private String insertSql(Dialect dialect) {
+        if (dialect instanceof PostgreSQLDialect) {
+            return "INSERT INTO cards " + COLUMNS + VALUES + " ON CONFLICT DO NOTHING";
+        }
+        return "INSERT INTO cards " + COLUMNS + VALUES;
+    }
+
+    @Override
+    @Transactional
+    public void ensureCardNumberHashUniqueIndex() {
+        entityManager.unwrap(SessionImplementor.class).doWork(connection -> {
+            boolean unique = hashIndexes(connection).containsValue(true);
+            if (!unique) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE UNIQUE INDEX " + HASH_UNIQUE_INDEX + " ON cards (" + HASH_COLUMN + ")");
+                }
+            }
+        });
+    }
+
+    @Override
+    @Transactional
+    public int dropCardNumberHashIndexes() {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        boolean mysql = session.getFactory().getJdbcServices().getDialect() instanceof MySQLDialect;
+        return session.doReturningWork(connection -> {
+            Map<String, Boolean> indexes = hashIndexes(connection);
+            try (Statement statement = connection.createStatement()) {
+                for (String index : indexes.keySet()) {
+                    statement.execute(mysql
+                            ? "ALTER TABLE cards DROP INDEX " + index
+                            : "DROP INDEX " + index);
+                }
+            }
+            return indexes.size();
+        });
+    }
+
+    // Nome do índice -> único; o nome gerado pelo Hibernate em bancos antigos varia, então é descoberto
+    private static Map<String, Boolean> hashIndexes(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String table = metaData.storesUpperCaseIdentifiers() ? "CARDS" : "cards";
+        Map<String, Boolean> indexes = new LinkedHashMap<>();
+        try (ResultSet rows = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table, false, false)) {
+            while (rows.next()) {
+                String index = rows.getString("INDEX_NAME");
+                if (index != null && HASH_COLUMN.equalsIgnoreCase(rows.getString("COLUMN_NAME"))) {
+                    indexes.put(index, !rows.getBoolean("NON_UNIQUE"));
+                }
+            }
+        }
+        return indexes;
+    }
+}
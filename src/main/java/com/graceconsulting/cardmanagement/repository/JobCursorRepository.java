@@ -0,0 +1,58 @@
+package com.graceconsulting.cardmanagement.repository;
+
+import com.graceconsulting.cardmanagement.entity.JobCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface JobCursorRepository extends JpaRepository<JobCursor, String> {
+
+    // INSERT puro em vez de save(): dois nós criando o mesmo cursor precisam colidir na chave primária
+    @Modifying
+    @Transactional
+    @Query(value = "insert into job_cursors (name, processed, completed, updated_at) values (:name, 0, false, :now)",
+            nativeQuery = true)
+    void insert(@Param("name") String name, @Param("now") LocalDateTime now);
+
+    /**
+     * Assume ou renova o lease do cursor em um único UPDATE condicional: só um nó por vez o obtém.
+     *
+     * @return {@code 1} se o lease ficou com {@code owner}
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update JobCursor c set c.leaseOwner = :owner, c.leaseUntil = :until
+            where c.name = :name and (c.leaseOwner is null or c.leaseOwner = :owner or c.leaseUntil < :now)
+            """)
+    int acquireLease(@Param("name") String name,
+                     @Param("owner") String owner,
+                     @Param("now") LocalDateTime now,
+                     @Param("until") LocalDateTime until);
+
+    /**
+     * Avança o cursor somente se {@code owner} ainda detém o lease.
+     *
+     * @return {@code 0} quando o lease foi perdido para outro nó
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            update JobCursor c
+            set c.lastId = :lastId, c.processed = c.processed + :rows, c.completed = :completed, c.updatedAt = :now
+            where c.name = :name and c.leaseOwner = :owner
+            """)
+    int advance(@Param("name") String name,
+                @Param("owner") String owner,
+                @Param("lastId") UUID lastId,
+                @Param("rows") long rows,
+                @Param("completed") boolean completed,
+                @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,37 @@
+package com.graceconsulting.cardmanagement.repository;
+
+import com.graceconsulting.cardmanagement.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // INSERT puro em vez de save(): com id atribuído o save faria merge, e um jti repetido precisa
+    // falhar na chave primária para que dois refreshes simultâneos do mesmo token não passem
+    @Modifying
+    @Transactional
+    @Query(value = "insert into revoked_tokens (jti, expires_at, revoked_at) values (:jti, :expiresAt, :revokedAt)",
+            nativeQuery = true)
+    void insert(@Param("jti") String jti,
+                @Param("expiresAt") LocalDateTime expiresAt,
+                @Param("revokedAt") LocalDateTime revokedAt);
+
+    @Query("""
+            select t from RevokedToken t
+            where t.revokedAt > :since and t.expiresAt > :now
+            """)
+    List<RevokedToken> findRevokedSince(@Param("since") LocalDateTime since, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("delete from RevokedToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -1,9 +1,14 @@
 package com.graceconsulting.cardmanagement.repository;
 
+import com.graceconsulting.cardmanagement.dto.UserTokenState;
 import com.graceconsulting.cardmanagement.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,4 +18,15 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByUsername(String username);
 
     boolean existsByUsername(String username);
+
+    @Query("""
+            select new com.graceconsulting.cardmanagement.dto.UserTokenState(u.username, u.tokenVersion, u.active, u.updatedAt)
+            from User u
+            where u.updatedAt > :since
+            """)
+    List<UserTokenState> findTokenStatesChangedSince(@Param("since") LocalDateTime since);
+
+    // Marca d'água barata (índice em updated_at) para detectar alterações feitas por outros nós
+    @Query("select max(u.updatedAt) from User u")
+    Optional<LocalDateTime> findLatestUpdatedAt();
 }
@@ -0,0 +1,55 @@
+package com.graceconsulting.cardmanagement.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Arrays;
+
+/**
+ * Escolhe o work factor do BCrypt pela latência medida neste host: mede o custo no piso
+ * {@code minStrength} e sobe enquanto o custo estimado, que dobra a cada nível, couber no
+ * orçamento. O nível escolhido é medido de novo para informar o custo real.
+ */
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    private static final int SAMPLES = 3;
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    public record Calibration(int strength, double millis) {}
+
+    public static Calibration calibrate(long targetMillis, int minStrength, int maxStrength) {
+        // Aquece o JIT com o custo mínimo antes de medir
+        new BCryptPasswordEncoder(4).encode(SAMPLE_PASSWORD);
+
+        int strength = minStrength;
+        double estimate = measure(strength);
+        while (strength < maxStrength && estimate * 2 <= targetMillis) {
+            strength++;
+            estimate *= 2;
+        }
+        double millis = strength == minStrength ? estimate : measure(strength);
+        if (millis > targetMillis) {
+            log.warn("BCrypt no work factor mínimo {} custa {}ms, acima do orçamento de {}ms",
+                    strength, String.format("%.1f", millis), targetMillis);
+        }
+        log.info("BCrypt calibrado: work factor {} ({}ms por hash, orçamento {}ms)",
+                strength, String.format("%.1f", millis), targetMillis);
+        return new Calibration(strength, millis);
+    }
+
+    private static double measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        double[] samples = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = (System.nanoTime() - start) / 1e6;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
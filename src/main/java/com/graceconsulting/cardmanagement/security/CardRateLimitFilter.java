@@ -0,0 +1,168 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.graceconsulting.cardmanagement.dto.ApiError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite de requisições por usuário autenticado em cada endpoint de cartões, aplicado logo após o
+ * filtro JWT. Cada par usuário/endpoint tem um {@link TokenBucket}; os baldes ficam em um cache
+ * limitado e somem após ficarem ociosos pelo tempo de reabastecer por completo, quando voltariam
+ * cheios de qualquer forma. As respostas levam os cabeçalhos {@code RateLimit-*}, e as recusadas
+ * recebem 429 com {@code Retry-After}.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class CardRateLimitFilter extends OncePerRequestFilter {
+
+    enum Endpoint { SEARCH, CREATE, BATCH }
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Map<Endpoint, Counter> rejected = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Limit> limits = new EnumMap<>(Endpoint.class);
+
+    @Value("${card.rate-limit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${card.rate-limit.max-buckets:100000}")
+    private long maxBuckets;
+
+    @Value("${card.rate-limit.search.capacity:100}")
+    private int searchCapacity;
+
+    @Value("${card.rate-limit.search.refill-per-minute:3000}")
+    private double searchRefillPerMinute;
+
+    @Value("${card.rate-limit.create.capacity:20}")
+    private int createCapacity;
+
+    @Value("${card.rate-limit.create.refill-per-minute:600}")
+    private double createRefillPerMinute;
+
+    @Value("${card.rate-limit.batch.capacity:2}")
+    private int batchCapacity;
+
+    @Value("${card.rate-limit.batch.refill-per-minute:6}")
+    private double batchRefillPerMinute;
+
+    private Cache<String, TokenBucket> buckets;
+
+    public CardRateLimitFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    private record Limit(int capacity, double refillPerSecond) {
+
+        long refillNanos() {
+            return (long) (TimeUnit.SECONDS.toNanos(1) * capacity / refillPerSecond);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        limits.put(Endpoint.SEARCH, new Limit(searchCapacity, searchRefillPerMinute / 60));
+        limits.put(Endpoint.CREATE, new Limit(createCapacity, createRefillPerMinute / 60));
+        limits.put(Endpoint.BATCH, new Limit(batchCapacity, batchRefillPerMinute / 60));
+        long idleNanos = limits.values().stream().mapToLong(Limit::refillNanos).max().orElseThrow();
+        buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(Duration.ofNanos(idleNanos))
+                .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            rejected.put(endpoint, Counter.builder("cards.rate-limit.rejected")
+                    .description("Requisições recusadas pelo limite por usuário")
+                    .tag("endpoint", endpoint.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        log.info("Limite por usuário habilitado: {}", limits);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || endpoint(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            // Sem usuário o pedido termina em 401 mais adiante; não há balde a consumir
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Endpoint endpoint = endpoint(request);
+        Limit limit = limits.get(endpoint);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.get(authentication.getName() + ':' + endpoint,
+                key -> new TokenBucket(limit.capacity(), limit.refillPerSecond(), now));
+        TokenBucket.Decision decision = bucket.tryAcquire(now);
+
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(toSeconds(decision.resetNanos())));
+
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        rejected.get(endpoint).increment();
+        log.debug("Limite de requisições excedido: {} em {}", authentication.getName(), endpoint);
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(toSeconds(decision.retryAfterNanos())));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(),
+                new ApiError(HttpStatus.TOO_MANY_REQUESTS.value(), "Limite de requisições excedido, tente novamente mais tarde"));
+    }
+
+    private static Endpoint endpoint(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return null;
+        }
+        return switch (request.getRequestURI()) {
+            case "/api/cards" -> Endpoint.CREATE;
+            case "/api/cards/search" -> Endpoint.SEARCH;
+            case "/api/cards/batch" -> Endpoint.BATCH;
+            default -> null;
+        };
+    }
+
+    private static long toSeconds(long nanos) {
+        return TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1);
+    }
+}
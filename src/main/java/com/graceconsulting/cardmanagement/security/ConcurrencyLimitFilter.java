@@ -0,0 +1,138 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graceconsulting.cardmanagement.dto.ApiError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite adaptativo de requisições simultâneas no cadastro e na busca de cartões. O limite acompanha
+ * a latência observada ({@link GradientConcurrencyLimit}): quando o banco fica lento ele encolhe, e o
+ * excesso recebe 503 na hora em vez de esperar em fila no Tomcat. O lote fica de fora, pois sua
+ * duração depende do arquivo e distorceria a latência de referência.
+ */
+@Slf4j
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${card.concurrency-limit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${card.concurrency-limit.initial-limit:20}")
+    private int initialLimit;
+
+    @Value("${card.concurrency-limit.min-limit:4}")
+    private int minLimit;
+
+    @Value("${card.concurrency-limit.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${card.concurrency-limit.rtt-tolerance:1.5}")
+    private double rttTolerance;
+
+    @Value("${card.concurrency-limit.smoothing:0.2}")
+    private double smoothing;
+
+    @Value("${card.concurrency-limit.window-ms:1000}")
+    private long windowMs;
+
+    @Value("${card.concurrency-limit.min-window-samples:10}")
+    private int minWindowSamples;
+
+    @Value("${card.concurrency-limit.long-window:600}")
+    private int longWindow;
+
+    private GradientConcurrencyLimit limit;
+    private Counter rejected;
+
+    public ConcurrencyLimitFilter(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        limit = new GradientConcurrencyLimit(initialLimit, minLimit, maxLimit, rttTolerance, smoothing,
+                TimeUnit.MILLISECONDS.toNanos(windowMs), minWindowSamples, longWindow, System.nanoTime());
+        Gauge.builder("cards.concurrency.limit", limit, GradientConcurrencyLimit::getLimit)
+                .description("Limite atual de requisições simultâneas nos endpoints de cartões")
+                .register(meterRegistry);
+        Gauge.builder("cards.concurrency.in-flight", limit, GradientConcurrencyLimit::getInFlight)
+                .description("Requisições de cartões em andamento")
+                .register(meterRegistry);
+        Gauge.builder("cards.concurrency.drop-ratio", limit, GradientConcurrencyLimit::getDropRatio)
+                .description("Fração das requisições recusadas na última janela")
+                .register(meterRegistry);
+        rejected = Counter.builder("cards.concurrency.rejected")
+                .description("Requisições recusadas pelo limite de concorrência")
+                .register(meterRegistry);
+        log.info("Limite adaptativo de concorrência habilitado: inicial {}, entre {} e {}",
+                initialLimit, minLimit, maxLimit);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        return !path.equals("/api/cards") && !path.equals("/api/cards/search");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!limit.tryAcquire()) {
+            rejected.increment();
+            log.debug("Requisição recusada pelo limite de concorrência ({}): {}", limit.getLimit(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            objectMapper.writeValue(response.getOutputStream(),
+                    new ApiError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servidor sobrecarregado, tente novamente em instantes"));
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            long now = System.nanoTime();
+            // Falhas costumam ser rápidas e puxariam a latência de referência para baixo
+            if (completed && response.getStatus() < 500) {
+                limit.release(now - start, now);
+            } else {
+                limit.releaseIgnored();
+            }
+        }
+    }
+}
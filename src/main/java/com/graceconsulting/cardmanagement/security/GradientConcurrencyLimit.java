@@ -0,0 +1,135 @@
+package com.graceconsulting.cardmanagement.security;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limite adaptativo de requisições simultâneas no estilo Gradient2. A cada janela, a latência média
+ * (RTT curto) é comparada com uma média móvel longa: enquanto o curto não passa de
+ * {@code tolerance} vezes o longo, o limite cresce em {@code sqrt(limite)}; quando a latência sobe,
+ * o limite encolhe proporcionalmente ao gradiente (no máximo pela metade por janela). O
+ * {@link #tryAcquire()} não usa lock; só o fechamento da janela é sincronizado.
+ */
+public final class GradientConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double longAlpha;
+    private final long windowNanos;
+    private final int minWindowSamples;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong windowAccepted = new AtomicLong();
+    private final AtomicLong windowDropped = new AtomicLong();
+
+    private volatile int limit;
+    private volatile double dropRatio;
+
+    private double estimatedLimit;
+    private double longRtt;
+    private long windowStart;
+    private long windowRttSum;
+    private int windowSamples;
+
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                    double smoothing, long windowNanos, int minWindowSamples, int longWindow,
+                                    long now) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.longAlpha = 2.0 / (longWindow + 1);
+        this.windowNanos = windowNanos;
+        this.minWindowSamples = minWindowSamples;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+        this.windowStart = now;
+    }
+
+    /**
+     * @return {@code true} se a requisição ocupou uma vaga e deve chamar {@link #release} ao terminar
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                windowDropped.incrementAndGet();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                peakInFlight.accumulateAndGet(current + 1, Math::max);
+                windowAccepted.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Libera a vaga e registra a latência observada.
+     */
+    public void release(long rttNanos, long now) {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            windowRttSum += rttNanos;
+            windowSamples++;
+            if (now - windowStart >= windowNanos && windowSamples >= minWindowSamples) {
+                update((double) windowRttSum / windowSamples);
+                windowStart = now;
+                windowRttSum = 0;
+                windowSamples = 0;
+            }
+        }
+    }
+
+    /**
+     * Libera a vaga sem registrar latência, para respostas de erro que não refletem a carga.
+     */
+    public void releaseIgnored() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Fração das requisições recusadas na última janela fechada.
+     */
+    public double getDropRatio() {
+        return dropRatio;
+    }
+
+    private void update(double shortRtt) {
+        long accepted = windowAccepted.getAndSet(0);
+        long dropped = windowDropped.getAndSet(0);
+        dropRatio = accepted + dropped == 0 ? 0 : (double) dropped / (accepted + dropped);
+        int peak = peakInFlight.getAndSet(inFlight.get());
+
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) * longAlpha;
+        }
+        // Depois de um período lento a média longa fica alta demais; deixa-a voltar mais rápido
+        if (longRtt / shortRtt > 2) {
+            longRtt *= 0.95;
+        }
+        // Sem demanda perto do limite a latência não diz nada sobre ele
+        if (peak < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,108 @@
+package com.graceconsulting.cardmanagement.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Resolve o principal de um bearer token. Compartilhado pelo filtro servlet e pela stack reativa,
+ * para que as duas apliquem as mesmas regras de revogação e o mesmo modo stateless.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtAuthenticator {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserDetailsCache userDetailsCache;
+    private final RevokedTokenStore revokedTokenStore;
+
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean stateless;
+
+    /**
+     * Fora do modo stateless pode consultar o usuário no banco: na stack reativa, chamar fora do event loop.
+     *
+     * @return o usuário autenticado, ou {@code null} se o token for inválido, revogado, anterior à última
+     * troca de senha ou de usuário desativado
+     */
+    public UserDetails authenticate(String jwt) {
+        // Uma única verificação da assinatura por requisição; as claims servem aos dois modos
+        Claims claims;
+        try {
+            claims = jwtTokenProvider.parseClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        // Refresh token só vale em /api/auth/refresh; jti revogado por logout ou rotação não autentica
+        if (JwtTokenProvider.isRefreshToken(claims) || revokedTokenStore.isRevoked(claims.getId(), claims.getExpiration())) {
+            return null;
+        }
+
+        String username = claims.getSubject();
+        Integer version = claims.get(JwtTokenProvider.VERSION_CLAIM, Integer.class);
+        if (!stateless) {
+            return loadUser(username, version);
+        }
+
+        List<?> roles = claims.get(JwtTokenProvider.ROLES_CLAIM, List.class);
+        if (version == null || roles == null) {
+            // Token emitido antes das claims de autorização: mantém a consulta até ele expirar
+            return loadUser(username, version);
+        }
+        if (tokenRevocationService.isRevoked(username, version)) {
+            log.debug("Token revogado para o usuário: {}", username);
+            return null;
+        }
+
+        // Monta o principal só com as claims do token verificado, sem consultar a tabela de usuários
+        List<GrantedAuthority> authorities = roles.stream()
+                .<GrantedAuthority>map(role -> new SimpleGrantedAuthority(role.toString()))
+                .toList();
+        return User.withUsername(username)
+                .password("")
+                .authorities(authorities)
+                .build();
+    }
+
+    /**
+     * Indica se {@link #authenticate} pode consultar o banco para este token.
+     */
+    public boolean isStateless() {
+        return stateless;
+    }
+
+    // A troca de senha incrementa a versão do usuário; token sem a claim conta como a versão inicial
+    private UserDetails loadUser(String username, Integer version) {
+        UserDetails userDetails = userDetailsCache.isEnabled()
+                ? userDetailsCache.get(username)
+                : userDetailsService.loadUserByUsername(username);
+        if (!userDetails.isEnabled()) {
+            return null;
+        }
+        if ((version != null ? version : 0) < tokenVersionOf(userDetails)) {
+            log.debug("Token revogado para o usuário: {}", username);
+            return null;
+        }
+        return userDetails;
+    }
+
+    private static int tokenVersionOf(UserDetails userDetails) {
+        if (userDetails instanceof com.graceconsulting.cardmanagement.entity.User user) {
+            return user.getTokenVersion();
+        }
+        return userDetails instanceof UserDetailsCache.CachedUser cached ? cached.getTokenVersion() : 0;
+    }
+}
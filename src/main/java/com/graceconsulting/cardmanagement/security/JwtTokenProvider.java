@@ -1,21 +1,42 @@
 package com.graceconsulting.cardmanagement.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.graceconsulting.cardmanagement.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
-public class JwtTokenProvider {
+public class JwtTokenProvider implements MeterBinder {
+
+    public static final String ROLES_CLAIM = "roles";
+    public static final String VERSION_CLAIM = "ver";
+    public static final String TYPE_CLAIM = "type";
+    public static final String REFRESH_TYPE = "refresh";
 
     @Value("${jwt.secret}")
     private String jwtSecret;
@@ -23,42 +44,111 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    @Value("${jwt.refresh.enabled:false}")
+    private boolean refreshEnabled;
+
+    @Value("${jwt.refresh.access-expiration-ms:900000}")
+    private long accessExpirationMs;
+
+    @Value("${jwt.refresh.expiration-ms:604800000}")
+    private long refreshExpirationMs;
+
+    @Value("${jwt.verified-cache.enabled:false}")
+    private boolean verifiedCacheEnabled;
+
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private long verifiedCacheMaxSize;
+
+    @Value("${jwt.verified-cache.max-ttl-ms:300000}")
+    private long verifiedCacheMaxTtlMs;
+
     private SecretKey key;
+    private JwtParser parser;
+    private Cache<String, Claims> verifiedTokens;
 
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        // O parser é imutável e thread-safe: montado uma vez e reutilizado em todas as requisições
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        if (verifiedCacheEnabled) {
+            this.verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(verifiedCacheMaxSize)
+                    .expireAfter(new UntilTokenExpiry())
+                    .recordStats()
+                    .build();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (verifiedTokens != null) {
+            CaffeineCacheMetrics.monitor(registry, verifiedTokens, "auth.verified-tokens");
+        }
     }
 
     public String generateToken(Authentication authentication) {
-        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+        return buildToken((UserDetails) authentication.getPrincipal(), getAccessExpiration(), false);
+    }
+
+    /**
+     * Token de longa duração aceito só em {@code /api/auth/refresh}, nunca como bearer.
+     */
+    public String generateRefreshToken(UserDetails userDetails) {
+        return buildToken(userDetails, refreshExpirationMs, true);
+    }
+
+    // Todo token leva um jti: é por ele que o logout revoga um token específico
+    private String buildToken(UserDetails userDetails, long expiration, boolean refresh) {
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + jwtExpiration);
+        Date expiryDate = new Date(now.getTime() + expiration);
+        List<String> roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList();
+        int version = userDetails instanceof User user ? user.getTokenVersion() : 0;
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(userDetails.getUsername())
+                .claim(ROLES_CLAIM, roles)
+                .claim(VERSION_CLAIM, version);
+        if (refresh) {
+            builder.claim(TYPE_CLAIM, REFRESH_TYPE);
+        }
+        return builder
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(key)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    public static boolean isRefreshToken(Claims claims) {
+        return REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class));
+    }
 
-        return claims.getSubject();
+    /**
+     * Verifica a assinatura e a expiração e devolve as claims do token. Com o cache habilitado, um
+     * token já verificado é resolvido pelo seu SHA-256 até, no máximo, o instante do {@code exp}.
+     *
+     * @throws JwtException se o token for inválido ou estiver expirado
+     */
+    public Claims parseClaims(String token) {
+        if (verifiedTokens == null) {
+            return parser.parseSignedClaims(token).getPayload();
+        }
+        // Falhas de verificação propagam a exceção e não ficam no cache
+        return verifiedTokens.get(digest(token), k -> parser.parseSignedClaims(token).getPayload());
+    }
+
+    public String getUsernameFromToken(String token) {
+        return parseClaims(token).getSubject();
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
+            parseClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             return false;
@@ -66,6 +156,49 @@ public class JwtTokenProvider {
     }
 
     public long getExpirationInSeconds() {
-        return jwtExpiration / 1000;
+        return getAccessExpiration() / 1000;
+    }
+
+    public boolean isRefreshEnabled() {
+        return refreshEnabled;
+    }
+
+    // Com refresh token o access token passa a ter vida curta; sem ele vale jwt.expiration
+    private long getAccessExpiration() {
+        return refreshEnabled ? accessExpirationMs : jwtExpiration;
+    }
+
+    // A chave é o digest, não o token: o cache não guarda credenciais reutilizáveis
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long maxTtl = TimeUnit.MILLISECONDS.toNanos(verifiedCacheMaxTtlMs);
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtl;
+            }
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(maxTtl, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
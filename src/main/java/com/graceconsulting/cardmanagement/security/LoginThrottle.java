@@ -0,0 +1,176 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.graceconsulting.cardmanagement.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Limita as tentativas de login por username e por IP antes do BCrypt. Cada chave é um token bucket
+ * na forma GCRA (um único instante teórico de chegada por slot, atualizado por CAS). As chaves caem
+ * em tabelas de tamanho fixo pelo hash, como em um count-min sketch: cada chave ocupa dois slots e
+ * vale o menor dos dois. Colisões só tornam o limite mais rígido. A memória não cresce com o número
+ * de chaves distintas, e a semente aleatória do hash impede forjar colisões com uma vítima.
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    private final Counter throttledUsernames;
+    private final Counter throttledAddresses;
+
+    @Value("${security.login-throttle.enabled:false}")
+    private boolean enabled;
+
+    @Value("${security.login-throttle.slots:65536}")
+    private int slots;
+
+    @Value("${security.login-throttle.username.rate-per-minute:10}")
+    private int usernameRatePerMinute;
+
+    @Value("${security.login-throttle.username.burst:5}")
+    private int usernameBurst;
+
+    @Value("${security.login-throttle.ip.rate-per-minute:60}")
+    private int ipRatePerMinute;
+
+    @Value("${security.login-throttle.ip.burst:20}")
+    private int ipBurst;
+
+    private RateTable usernames;
+    private RateTable addresses;
+
+    public LoginThrottle(MeterRegistry meterRegistry) {
+        this.throttledUsernames = Counter.builder("auth.login.throttled")
+                .description("Tentativas de login recusadas pelo limite por chave")
+                .tag("key", "username")
+                .register(meterRegistry);
+        this.throttledAddresses = Counter.builder("auth.login.throttled")
+                .description("Tentativas de login recusadas pelo limite por chave")
+                .tag("key", "ip")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        SecureRandom random = new SecureRandom();
+        usernames = new RateTable(slots, usernameRatePerMinute, usernameBurst, random.nextLong());
+        addresses = new RateTable(slots, ipRatePerMinute, ipBurst, random.nextLong());
+        log.info("Limite de login habilitado: {}/min por username, {}/min por IP, {} slots",
+                usernameRatePerMinute, ipRatePerMinute, slots);
+    }
+
+    /**
+     * Consome uma tentativa do IP e do username.
+     *
+     * @throws TooManyRequestsException se algum dos limites estiver esgotado
+     */
+    public void check(String username, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (clientIp != null) {
+            long wait = addresses.acquire(clientIp, now);
+            if (wait > 0) {
+                throttledAddresses.increment();
+                throw tooManyRequests(wait);
+            }
+        }
+        long wait = usernames.acquire(username.toLowerCase(Locale.ROOT), now);
+        if (wait > 0) {
+            throttledUsernames.increment();
+            log.debug("Login limitado para o usuário: {}", username);
+            throw tooManyRequests(wait);
+        }
+    }
+
+    private static TooManyRequestsException tooManyRequests(long waitNanos) {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return new TooManyRequestsException("Muitas tentativas de login, tente novamente mais tarde", seconds);
+    }
+
+    static final class RateTable {
+
+        private final AtomicLongArray arrivals;
+        private final int mask;
+        private final long interval;
+        private final long tolerance;
+        private final long seed;
+
+        RateTable(int slots, int ratePerMinute, int burst, long seed) {
+            int size = Integer.highestOneBit(Math.max(2, slots - 1) << 1);
+            this.arrivals = new AtomicLongArray(size);
+            this.mask = size - 1;
+            this.interval = TimeUnit.MINUTES.toNanos(1) / Math.max(1, ratePerMinute);
+            this.tolerance = interval * Math.max(0, burst - 1);
+            this.seed = seed;
+            // nanoTime pode ser negativo: slot vazio precisa ficar abaixo de qualquer instante
+            for (int i = 0; i < size; i++) {
+                arrivals.set(i, Long.MIN_VALUE);
+            }
+        }
+
+        /**
+         * @return 0 se a tentativa foi aceita e consumida; senão, quanto esperar, em nanos
+         */
+        long acquire(String key, long now) {
+            long hash = hash(key);
+            int first = (int) hash & mask;
+            int second = (int) (hash >>> 32) & mask;
+            while (true) {
+                long firstArrival = arrivals.get(first);
+                long secondArrival = arrivals.get(second);
+                // O slot de menor valor decide, e é o CAS nele que consome a tentativa
+                boolean firstDecides = firstArrival <= secondArrival;
+                int decider = firstDecides ? first : second;
+                long current = firstDecides ? firstArrival : secondArrival;
+                long next = Math.max(current, now) + interval;
+                long wait = next - interval - tolerance - now;
+                if (wait > 0) {
+                    return wait;
+                }
+                // O outro slot sobe antes do CAS: quem ler os dois depois do CAS nunca vê um valor
+                // anterior a esta tentativa. Se o CAS perder, a sobra só deixa o limite mais rígido
+                if (second != first) {
+                    raise(firstDecides ? second : first, next);
+                }
+                if (arrivals.compareAndSet(decider, current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        private void raise(int slot, long target) {
+            long current;
+            do {
+                current = arrivals.get(slot);
+                if (current >= target) {
+                    return;
+                }
+            } while (!arrivals.compareAndSet(slot, current, target));
+        }
+
+        // FNV-1a de 64 bits com base aleatória, seguido do finalizador do SplitMix64
+        private long hash(String key) {
+            long h = seed ^ 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h = (h ^ key.charAt(i)) * 0x100000001b3L;
+            }
+            h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+            h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+            return h ^ (h >>> 31);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.graceconsulting.cardmanagement.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DaoAuthenticationProvider} que atualiza em segundo plano os hashes gravados com work factor
+ * desatualizado. O {@code DaoAuthenticationProvider} faria o novo hash dentro do login; aqui o login
+ * responde logo e o novo hash é gravado por {@link UserDetailsPasswordService} em uma thread à
+ * parte. Com a fila cheia a atualização é descartada e tentada de novo no próximo login.
+ */
+@Slf4j
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider implements AutoCloseable {
+
+    private final UserDetailsPasswordService passwordService;
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    private final Counter rehashed;
+
+    public RehashingAuthenticationProvider(UserDetailsService userDetailsService,
+                                           UserDetailsPasswordService passwordService,
+                                           PasswordEncoder passwordEncoder,
+                                           int queueCapacity,
+                                           MeterRegistry meterRegistry) {
+        super(passwordEncoder);
+        setUserDetailsService(userDetailsService);
+        this.passwordService = passwordService;
+        this.encoder = passwordEncoder;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-rehash").daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.rehashed = Counter.builder("auth.password.rehashed")
+                .description("Hashes de senha atualizados para o work factor atual após o login")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        if (authentication.getCredentials() != null && encoder.upgradeEncoding(user.getPassword())) {
+            // As credenciais são apagadas pelo ProviderManager ao fim do login: copia antes
+            String presentedPassword = authentication.getCredentials().toString();
+            try {
+                executor.execute(() -> rehash(user, presentedPassword));
+            } catch (RejectedExecutionException e) {
+                log.debug("Fila de atualização de hash cheia; {} fica para o próximo login", user.getUsername());
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private void rehash(UserDetails user, String presentedPassword) {
+        try {
+            passwordService.updatePassword(user, encoder.encode(presentedPassword));
+            rehashed.increment();
+            log.debug("Hash de senha atualizado para o work factor atual: {}", user.getUsername());
+        } catch (RuntimeException e) {
+            log.warn("Falha ao atualizar hash de senha de {}: {}", user.getUsername(), e.getMessage());
+        }
+    }
+}
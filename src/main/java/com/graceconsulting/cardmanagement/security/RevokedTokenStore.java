@@ -0,0 +1,148 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.graceconsulting.cardmanagement.entity.RevokedToken;
+import com.graceconsulting.cardmanagement.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens revogados por {@code jti}, mantidos em memória e sincronizados a partir da tabela
+ * {@code revoked_tokens}. Os jti ficam agrupados pelo minuto (ou {@code bucket-ms}) do seu
+ * {@code exp}: a consulta vai direto ao grupo do token, e um grupo inteiro é descartado quando seus
+ * tokens expiram. Cada jti é guardado como um fingerprint de 64 bits em vez da string.
+ * A revogação feita neste nó vale na hora; as dos demais nós chegam no próximo refresh.
+ */
+@Slf4j
+@Component
+public class RevokedTokenStore {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Map<Long, Set<Long>> buckets = new ConcurrentHashMap<>();
+
+    @Value("${jwt.refresh.enabled:false}")
+    private boolean enabled;
+
+    @Value("${jwt.revoked-tokens.bucket-ms:60000}")
+    private long bucketMs;
+
+    @Value("${jwt.revocation.refresh-overlap-ms:2000}")
+    private long refreshOverlapMs;
+
+    private LocalDateTime lastRefresh;
+
+    public RevokedTokenStore(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        Gauge.builder("auth.revoked-tokens.size", this, RevokedTokenStore::size)
+                .description("Tokens revogados mantidos em memória")
+                .register(meterRegistry);
+        Gauge.builder("auth.revoked-tokens.buckets", buckets, Map::size)
+                .description("Grupos de expiração de tokens revogados em memória")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        refresh();
+        log.info("Refresh token habilitado; {} tokens revogados carregados", size());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            // Na carga inicial vale todo token ainda não expirado; depois, a sobreposição com o refresh
+            // anterior absorve commits que chegaram atrasados
+            LocalDateTime since = lastRefresh == null ? EPOCH : lastRefresh.minus(refreshOverlapMs, ChronoUnit.MILLIS);
+            List<RevokedToken> revoked = revokedTokenRepository.findRevokedSince(since, now);
+            revoked.forEach(token -> add(token.getJti(), toEpochMillis(token.getExpiresAt())));
+            long current = System.currentTimeMillis() / bucketMs;
+            buckets.keySet().removeIf(bucket -> bucket < current);
+            lastRefresh = now;
+            if (!revoked.isEmpty()) {
+                log.debug("Tokens revogados atualizados: {} novos", revoked.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Erro ao atualizar tokens revogados: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revoked-tokens.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int deleted = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+            if (deleted > 0) {
+                log.debug("Tokens revogados expirados removidos: {}", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.error("Erro ao remover tokens revogados expirados: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Grava a revogação e passa a recusar o token neste nó.
+     *
+     * @throws org.springframework.dao.DataIntegrityViolationException se o jti já estava revogado
+     */
+    public void revoke(String jti, Date expiresAt) {
+        revokedTokenRepository.insert(jti,
+                LocalDateTime.ofInstant(expiresAt.toInstant(), ZoneId.systemDefault()), LocalDateTime.now());
+        add(jti, expiresAt.getTime());
+    }
+
+    public boolean isRevoked(String jti, Date expiresAt) {
+        if (jti == null || expiresAt == null) {
+            return false;
+        }
+        Set<Long> bucket = buckets.get(expiresAt.getTime() / bucketMs);
+        return bucket != null && bucket.contains(fingerprint(jti));
+    }
+
+    int size() {
+        return buckets.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void add(String jti, long expiresAtMillis) {
+        buckets.computeIfAbsent(expiresAtMillis / bucketMs, bucket -> ConcurrentHashMap.newKeySet())
+                .add(fingerprint(jti));
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // FNV-1a de 64 bits seguido do finalizador do SplitMix64; colisão exige ~2^32 jti no mesmo grupo
+    private static long fingerprint(String jti) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < jti.length(); i++) {
+            h = (h ^ jti.charAt(i)) * 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
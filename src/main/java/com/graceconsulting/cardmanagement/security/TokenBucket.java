@@ -0,0 +1,41 @@
+package com.graceconsulting.cardmanagement.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket sem lock na forma GCRA: o estado é um único instante teórico de chegada, avançado
+ * por CAS a cada token consumido. O balde está cheio quando esse instante não passa de agora.
+ */
+public final class TokenBucket {
+
+    private final AtomicLong arrival;
+    private final int capacity;
+    private final long interval;
+    private final long tolerance;
+
+    public TokenBucket(int capacity, double refillPerSecond, long now) {
+        this.capacity = capacity;
+        this.interval = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        this.tolerance = interval * (capacity - 1);
+        this.arrival = new AtomicLong(now);
+    }
+
+    public record Decision(boolean allowed, int limit, long remaining, long resetNanos, long retryAfterNanos) {}
+
+    public Decision tryAcquire(long now) {
+        while (true) {
+            long current = arrival.get();
+            long start = Math.max(current, now);
+            long wait = start - tolerance - now;
+            if (wait > 0) {
+                return new Decision(false, capacity, 0, start - now, wait);
+            }
+            long next = start + interval;
+            if (arrival.compareAndSet(current, next)) {
+                long remaining = Math.floorDiv(now + tolerance - next, interval) + 1;
+                return new Decision(true, capacity, remaining, next - now, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.graceconsulting.cardmanagement.dto.UserTokenState;
+import com.graceconsulting.cardmanagement.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Conjunto em memória dos usuários desativados ou com tokens revogados, usado pela autenticação
+ * stateless no lugar da consulta por requisição. Só guarda usuários alterados dentro da validade
+ * de um token ({@code jwt.expiration}): alterações mais antigas já não têm token vivo a revogar.
+ * A alteração feita neste nó vale na hora; as dos demais nós chegam no próximo refresh.
+ */
+@Slf4j
+@Component
+public class TokenRevocationService {
+
+    private final UserRepository userRepository;
+    private final Map<String, Revocation> revocations = new ConcurrentHashMap<>();
+
+    @Value("${jwt.stateless.enabled:false}")
+    private boolean enabled;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${jwt.revocation.refresh-overlap-ms:2000}")
+    private long refreshOverlapMs;
+
+    private LocalDateTime lastRefresh;
+
+    public TokenRevocationService(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        Gauge.builder("auth.revocations.size", revocations, Map::size)
+                .description("Usuários com tokens revogados mantidos em memória")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        refresh();
+        log.info("Autenticação stateless habilitada; {} usuários com tokens revogados", revocations.size());
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:5000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime horizon = now.minus(jwtExpiration, ChronoUnit.MILLIS);
+            // Sobreposição com o refresh anterior absorve commits que chegaram atrasados
+            LocalDateTime since = lastRefresh == null ? horizon : lastRefresh.minus(refreshOverlapMs, ChronoUnit.MILLIS);
+            List<UserTokenState> changed = userRepository.findTokenStatesChangedSince(since);
+            changed.forEach(this::record);
+            revocations.values().removeIf(revocation -> revocation.changedAt().isBefore(horizon));
+            lastRefresh = now;
+            if (!changed.isEmpty()) {
+                log.debug("Revogações de token atualizadas: {} usuários alterados", changed.size());
+            }
+        } catch (RuntimeException e) {
+            log.error("Erro ao atualizar revogações de token: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Registra o estado atual do usuário; tokens emitidos com versão anterior deixam de valer.
+     */
+    public void record(UserTokenState state) {
+        int minimumVersion = state.active() ? state.tokenVersion() : Integer.MAX_VALUE;
+        LocalDateTime changedAt = state.updatedAt() != null ? state.updatedAt() : LocalDateTime.now();
+        revocations.merge(state.username(), new Revocation(minimumVersion, changedAt),
+                (current, updated) -> updated.changedAt().isBefore(current.changedAt()) ? current : updated);
+    }
+
+    public boolean isRevoked(String username, int tokenVersion) {
+        Revocation revocation = revocations.get(username);
+        return revocation != null && tokenVersion < revocation.minimumVersion();
+    }
+
+    private record Revocation(int minimumVersion, LocalDateTime changedAt) {}
+}
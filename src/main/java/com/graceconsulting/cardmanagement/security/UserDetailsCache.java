@@ -0,0 +1,141 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.graceconsulting.cardmanagement.dto.UserTokenState;
+import com.graceconsulting.cardmanagement.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Cache limitado, com TTL, de cópias imutáveis dos usuários usadas pelo filtro JWT no lugar da
+ * consulta por requisição. As cópias não guardam o hash da senha. {@code UserService} invalida a
+ * entrada ao registrar, desativar ou trocar a senha; alterações feitas em outros nós são detectadas
+ * pela marca d'água {@code max(users.updated_at)}, consultada a cada {@code version-check-interval-ms}.
+ */
+@Slf4j
+@Component
+public class UserDetailsCache {
+
+    private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${security.user-cache.enabled:false}")
+    private boolean enabled;
+
+    @Value("${security.user-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${security.user-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    @Value("${security.user-cache.version-check-overlap-ms:2000}")
+    private long versionCheckOverlapMs;
+
+    private Cache<String, UserDetails> cache;
+    private LocalDateTime watermark;
+
+    public UserDetailsCache(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.user-details");
+        Gauge.builder("auth.user-details.hit-ratio", cache, c -> c.stats().hitRate())
+                .description("Fração das autenticações atendidas pelo cache de usuários")
+                .register(meterRegistry);
+        watermark = userRepository.findLatestUpdatedAt().orElse(null);
+        log.info("Cache de usuários habilitado: até {} entradas, TTL de {}ms", maxSize, ttlMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Devolve a cópia em cache do usuário, carregando do banco na primeira vez.
+     *
+     * @throws UsernameNotFoundException se o usuário não existir (ausências não são cacheadas)
+     */
+    public UserDetails get(String username) {
+        return cache.get(username, this::load);
+    }
+
+    public void invalidate(String username) {
+        if (cache != null) {
+            cache.invalidate(username);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${security.user-cache.version-check-interval-ms:1000}")
+    public void checkVersion() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            LocalDateTime latest = userRepository.findLatestUpdatedAt().orElse(null);
+            if (latest == null || (watermark != null && !latest.isAfter(watermark))) {
+                return;
+            }
+            if (watermark == null) {
+                cache.invalidateAll();
+            } else {
+                // Sobreposição absorve commits com updated_at anterior à marca d'água que chegaram depois dela
+                LocalDateTime since = watermark.minus(versionCheckOverlapMs, ChronoUnit.MILLIS);
+                for (UserTokenState changed : userRepository.findTokenStatesChangedSince(since)) {
+                    cache.invalidate(changed.username());
+                }
+            }
+            watermark = latest;
+        } catch (RuntimeException e) {
+            log.error("Erro ao verificar alterações de usuários: {}", e.getMessage());
+        }
+    }
+
+    private UserDetails load(String username) {
+        com.graceconsulting.cardmanagement.entity.User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + username));
+        return new CachedUser(user);
+    }
+
+    /**
+     * Cópia sem o hash da senha que guarda a versão dos tokens, para o filtro recusar os emitidos antes
+     * da última troca de senha mesmo quando o usuário vem do cache.
+     */
+    static final class CachedUser extends User {
+
+        private final int tokenVersion;
+
+        CachedUser(com.graceconsulting.cardmanagement.entity.User user) {
+            super(user.getUsername(), "", user.isEnabled(), true, true, true, user.getAuthorities());
+            this.tokenVersion = user.getTokenVersion();
+        }
+
+        int getTokenVersion() {
+            return tokenVersion;
+        }
+    }
+}
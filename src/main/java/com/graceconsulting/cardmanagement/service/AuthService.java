@@ -2,13 +2,24 @@ package com.graceconsulting.cardmanagement.service;
 
 import com.graceconsulting.cardmanagement.dto.AuthRequest;
 import com.graceconsulting.cardmanagement.dto.AuthResponse;
+import com.graceconsulting.cardmanagement.entity.User;
+import com.graceconsulting.cardmanagement.exception.BusinessException;
 import com.graceconsulting.cardmanagement.security.JwtTokenProvider;
+import com.graceconsulting.cardmanagement.security.LoginThrottle;
+import com.graceconsulting.cardmanagement.security.RevokedTokenStore;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
 @Slf4j
 @Service
@@ -17,10 +28,20 @@ public class AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final LoginThrottle loginThrottle;
+    private final UserDetailsService userDetailsService;
+    private final RevokedTokenStore revokedTokenStore;
 
     public AuthResponse authenticate(AuthRequest request) {
+        return authenticate(request, null);
+    }
+
+    public AuthResponse authenticate(AuthRequest request, String clientIp) {
         log.info("Tentativa de login: {}", request.username());
 
+        // Antes do BCrypt: tentativa recusada não consome CPU com hash
+        loginThrottle.check(request.username(), clientIp);
+
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.username(), request.password())
         );
@@ -28,6 +49,91 @@ public class AuthService {
         String token = jwtTokenProvider.generateToken(authentication);
         log.info("Login realizado com sucesso: {}", request.username());
 
-        return new AuthResponse(token, jwtTokenProvider.getExpirationInSeconds());
+        if (!jwtTokenProvider.isRefreshEnabled()) {
+            return new AuthResponse(token, jwtTokenProvider.getExpirationInSeconds());
+        }
+        String refreshToken = jwtTokenProvider.generateRefreshToken((UserDetails) authentication.getPrincipal());
+        return new AuthResponse(token, jwtTokenProvider.getExpirationInSeconds(), refreshToken);
+    }
+
+    /**
+     * Troca um refresh token por um novo par de tokens, sem BCrypt. O refresh token é de uso único:
+     * fica revogado na troca, e uma segunda troca com ele falha mesmo que chegue a outro nó.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        requireRefreshEnabled();
+        Claims claims = parseRefreshToken(refreshToken);
+
+        // Consulta o banco: desativação e troca de senha precisam valer também para o refresh token
+        UserDetails user = userDetailsService.loadUserByUsername(claims.getSubject());
+        Integer version = claims.get(JwtTokenProvider.VERSION_CLAIM, Integer.class);
+        int currentVersion = user instanceof User entity ? entity.getTokenVersion() : 0;
+        if (!user.isEnabled() || version == null || version < currentVersion) {
+            throw new BadCredentialsException("Refresh token revogado");
+        }
+
+        try {
+            revokedTokenStore.revoke(claims.getId(), claims.getExpiration());
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Refresh token reutilizado: {}", claims.getSubject());
+            throw new BadCredentialsException("Refresh token já utilizado");
+        }
+
+        String token = jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        log.debug("Tokens renovados: {}", claims.getSubject());
+        return new AuthResponse(token, jwtTokenProvider.getExpirationInSeconds(),
+                jwtTokenProvider.generateRefreshToken(user));
+    }
+
+    /**
+     * Revoga o access token e, se informado, o refresh token. Tokens inválidos ou já expirados são
+     * ignorados: não há o que revogar.
+     */
+    public void logout(String accessToken, String refreshToken) {
+        requireRefreshEnabled();
+        revokeQuietly(accessToken);
+        revokeQuietly(refreshToken);
+    }
+
+    private Claims parseRefreshToken(String refreshToken) {
+        Claims claims;
+        try {
+            claims = jwtTokenProvider.parseClaims(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Refresh token inválido");
+        }
+        if (!JwtTokenProvider.isRefreshToken(claims) || claims.getId() == null
+                || revokedTokenStore.isRevoked(claims.getId(), claims.getExpiration())) {
+            throw new BadCredentialsException("Refresh token inválido");
+        }
+        return claims;
+    }
+
+    private void revokeQuietly(String token) {
+        if (!StringUtils.hasText(token)) {
+            return;
+        }
+        Claims claims;
+        try {
+            claims = jwtTokenProvider.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return;
+        }
+        if (claims.getId() == null || revokedTokenStore.isRevoked(claims.getId(), claims.getExpiration())) {
+            return;
+        }
+        try {
+            revokedTokenStore.revoke(claims.getId(), claims.getExpiration());
+            log.info("Token revogado por logout: {}", claims.getSubject());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Token já revogado em outro nó: {}", claims.getSubject());
+        }
+    }
+
+    private void requireRefreshEnabled() {
+        if (!jwtTokenProvider.isRefreshEnabled()) {
+            throw new BusinessException("Refresh token e logout não estão habilitados");
+        }
     }
 }
@@ -0,0 +1,16 @@
+package com.graceconsulting.cardmanagement.service;
+
+import java.util.HexFormat;
+
+/**
+ * Blind index de um número de cartão: prefixo de 8 bytes do HMAC e o digest completo em hexadecimal.
+ */
+public record BlindIndex(long prefix, String digest) {
+
+    /**
+     * Digest completo como gravado na coluna {@code BINARY(32)}.
+     */
+    public byte[] digestBytes() {
+        return HexFormat.of().parseHex(digest);
+    }
+}
@@ -0,0 +1,137 @@
+package com.graceconsulting.cardmanagement.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Descriptografia em massa para exportações e ferramentas de suporte. A entrada é lida em blocos
+ * de {@code chunk-size}; cada bloco é dividido em fatias decifradas em paralelo em um
+ * {@link ForkJoinPool} dedicado, e cada fatia decodifica o Base64 em um buffer prealocado.
+ * Enquanto um bloco é decifrado, o anterior é entregue ao consumidor, sempre na ordem de entrada.
+ */
+@Slf4j
+@Service
+public class BulkDecryptionService {
+
+    private static final int DECODE_BUFFER_SIZE = 256;
+
+    private final EncryptionService encryptionService;
+
+    @Value("${encryption.bulk.parallelism:0}")
+    private int parallelism;
+
+    @Value("${encryption.bulk.chunk-size:8192}")
+    private int chunkSize;
+
+    private ForkJoinPool pool;
+
+    public BulkDecryptionService(EncryptionService encryptionService) {
+        this.encryptionService = encryptionService;
+    }
+
+    @PostConstruct
+    public void start() {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            thread.setName("bulk-decrypt-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Decifra todos os textos do stream e entrega os números ao consumidor na mesma ordem.
+     *
+     * @return quantidade de registros decifrados
+     */
+    public long decryptAll(Stream<String> ciphertexts, Consumer<String> consumer) {
+        int slices = pool.getParallelism() * 4;
+        // Dois blocos alternados: um em descriptografia enquanto o outro é entregue ao consumidor
+        Chunk[] chunks = {new Chunk(chunkSize, slices), new Chunk(chunkSize, slices)};
+        Iterator<String> input = ciphertexts.iterator();
+        long total = 0;
+
+        Chunk current = chunks[0];
+        current.fill(input);
+        ForkJoinTask<?> decrypting = submit(current);
+        int index = 0;
+        while (current.size > 0) {
+            Chunk next = chunks[++index % 2];
+            next.fill(input);
+            decrypting.join();
+            ForkJoinTask<?> nextDecrypting = next.size > 0 ? submit(next) : null;
+
+            current.drainTo(consumer);
+            total += current.size;
+
+            current = next;
+            decrypting = nextDecrypting;
+        }
+        log.debug("Descriptografia em massa concluída: {} registros", total);
+        return total;
+    }
+
+    private ForkJoinTask<?> submit(Chunk chunk) {
+        return pool.submit(() -> IntStream.range(0, chunk.slices()).parallel().forEach(chunk::decryptSlice));
+    }
+
+    private final class Chunk {
+        private final String[] input;
+        private final String[] output;
+        private final byte[][] decodeBuffers;
+        private int size;
+
+        private Chunk(int capacity, int slices) {
+            this.input = new String[capacity];
+            this.output = new String[capacity];
+            this.decodeBuffers = new byte[slices][DECODE_BUFFER_SIZE];
+        }
+
+        private int slices() {
+            return decodeBuffers.length;
+        }
+
+        private void fill(Iterator<String> source) {
+            size = 0;
+            while (size < input.length && source.hasNext()) {
+                input[size++] = source.next();
+            }
+        }
+
+        private void decryptSlice(int slice) {
+            int sliceLength = (size + decodeBuffers.length - 1) / decodeBuffers.length;
+            int from = slice * sliceLength;
+            int to = Math.min(size, from + sliceLength);
+            byte[] buffer = decodeBuffers[slice];
+            for (int i = from; i < to; i++) {
+                output[i] = encryptionService.decrypt(input[i], buffer);
+            }
+        }
+
+        private void drainTo(Consumer<String> consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(output[i]);
+                input[i] = null;
+                output[i] = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.graceconsulting.cardmanagement.service;
+
+/**
+ * Regras do arquivo de lote, compartilhadas pelo processamento servlet e pelo reativo.
+ */
+public final class CardBatchLines {
+
+    private CardBatchLines() {
+    }
+
+    public static boolean isHeaderOrFooterLine(String line, int lineNumber) {
+        if (line.trim().isEmpty()) {
+            return true;
+        }
+        // Header começa com nome do arquivo ou "DESAFIO"
+        if (lineNumber == 1 || line.startsWith("DESAFIO")) {
+            return true;
+        }
+        // Footer começa com "LOTE"
+        if (line.startsWith("LOTE")) {
+            return true;
+        }
+        return false;
+    }
+
+    public static String extractCardNumber(String line) {
+        // Formato: [01-01]ID [02-07]NUM_LOTE [08-26]CARTAO
+        // Exemplo: C2     4456897999999999
+        if (line.length() >= 22) {
+            return line.substring(6, Math.min(line.length(), 26)).trim();
+        }
+        return null;
+    }
+
+    public static String maskCardNumber(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() < 8) {
+            return "****";
+        }
+        return cardNumber.substring(0, 4) + "****" + cardNumber.substring(cardNumber.length() - 4);
+    }
+
+    public static boolean isValidCardNumber(String cardNumber) {
+        if (cardNumber == null || cardNumber.isEmpty()) {
+            return false;
+        }
+        // Verifica se contém apenas dígitos
+        if (!cardNumber.matches("^\\d+$")) {
+            return false;
+        }
+        // Verifica tamanho (13 a 19 dígitos)
+        int length = cardNumber.length();
+        return length >= 13 && length <= 19;
+    }
+}
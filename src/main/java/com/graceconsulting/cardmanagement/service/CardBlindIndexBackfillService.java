@@ -0,0 +1,110 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Preenche o blind index das linhas antigas em lotes: decifra o número, calcula o HMAC e grava o
+ * prefixo {@code BIGINT} e o digest completo. As buscas só passam a usar o blind index quando
+ * nenhuma linha ficou sem ele.
+ */
+@Slf4j
+@Service
+public class CardBlindIndexBackfillService {
+
+    private final CardRepository cardRepository;
+    private final EncryptionService encryptionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter backfilledRows;
+
+    @Value("${card.blind-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${card.blind-index.backfill.chunk-size:500}")
+    private int chunkSize;
+
+    private volatile boolean complete;
+
+    public CardBlindIndexBackfillService(CardRepository cardRepository,
+                                         EncryptionService encryptionService,
+                                         TransactionTemplate transactionTemplate,
+                                         MeterRegistry meterRegistry) {
+        this.cardRepository = cardRepository;
+        this.encryptionService = encryptionService;
+        this.transactionTemplate = transactionTemplate;
+        this.backfilledRows = Counter.builder("cards.blind-index.backfilled")
+                .description("Linhas com blind index preenchido pelo backfill")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        complete = !cardRepository.existsByCardNumberBlindIndexIsNull();
+        log.info("Blind index de cartões habilitado; backfill {}", complete ? "concluído" : "pendente");
+    }
+
+    /**
+     * Indica se todas as linhas já têm blind index, ou seja, se a busca pode usar só esse índice.
+     */
+    public boolean isReadable() {
+        return enabled && complete;
+    }
+
+    // Continua rodando após a conclusão para preencher no lugar as linhas gravadas por nós sem o blind
+    // index. A conclusão não é revertida: voltar a ler pelo hash sem chave falharia quando ele já foi retirado
+    @Scheduled(fixedDelayString = "${card.blind-index.backfill.interval-ms:1000}")
+    public void backfillChunk() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Integer filled = transactionTemplate.execute(status -> backfillNextChunk());
+            if (filled != null && filled > 0) {
+                backfilledRows.increment(filled);
+                if (complete) {
+                    log.warn("Backfill do blind index: {} linhas gravadas sem blind index após a conclusão; "
+                            + "habilite o blind index em todos os nós", filled);
+                } else {
+                    log.debug("Backfill do blind index: {} linhas preenchidas", filled);
+                }
+            } else if (!complete) {
+                complete = true;
+                log.info("Backfill do blind index concluído");
+            }
+        } catch (RuntimeException e) {
+            log.error("Erro no backfill do blind index: {}", e.getMessage());
+        }
+    }
+
+    private int backfillNextChunk() {
+        List<Card> cards = cardRepository.findByCardNumberBlindIndexIsNull(PageRequest.of(0, chunkSize));
+        for (Card card : cards) {
+            BlindIndex blindIndex = encryptionService.blindIndex(decrypt(card));
+            card.setCardNumberBlindIndex(blindIndex.prefix());
+            card.setCardNumberBlindDigest(blindIndex.digestBytes());
+        }
+        return cards.size();
+    }
+
+    // Linhas já migradas para o formato binário não têm mais o texto cifrado em Base64
+    private String decrypt(Card card) {
+        return card.getCardNumberEncrypted() != null
+                ? encryptionService.decrypt(card.getCardNumberEncrypted())
+                : encryptionService.decrypt(Base64.getEncoder().encodeToString(card.getCardNumberCipher()));
+    }
+}
@@ -0,0 +1,479 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.dto.CardIndexEntry;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Índice hash -> id dos cartões persistido em um arquivo ordenado e mapeado em memória.
+ * No boot o arquivo é mapeado sem leitura completa e apenas as linhas mais novas que a
+ * marca d'água gravada no cabeçalho são reprocessadas a partir do banco. Sem arquivo, a primeira
+ * carga pagina a tabela na ordem do hash e grava os registros direto no snapshot, sem passar pelo heap.
+ * <p>
+ * Layout (big-endian): cabeçalho de 40 bytes (magic, versão, quantidade, createdAt e id da
+ * marca d'água) seguido de registros de 48 bytes (32 bytes da chave + 16 bytes do UUID)
+ * ordenados pela chave.
+ * <p>
+ * Com o blind index habilitado a chave é o digest HMAC, não o SHA-256 sem chave: o arquivo em disco
+ * deixa de permitir confirmar um número de cartão por força bruta. A versão do formato identifica a
+ * chave usada, e um arquivo da outra versão é descartado e reconstruído.
+ * <p>
+ * Sem blind index, a chave é o SHA-256 sem chave: lido de {@code card_number_hash} no formato texto e
+ * de {@code card_number_digest} depois que a migração binária anula a coluna de texto. O valor é o
+ * mesmo nas duas colunas, então o arquivo não muda de versão com a migração.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CardIndexSnapshotService {
+
+    private static final int MAGIC = 0x43494458; // "CIDX"
+    private static final int FORMAT_VERSION = 1;
+    private static final int BLIND_INDEX_FORMAT_VERSION = 2;
+    private static final int HEADER_SIZE = 40;
+    private static final int HASH_SIZE = 32;
+    private static final int RECORD_SIZE = HASH_SIZE + 16;
+    private static final int HASH_HEX_LENGTH = HASH_SIZE * 2;
+    private static final int COUNT_OFFSET = 8;
+    private static final long MAX_RECORDS = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    private final CardRepository cardRepository;
+    private final CardStorageMigrationService cardStorageMigrationService;
+
+    @Value("${card.index.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${card.index.snapshot.path:data/card-index.snapshot}")
+    private String snapshotPath;
+
+    @Value("${card.index.snapshot.replay-page-size:5000}")
+    private int replayPageSize;
+
+    @Value("${card.index.snapshot.replay-overlap-ms:2000}")
+    private long replayOverlapMs;
+
+    @Value("${card.blind-index.enabled:false}")
+    private boolean blindIndexKeys;
+
+    // Entradas ainda não gravadas no arquivo; sempre disjuntas do snapshot mapeado
+    private final Map<String, UUID> delta = new ConcurrentHashMap<>();
+    // ReentrantLock e não synchronized: o replay consulta o banco e, com virtual threads, um monitor
+    // prenderia a carrier thread durante a consulta
+    private final ReentrantLock replayLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private LocalDateTime replayedUntil = EPOCH;
+    private UUID replayedUntilId = MIN_UUID;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        Path path = Path.of(snapshotPath);
+        if (!Files.exists(path)) {
+            log.info("Snapshot do índice de cartões não encontrado em {}, será reconstruído a partir do banco", path);
+            return;
+        }
+        try {
+            snapshot = Snapshot.map(path, formatVersion());
+            replayedUntil = snapshot.highWaterMark();
+            replayedUntilId = snapshot.highWaterMarkId();
+            log.info("Snapshot do índice de cartões mapeado: {} entradas, marca d'água {}",
+                    snapshot.count(), replayedUntil);
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Snapshot do índice de cartões inválido, ignorando: {}", e.getMessage());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indica se as chaves do índice são o digest do blind index em hexadecimal em vez do hash sem chave.
+     */
+    public boolean isKeyedByBlindIndex() {
+        return blindIndexKeys;
+    }
+
+    /**
+     * Busca o id pela chave (ver {@link #isKeyedByBlindIndex()}) sem acessar o banco. Uma ausência não significa que o cartão não
+     * exista: linhas mais novas que a última reprodução só são encontradas no banco.
+     */
+    public Optional<UUID> lookup(String key) {
+        if (!enabled || key == null) {
+            return Optional.empty();
+        }
+        UUID id = delta.get(key);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        return snapshot.find(key);
+    }
+
+    public long size() {
+        return snapshot.count() + delta.size();
+    }
+
+    @Scheduled(fixedDelayString = "${card.index.snapshot.replay-interval-ms:5000}")
+    public void replay() {
+        if (!enabled) {
+            return;
+        }
+        replayLock.lock();
+        try {
+            // Sem snapshot mapeado, a carga inicial vai direto para o arquivo em vez de para o delta
+            if (snapshot == Snapshot.EMPTY && !buildInitialSnapshot()) {
+                return;
+            }
+            LocalDateTime since = replayedUntil.minus(Duration.ofMillis(replayOverlapMs));
+            UUID lastId = MIN_UUID;
+            int replayed = 0;
+            List<CardIndexEntry> page;
+            do {
+                page = pageAfter(since, lastId);
+                for (CardIndexEntry entry : page) {
+                    if (isIndexable(entry.cardNumberHash()) && snapshot.find(entry.cardNumberHash()).isEmpty()) {
+                        delta.putIfAbsent(entry.cardNumberHash(), entry.id());
+                    }
+                }
+                if (!page.isEmpty()) {
+                    CardIndexEntry last = page.get(page.size() - 1);
+                    since = last.createdAt();
+                    lastId = last.id();
+                    if (since.isAfter(replayedUntil)) {
+                        replayedUntil = since;
+                        replayedUntilId = lastId;
+                    }
+                }
+                replayed += page.size();
+            } while (page.size() == replayPageSize);
+
+            if (replayed > 0) {
+                log.debug("Índice de cartões: {} linhas reprocessadas, {} entradas pendentes", replayed, delta.size());
+            }
+        } finally {
+            replayLock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${card.index.snapshot.interval-ms:300000}",
+            initialDelayString = "${card.index.snapshot.interval-ms:300000}")
+    public void writeSnapshot() {
+        if (!enabled) {
+            return;
+        }
+        replayLock.lock();
+        try {
+            replay();
+            if (delta.isEmpty() && snapshot.count() > 0) {
+                return;
+            }
+            TreeMap<String, UUID> pending = new TreeMap<>(delta);
+            Path target = Path.of(snapshotPath);
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            try {
+                long count = write(tmp, pending);
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                snapshot = Snapshot.map(target, formatVersion());
+                pending.forEach(delta::remove);
+                log.info("Snapshot do índice de cartões gravado: {} entradas", count);
+            } catch (IOException | IllegalStateException e) {
+                log.error("Erro ao gravar snapshot do índice de cartões: {}", e.getMessage());
+            }
+        } finally {
+            replayLock.unlock();
+        }
+    }
+
+    private boolean buildInitialSnapshot() {
+        Path target = Path.of(snapshotPath);
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            long count = writeInitial(tmp);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            snapshot = Snapshot.map(target, formatVersion());
+            log.info("Snapshot inicial do índice de cartões gravado: {} entradas", count);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Erro ao gravar snapshot inicial do índice de cartões: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // A marca d'água é a última linha lida, limitada ao início da carga: linhas gravadas durante a
+    // carga com hash já percorrido têm createdAt posterior e entram pelo replay
+    private long writeInitial(Path tmp) throws IOException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime lastCreatedAt = EPOCH;
+        UUID lastCreatedId = MIN_UUID;
+        long count = 0;
+
+        try (FileChannel channel = openForWrite(tmp)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            writeHeader(out, 0);
+
+            String after = "";
+            long[] previousKey = null;
+            List<CardIndexEntry> page;
+            do {
+                page = pageOrderedByKey(after);
+                for (CardIndexEntry entry : page) {
+                    if (!isIndexable(entry.cardNumberHash())) {
+                        continue;
+                    }
+                    long[] key = toKey(entry.cardNumberHash());
+                    // A busca binária depende da ordem dos bytes; uma collation divergente invalida a carga
+                    if (previousKey != null && Arrays.compareUnsigned(previousKey, key) >= 0) {
+                        throw new IllegalStateException("hashes fora de ordem na leitura do banco");
+                    }
+                    if (++count > MAX_RECORDS) {
+                        throw new IllegalStateException("Snapshot excede o tamanho máximo mapeável");
+                    }
+                    writeRecord(out, key, entry.id());
+                    previousKey = key;
+                    if (entry.createdAt().isAfter(lastCreatedAt)
+                            || (entry.createdAt().isEqual(lastCreatedAt) && entry.id().compareTo(lastCreatedId) > 0)) {
+                        lastCreatedAt = entry.createdAt();
+                        lastCreatedId = entry.id();
+                    }
+                }
+                if (!page.isEmpty()) {
+                    after = page.get(page.size() - 1).cardNumberHash();
+                }
+            } while (page.size() == replayPageSize);
+
+            if (lastCreatedAt.isAfter(startedAt)) {
+                replayedUntil = startedAt;
+                replayedUntilId = MIN_UUID;
+            } else {
+                replayedUntil = lastCreatedAt;
+                replayedUntilId = lastCreatedId;
+            }
+            out.flush();
+            // Quantidade e marca d'água só são conhecidas no fim da paginação
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE - COUNT_OFFSET);
+            header.putLong(count);
+            header.putLong(replayedUntil.toInstant(ZoneOffset.UTC).toEpochMilli());
+            header.putLong(replayedUntilId.getMostSignificantBits());
+            header.putLong(replayedUntilId.getLeastSignificantBits());
+            channel.write(header.flip(), COUNT_OFFSET);
+            channel.force(true);
+        }
+        return count;
+    }
+
+    private long write(Path tmp, TreeMap<String, UUID> pending) throws IOException {
+        long total = snapshot.count() + pending.size();
+        if (total > MAX_RECORDS) {
+            throw new IllegalStateException("Snapshot excede o tamanho máximo mapeável");
+        }
+
+        try (FileChannel channel = openForWrite(tmp)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            writeHeader(out, total);
+
+            // Merge ordenado entre o snapshot atual e as entradas pendentes
+            Iterator<Map.Entry<String, UUID>> it = pending.entrySet().iterator();
+            Map.Entry<String, UUID> next = it.hasNext() ? it.next() : null;
+            long[] nextKey = next != null ? toKey(next.getKey()) : null;
+            for (long i = 0; i < snapshot.count(); i++) {
+                int pos = Snapshot.offset(i);
+                while (next != null && snapshot.compare(pos, nextKey) > 0) {
+                    writeRecord(out, nextKey, next.getValue());
+                    next = it.hasNext() ? it.next() : null;
+                    nextKey = next != null ? toKey(next.getKey()) : null;
+                }
+                snapshot.copyRecord(pos, out);
+            }
+            while (next != null) {
+                writeRecord(out, nextKey, next.getValue());
+                next = it.hasNext() ? it.next() : null;
+                nextKey = next != null ? toKey(next.getKey()) : null;
+            }
+            out.flush();
+            channel.force(true);
+        }
+        return total;
+    }
+
+    private List<CardIndexEntry> pageAfter(LocalDateTime since, UUID lastId) {
+        PageRequest page = PageRequest.of(0, replayPageSize);
+        if (blindIndexKeys) {
+            return cardRepository.findBlindIndexEntriesAfter(since, lastId, page);
+        }
+        if (cardStorageMigrationService.isBinaryReadable()) {
+            return cardRepository.findDigestEntriesAfter(since, lastId, page);
+        }
+        return cardRepository.findIndexEntriesAfter(since, lastId, page);
+    }
+
+    // Linhas ainda sem blind index ficam fora do snapshot e são encontradas no banco
+    private List<CardIndexEntry> pageOrderedByKey(String after) {
+        PageRequest page = PageRequest.of(0, replayPageSize);
+        if (blindIndexKeys) {
+            return cardRepository.findBlindIndexEntriesOrderedByDigest(HexFormat.of().parseHex(after), page);
+        }
+        if (cardStorageMigrationService.isBinaryReadable()) {
+            return cardRepository.findDigestEntriesOrderedByDigest(HexFormat.of().parseHex(after), page);
+        }
+        return cardRepository.findIndexEntriesOrderedByHash(after, page);
+    }
+
+    private int formatVersion() {
+        return blindIndexKeys ? BLIND_INDEX_FORMAT_VERSION : FORMAT_VERSION;
+    }
+
+    private static FileChannel openForWrite(Path tmp) throws IOException {
+        Path parent = tmp.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    private void writeHeader(DataOutputStream out, long count) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(formatVersion());
+        out.writeLong(count);
+        out.writeLong(replayedUntil.toInstant(ZoneOffset.UTC).toEpochMilli());
+        out.writeLong(replayedUntilId.getMostSignificantBits());
+        out.writeLong(replayedUntilId.getLeastSignificantBits());
+    }
+
+    private static void writeRecord(DataOutputStream out, long[] key, UUID id) throws IOException {
+        for (long part : key) {
+            out.writeLong(part);
+        }
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+    }
+
+    private static boolean isIndexable(String hash) {
+        if (hash == null || hash.length() != HASH_HEX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < HASH_HEX_LENGTH; i++) {
+            if (!HexFormat.isHexDigit(hash.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long[] toKey(String hash) {
+        return new long[] {
+                HexFormat.fromHexDigitsToLong(hash, 0, 16),
+                HexFormat.fromHexDigitsToLong(hash, 16, 32),
+                HexFormat.fromHexDigitsToLong(hash, 32, 48),
+                HexFormat.fromHexDigitsToLong(hash, 48, 64)
+        };
+    }
+
+    private record Snapshot(ByteBuffer buffer, long count, LocalDateTime highWaterMark, UUID highWaterMarkId) {
+
+        static final Snapshot EMPTY = new Snapshot(ByteBuffer.allocate(0), 0, EPOCH, MIN_UUID);
+
+        static Snapshot map(Path path, int formatVersion) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                    throw new IllegalStateException("tamanho de arquivo inesperado: " + size);
+                }
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != formatVersion) {
+                    throw new IllegalStateException("cabeçalho desconhecido");
+                }
+                long count = buffer.getLong(8);
+                if (HEADER_SIZE + count * RECORD_SIZE != size) {
+                    throw new IllegalStateException("quantidade de registros não confere com o tamanho do arquivo");
+                }
+                LocalDateTime highWaterMark = LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(buffer.getLong(16)), ZoneOffset.UTC);
+                UUID highWaterMarkId = new UUID(buffer.getLong(24), buffer.getLong(32));
+                return new Snapshot(buffer, count, highWaterMark, highWaterMarkId);
+            }
+        }
+
+        static int offset(long index) {
+            return (int) (HEADER_SIZE + index * RECORD_SIZE);
+        }
+
+        Optional<UUID> find(String hash) {
+            if (count == 0 || !isIndexable(hash)) {
+                return Optional.empty();
+            }
+            long[] key = toKey(hash);
+            long low = 0;
+            long high = count - 1;
+            while (low <= high) {
+                long mid = (low + high) >>> 1;
+                int pos = offset(mid);
+                int cmp = compare(pos, key);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return Optional.of(new UUID(buffer.getLong(pos + HASH_SIZE), buffer.getLong(pos + HASH_SIZE + 8)));
+                }
+            }
+            return Optional.empty();
+        }
+
+        // Big-endian: comparar os longs sem sinal equivale à ordem lexicográfica dos bytes
+        int compare(int pos, long[] key) {
+            for (int i = 0; i < key.length; i++) {
+                int cmp = Long.compareUnsigned(buffer.getLong(pos + i * 8), key[i]);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return 0;
+        }
+
+        void copyRecord(int pos, DataOutputStream out) throws IOException {
+            for (int i = 0; i < RECORD_SIZE; i += 8) {
+                out.writeLong(buffer.getLong(pos + i));
+            }
+        }
+    }
+}
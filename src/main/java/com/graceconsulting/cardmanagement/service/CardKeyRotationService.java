@@ -0,0 +1,267 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.entity.JobCursor;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import com.graceconsulting.cardmanagement.repository.JobCursorRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import com.graceconsulting.cardmanagement.exception.DuplicateKeys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recifra os cartões com a versão de chave mais recente em segundo plano. Percorre a tabela por
+ * keyset no id, divide cada lote entre {@code workers} threads (uma transação curta por fatia),
+ * limita a vazão a {@code max-rows-per-second} e grava o cursor ao fim de cada lote, retomando
+ * de onde parou após um reinício.
+ *
+ * <p>Com vários nós, só o que detém o lease do cursor processa lotes; os demais esperam ele expirar.
+ * O cursor só avança com o lease ainda válido, e a versão otimista de {@link Card} faz a fatia
+ * falhar (e o lote ser repetido) se a migração binária ou o backfill do blind index gravarem a
+ * mesma linha no meio da recifragem.
+ */
+@Slf4j
+@Service
+public class CardKeyRotationService {
+
+    private static final String CURSOR_PREFIX = "card-key-rotation-v";
+
+    private final CardRepository cardRepository;
+    private final JobCursorRepository jobCursorRepository;
+    private final EncryptionService encryptionService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter rotatedRows;
+
+    @Value("${encryption.rotation.enabled:false}")
+    private boolean enabled;
+
+    @Value("${encryption.rotation.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${encryption.rotation.workers:4}")
+    private int workers;
+
+    @Value("${encryption.rotation.max-rows-per-second:2000}")
+    private int maxRowsPerSecond;
+
+    @Value("${encryption.rotation.lease-ms:60000}")
+    private long leaseMillis;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private ExecutorService executor;
+    private volatile int completedVersion = -1;
+    private volatile double progress;
+    private volatile double rowsPerSecond;
+    private long totalRows = -1;
+
+    public CardKeyRotationService(CardRepository cardRepository,
+                                  JobCursorRepository jobCursorRepository,
+                                  EncryptionService encryptionService,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry) {
+        this.cardRepository = cardRepository;
+        this.jobCursorRepository = jobCursorRepository;
+        this.encryptionService = encryptionService;
+        this.transactionTemplate = transactionTemplate;
+        this.rotatedRows = Counter.builder("cards.key-rotation.rows")
+                .description("Cartões recifrados com a chave atual")
+                .register(meterRegistry);
+        Gauge.builder("cards.key-rotation.progress", this, s -> s.progress)
+                .description("Fração da tabela já percorrida pela rotação de chave")
+                .register(meterRegistry);
+        Gauge.builder("cards.key-rotation.rate", this, s -> s.rowsPerSecond)
+                .description("Linhas por segundo no último lote da rotação de chave")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // Os workers passam a maior parte do tempo esperando o banco; o pool fixo continua limitando a
+        // concorrência mesmo com virtual threads
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("card-key-rotation-", 0).factory()
+                : Thread.ofPlatform().name("card-key-rotation-", 0).daemon().factory();
+        executor = Executors.newFixedThreadPool(workers, threadFactory);
+        log.info("Rotação de chave habilitada: versão alvo {}, {} workers, até {} linhas/s",
+                encryptionService.getCurrentKeyVersion(), workers, maxRowsPerSecond);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${encryption.rotation.interval-ms:100}",
+            initialDelayString = "${encryption.rotation.initial-delay-ms:30000}")
+    public void rotateChunk() {
+        int version = encryptionService.getCurrentKeyVersion();
+        if (!enabled || version == completedVersion) {
+            return;
+        }
+        try {
+            processChunk(version);
+        } catch (OptimisticLockingFailureException e) {
+            log.info("Rotação de chave para a versão {}: linha alterada por outro job, lote será repetido", version);
+        } catch (RuntimeException e) {
+            log.error("Erro na rotação de chave para a versão {}: {}", version, e.getMessage());
+        }
+    }
+
+    private void processChunk(int version) {
+        String cursorName = CURSOR_PREFIX + version;
+        JobCursor cursor = claimCursor(cursorName);
+        if (cursor == null) {
+            log.debug("Rotação para a chave versão {} em andamento em outro nó", version);
+            return;
+        }
+        if (cursor.isCompleted()) {
+            completedVersion = version;
+            return;
+        }
+        if (totalRows < 0) {
+            totalRows = cardRepository.count();
+        }
+
+        long start = System.nanoTime();
+        PageRequest page = PageRequest.of(0, chunkSize);
+        List<UUID> ids = cursor.getLastId() == null
+                ? cardRepository.findFirstIds(page)
+                : cardRepository.findIdsAfter(cursor.getLastId(), page);
+
+        if (ids.isEmpty()) {
+            if (!advanceCursor(cursorName, cursor.getLastId(), 0, true)) {
+                return;
+            }
+            completedVersion = version;
+            progress = 1.0;
+            log.info("Rotação para a chave versão {} concluída: {} cartões percorridos", version, cursor.getProcessed());
+            return;
+        }
+
+        int rotated = rotateInParallel(ids);
+        rotatedRows.increment(rotated);
+
+        if (!advanceCursor(cursorName, ids.get(ids.size() - 1), ids.size(), false)) {
+            return;
+        }
+        long processed = cursor.getProcessed() + ids.size();
+        progress = totalRows == 0 ? 1.0 : Math.min(1.0, (double) processed / totalRows);
+
+        throttle(ids.size(), start);
+        rowsPerSecond = ids.size() / ((System.nanoTime() - start) / 1e9);
+        log.debug("Rotação de chave: {} de {} linhas recifradas, {} percorridas", rotated, ids.size(), processed);
+    }
+
+    private int rotateInParallel(List<UUID> ids) {
+        int sliceSize = Math.max(1, (ids.size() + workers - 1) / workers);
+        List<CompletableFuture<Integer>> slices = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += sliceSize) {
+            List<UUID> slice = ids.subList(from, Math.min(ids.size(), from + sliceSize));
+            slices.add(CompletableFuture.supplyAsync(() -> transactionTemplate.execute(status -> rotate(slice)), executor));
+        }
+        try {
+            return slices.stream().mapToInt(CompletableFuture::join).sum();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private int rotate(List<UUID> ids) {
+        int rotated = 0;
+        for (Card card : cardRepository.findAllById(ids)) {
+            // reencrypt devolve a mesma instância quando o dado já está na chave atual; a linha
+            // traz o texto cifrado em um dos dois formatos, conforme a migração binária
+            boolean changed = false;
+            String current = card.getCardNumberEncrypted();
+            if (current != null) {
+                String reencrypted = encryptionService.reencrypt(current);
+                card.setCardNumberEncrypted(reencrypted);
+                changed = reencrypted != current;
+            }
+            byte[] currentCipher = card.getCardNumberCipher();
+            if (currentCipher != null) {
+                byte[] reencrypted = encryptionService.reencrypt(currentCipher);
+                card.setCardNumberCipher(reencrypted);
+                changed |= reencrypted != currentCipher;
+            }
+            if (changed) {
+                rotated++;
+            }
+        }
+        return rotated;
+    }
+
+    // Cria o cursor se preciso e tenta assumir (ou renovar) o lease; null quando outro nó o detém
+    private JobCursor claimCursor(String cursorName) {
+        if (!jobCursorRepository.existsById(cursorName)) {
+            try {
+                jobCursorRepository.insert(cursorName, LocalDateTime.now());
+            } catch (DataAccessException e) {
+                // Outro nó criou o mesmo cursor primeiro
+                if (!DuplicateKeys.isDuplicateKey(e)) {
+                    throw e;
+                }
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (jobCursorRepository.acquireLease(cursorName, nodeId, now, now.plus(Duration.ofMillis(leaseMillis))) == 0) {
+            return null;
+        }
+        return jobCursorRepository.findById(cursorName).orElseThrow();
+    }
+
+    private boolean advanceCursor(String cursorName, UUID lastId, long rows, boolean completed) {
+        if (jobCursorRepository.advance(cursorName, nodeId, lastId, rows, completed, LocalDateTime.now()) == 0) {
+            log.warn("Lease do cursor {} perdido para outro nó; lote será reavaliado por quem o detém", cursorName);
+            return false;
+        }
+        return true;
+    }
+
+    // Espaça os lotes para não passar de max-rows-per-second e não competir com o tráfego normal
+    private void throttle(int rows, long start) {
+        long minimumNanos = TimeUnit.SECONDS.toNanos(rows) / Math.max(1, maxRowsPerSecond);
+        long remaining = minimumNanos - (System.nanoTime() - start);
+        if (remaining > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
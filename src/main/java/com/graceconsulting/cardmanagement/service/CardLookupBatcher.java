@@ -0,0 +1,240 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.dto.CardIndexEntry;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Agrupa buscas por hash vindas de requisições concorrentes em uma única consulta {@code IN}.
+ * Um despachante coleta as buscas por até {@code window-us} microssegundos ou
+ * {@code max-batch-size} chaves, o que vier primeiro, e completa o future de cada chamador.
+ * O índice consultado (hash, digest binário ou blind index) é fixado no enfileiramento, para que
+ * uma troca de modo durante a janela não misture chaves de tipos diferentes na mesma consulta.
+ */
+@Slf4j
+@Component
+public class CardLookupBatcher {
+
+    private final CardRepository cardRepository;
+    private final CardStorageMigrationService cardStorageMigrationService;
+    private final BlockingQueue<PendingLookup> queue = new LinkedBlockingQueue<>();
+    private final DistributionSummary batchSize;
+    private final Timer queueWait;
+    private final Timer queryLatency;
+
+    @Value("${card.search.batching.enabled:false}")
+    private boolean enabled;
+
+    @Value("${card.search.batching.window-us:1000}")
+    private long windowMicros;
+
+    @Value("${card.search.batching.max-batch-size:64}")
+    private int maxBatchSize;
+
+    private volatile Thread dispatcher;
+
+    public CardLookupBatcher(CardRepository cardRepository,
+                             CardStorageMigrationService cardStorageMigrationService,
+                             MeterRegistry meterRegistry) {
+        this.cardRepository = cardRepository;
+        this.cardStorageMigrationService = cardStorageMigrationService;
+        this.batchSize = DistributionSummary.builder("cards.search.batch.size")
+                .description("Quantidade de hashes por consulta IN")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("cards.search.batch.wait")
+                .description("Tempo entre o enfileiramento da busca e o despacho do lote")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.queryLatency = Timer.builder("cards.search.batch.query")
+                .description("Latência da consulta IN de um lote")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        dispatcher = Thread.ofPlatform()
+                .name("card-lookup-batcher")
+                .daemon()
+                .start(this::dispatchLoop);
+        log.info("Agrupamento de buscas habilitado: janela de {}us, lote máximo de {}", windowMicros, maxBatchSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = dispatcher;
+        dispatcher = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        List<PendingLookup> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(p -> p.future().completeExceptionally(
+                new IllegalStateException("Agrupamento de buscas encerrado")));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Optional<UUID>> lookup(String cardNumberHash) {
+        LookupKind kind = cardStorageMigrationService.isBinaryReadable() ? LookupKind.DIGEST
+                : cardStorageMigrationService.isBinaryFormat() ? LookupKind.DIGEST_OR_HASH
+                : LookupKind.HASH;
+        return enqueue(cardNumberHash, kind);
+    }
+
+    /**
+     * Busca pelo blind index; só deve ser usada quando o backfill do blind index está concluído.
+     */
+    public CompletableFuture<Optional<UUID>> lookupByBlindIndex(BlindIndex blindIndex) {
+        return enqueue(blindIndex.digest(), LookupKind.BLIND_INDEX);
+    }
+
+    /**
+     * Variante bloqueante de {@link #lookup(String)} que repropaga a causa original da falha.
+     */
+    public Optional<UUID> find(String cardNumberHash) {
+        return join(lookup(cardNumberHash));
+    }
+
+    /**
+     * Variante bloqueante de {@link #lookupByBlindIndex(BlindIndex)}.
+     */
+    public Optional<UUID> findByBlindIndex(BlindIndex blindIndex) {
+        return join(lookupByBlindIndex(blindIndex));
+    }
+
+    private CompletableFuture<Optional<UUID>> enqueue(String key, LookupKind kind) {
+        CompletableFuture<Optional<UUID>> future = new CompletableFuture<>();
+        if (dispatcher == null) {
+            future.completeExceptionally(new IllegalStateException("Agrupamento de buscas não está ativo"));
+            return future;
+        }
+        queue.add(new PendingLookup(key, kind, future, System.nanoTime()));
+        return future;
+    }
+
+    private static Optional<UUID> join(CompletableFuture<Optional<UUID>> lookup) {
+        try {
+            return lookup.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private void dispatchLoop() {
+        List<PendingLookup> batch = new ArrayList<>(maxBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(windowMicros);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingLookup next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    dispatch(batch);
+                } catch (Throwable e) {
+                    // Um Error não pode matar o único despachante: falha só este lote e segue atendendo a fila
+                    log.error("Erro inesperado ao despachar lote de {} buscas: {}", batch.size(), e.toString());
+                    batch.forEach(p -> p.future().completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void dispatch(List<PendingLookup> batch) {
+        long dispatchedAt = System.nanoTime();
+        Map<LookupKind, Map<String, List<CompletableFuture<Optional<UUID>>>>> byKind = new EnumMap<>(LookupKind.class);
+        for (PendingLookup pending : batch) {
+            queueWait.record(dispatchedAt - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+            byKind.computeIfAbsent(pending.kind(), k -> new HashMap<>())
+                    .computeIfAbsent(pending.key(), k -> new ArrayList<>(1))
+                    .add(pending.future());
+        }
+        byKind.forEach(this::dispatch);
+    }
+
+    private void dispatch(LookupKind kind, Map<String, List<CompletableFuture<Optional<UUID>>>> waiting) {
+        batchSize.record(waiting.size());
+
+        try {
+            List<CardIndexEntry> found = queryLatency.record(() -> switch (kind) {
+                case HASH -> cardRepository.findIndexEntriesByHashes(waiting.keySet());
+                case DIGEST -> cardRepository.findIndexEntriesByDigests(digests(waiting.keySet()));
+                // Durante a migração binária a linha pode ter só o hash ou só o digest
+                case DIGEST_OR_HASH -> {
+                    List<CardIndexEntry> entries = new ArrayList<>(cardRepository.findIndexEntriesByDigests(digests(waiting.keySet())));
+                    entries.addAll(cardRepository.findIndexEntriesByHashes(waiting.keySet()));
+                    yield entries;
+                }
+                // O prefixo seleciona os candidatos pelo índice; o digest completo, comparado abaixo, descarta colisões
+                case BLIND_INDEX -> cardRepository.findIndexEntriesByBlindIndexes(waiting.keySet().stream()
+                        .map(digest -> HexFormat.fromHexDigitsToLong(digest, 0, 16))
+                        .collect(Collectors.toSet()));
+            });
+            for (CardIndexEntry entry : found) {
+                List<CompletableFuture<Optional<UUID>>> futures = waiting.remove(entry.cardNumberHash());
+                if (futures != null) {
+                    futures.forEach(f -> f.complete(Optional.of(entry.id())));
+                }
+            }
+            waiting.values().forEach(futures -> futures.forEach(f -> f.complete(Optional.empty())));
+        } catch (Throwable e) {
+            log.error("Erro ao resolver lote de {} buscas: {}", waiting.size(), e.toString());
+            waiting.values().forEach(futures -> futures.forEach(f -> f.completeExceptionally(e)));
+        }
+    }
+
+    private static List<byte[]> digests(Set<String> hashes) {
+        return hashes.stream().map(HexFormat.of()::parseHex).toList();
+    }
+
+    private enum LookupKind { HASH, DIGEST, DIGEST_OR_HASH, BLIND_INDEX }
+
+    private record PendingLookup(String key, LookupKind kind, CompletableFuture<Optional<UUID>> future, long enqueuedAt) {}
+}
@@ -0,0 +1,305 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Buscas com requisições de reserva (hedging): a primeira fonte é consultada e, se não responder
+ * dentro do percentil configurado da latência recente (p95 por padrão), a próxima fonte é disparada
+ * em paralelo. A primeira resposta sem erro vence e as tentativas restantes são canceladas. Como só
+ * a cauda lenta gera tentativa extra, a carga adicional fica em torno de {@code 1 - percentile}; um
+ * orçamento em token bucket ({@code budget-ratio}) garante o teto quando o banco inteiro fica lento e
+ * todas as buscas passariam do percentil.
+ *
+ * <p>Cada tentativa roda na própria transação read-only, com timeout igual ao prazo restante da
+ * busca: o Hibernate o aplica como query timeout do JDBC, e o driver cancela no servidor o comando
+ * que perdeu a corrida em vez de deixá-lo ocupando a conexão. O chamador não deve ter transação
+ * aberta, ou reteria uma conexão enquanto as tentativas pegam outras.
+ */
+@Slf4j
+@Component
+public class CardLookupHedger {
+
+    static final int SAMPLE_WINDOW = 1024;
+    static final int RECOMPUTE_EVERY = 64;
+    // Saldo do orçamento em milésimos de tentativa, para depositar frações por busca sem ponto flutuante
+    private static final long BUDGET_TOKEN = 1000;
+
+    private final AtomicLongArray samples = new AtomicLongArray(SAMPLE_WINDOW);
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong hedgeBudget = new AtomicLong();
+    private final PlatformTransactionManager transactionManager;
+    private final Counter hedgesFired;
+    private final Counter hedgesWon;
+    private final Counter hedgesDenied;
+    private final Counter timeouts;
+
+    @Value("${card.search.hedging.enabled:false}")
+    private boolean enabled;
+
+    @Value("${card.search.hedging.percentile:0.95}")
+    private double percentile;
+
+    @Value("${card.search.hedging.min-delay-ms:2}")
+    private long minDelayMs;
+
+    @Value("${card.search.hedging.max-delay-ms:200}")
+    private long maxDelayMs;
+
+    @Value("${card.search.hedging.max-attempts:2}")
+    private int maxAttempts;
+
+    @Value("${card.search.hedging.timeout-ms:1000}")
+    private long timeoutMs;
+
+    @Value("${card.search.hedging.budget-ratio:0.1}")
+    private double budgetRatio;
+
+    @Value("${card.search.hedging.budget-burst:10}")
+    private int budgetBurst;
+
+    // Cada tentativa segura uma conexão: threads além do pool do Hikari só esperariam por ela
+    @Value("${card.search.hedging.max-threads:${spring.datasource.hikari.maximum-pool-size:10}}")
+    private int maxThreads;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Até haver amostras suficientes vale o teto: sem referência de latência, não dispara reservas cedo demais
+    private volatile long hedgeDelayNanos;
+    private ExecutorService executor;
+
+    public CardLookupHedger(MeterRegistry meterRegistry, PlatformTransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+        this.hedgesFired = Counter.builder("cards.search.hedging.attempts")
+                .description("Tentativas de reserva disparadas por lentidão ou falha da anterior")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("cards.search.hedging.wins")
+                .description("Buscas respondidas primeiro por uma tentativa de reserva")
+                .register(meterRegistry);
+        this.hedgesDenied = Counter.builder("cards.search.hedging.denied")
+                .description("Tentativas de reserva não disparadas por falta de orçamento")
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("cards.search.hedging.timeouts")
+                .description("Buscas sem resposta dentro do prazo total")
+                .register(meterRegistry);
+        Gauge.builder("cards.search.hedging.delay", this, hedger -> hedger.hedgeDelayNanos / 1_000_000.0)
+                .description("Espera, em ms, antes de disparar a tentativa de reserva")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        hedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        hedgeBudget.set(budgetBurst * BUDGET_TOKEN);
+        if (!enabled) {
+            return;
+        }
+        if (maxAttempts < 1) {
+            throw new IllegalStateException("card.search.hedging.max-attempts deve ser no mínimo 1: " + maxAttempts);
+        }
+        // As tentativas esperam o banco; com virtual threads cada uma ganha a sua, em plataforma o
+        // excedente aguarda na fila do pool em vez de abrir uma thread por tentativa
+        ThreadFactory threadFactory = virtualThreads
+                ? Thread.ofVirtual().name("card-lookup-hedge-", 0).factory()
+                : Thread.ofPlatform().name("card-lookup-hedge-", 0).daemon().factory();
+        if (virtualThreads) {
+            executor = Executors.newThreadPerTaskExecutor(threadFactory);
+        } else if (maxThreads < 1) {
+            throw new IllegalStateException("card.search.hedging.max-threads deve ser no mínimo 1: " + maxThreads);
+        } else {
+            executor = Executors.newFixedThreadPool(maxThreads, threadFactory);
+        }
+        log.info("Hedging de buscas habilitado: p{} entre {} e {} ms, até {} tentativas, prazo de {} ms, orçamento de {}%",
+                Math.round(percentile * 100), minDelayMs, maxDelayMs, maxAttempts, timeoutMs, Math.round(budgetRatio * 100));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Consulta as fontes em ordem, disparando a seguinte a cada espera de {@link #getHedgeDelayMillis()}
+     * sem resposta ou logo após uma falha. Com menos fontes que {@code max-attempts}, a lista é
+     * percorrida de novo: uma segunda consulta à mesma fonte também corta a cauda quando a lentidão é
+     * da conexão ou do nó que a atendeu. Sem saldo no orçamento, a busca segue só com as tentativas já
+     * disparadas.
+     *
+     * @throws ServiceUnavailableException se nenhuma tentativa responder dentro de {@code timeout-ms}
+     */
+    public <T> T execute(List<Callable<T>> sources) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        depositBudget();
+        CompletionService<T> completion = new ExecutorCompletionService<>(executor);
+        List<Future<T>> attempts = new ArrayList<>(maxAttempts);
+        RuntimeException lastFailure = null;
+        boolean budgetDenied = false;
+        int pending = 0;
+
+        try {
+            while (true) {
+                boolean canHedge = !budgetDenied && attempts.size() < maxAttempts;
+                if (pending == 0) {
+                    if (!canHedge || !submit(completion, attempts, sources, deadline)) {
+                        throw lastFailure;
+                    }
+                    pending++;
+                    continue;
+                }
+
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    timeouts.increment();
+                    throw new ServiceUnavailableException("Tempo limite da busca de cartão excedido");
+                }
+                Future<T> done = completion.poll(canHedge ? Math.min(hedgeDelayNanos, remaining) : remaining,
+                        TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    if (canHedge && deadline - System.nanoTime() > 0) {
+                        if (submit(completion, attempts, sources, deadline)) {
+                            pending++;
+                        } else {
+                            budgetDenied = true;
+                        }
+                    }
+                    continue;
+                }
+
+                pending--;
+                try {
+                    T result = done.get();
+                    if (done != attempts.get(0)) {
+                        hedgesWon.increment();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    lastFailure = e.getCause() instanceof RuntimeException cause
+                            ? cause
+                            : new IllegalStateException(e.getCause());
+                    log.debug("Tentativa de busca falhou: {}", e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Busca de cartão interrompida", e);
+        } finally {
+            // A interrupção aborta a espera por conexão do pool; a consulta JDBC em curso termina pelo query timeout
+            attempts.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+
+    public long getHedgeDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos);
+    }
+
+    private <T> boolean submit(CompletionService<T> completion, List<Future<T>> attempts, List<Callable<T>> sources,
+                               long deadline) {
+        if (!attempts.isEmpty()) {
+            if (!withdrawBudget()) {
+                hedgesDenied.increment();
+                return false;
+            }
+            hedgesFired.increment();
+        }
+        Callable<T> source = sources.get(attempts.size() % sources.size());
+        attempts.add(completion.submit(() -> {
+            long start = System.nanoTime();
+            T result = callInTransaction(source, deadline);
+            recordLatency(System.nanoTime() - start);
+            return result;
+        }));
+        return true;
+    }
+
+    // O timeout da transação vira query timeout do JDBC, em segundos inteiros, arredondado para cima
+    private <T> T callInTransaction(Callable<T> source, long deadline) throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(true);
+        transaction.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(
+                deadline - System.nanoTime() + TimeUnit.SECONDS.toNanos(1) - 1)));
+        try {
+            return transaction.execute(status -> {
+                try {
+                    return source.call();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new UndeclaredThrowableException(e);
+                }
+            });
+        } catch (UndeclaredThrowableException e) {
+            throw (Exception) e.getUndeclaredThrowable();
+        }
+    }
+
+    private void depositBudget() {
+        long deposit = Math.round(budgetRatio * BUDGET_TOKEN);
+        long ceiling = budgetBurst * BUDGET_TOKEN;
+        hedgeBudget.accumulateAndGet(deposit, (current, amount) -> Math.min(ceiling, current + amount));
+    }
+
+    private boolean withdrawBudget() {
+        while (true) {
+            long current = hedgeBudget.get();
+            if (current < BUDGET_TOKEN) {
+                return false;
+            }
+            if (hedgeBudget.compareAndSet(current, current - BUDGET_TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    // Só tentativas concluídas entram na amostra: das canceladas não se conhece a latência
+    void recordLatency(long nanos) {
+        long count = recorded.getAndIncrement() + 1;
+        samples.set((int) ((count - 1) % SAMPLE_WINDOW), nanos);
+        if (count % RECOMPUTE_EVERY == 0) {
+            recomputeDelay((int) Math.min(count, SAMPLE_WINDOW));
+        }
+    }
+
+    private void recomputeDelay(int size) {
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        int index = Math.max(0, (int) Math.ceil(percentile * size) - 1);
+        long minNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+        long maxNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+        hedgeDelayNanos = Math.max(minNanos, Math.min(maxNanos, sorted[index]));
+    }
+}
@@ -0,0 +1,76 @@
+package com.graceconsulting.cardmanagement.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Deduplica buscas concorrentes pelo mesmo hash: a primeira thread executa a consulta e as
+ * demais aguardam (bloqueadas, sem espera ativa) o mesmo {@link CompletableFuture}.
+ */
+@Component
+public class CardSearchCoalescer {
+
+    private final Map<String, CompletableFuture<Optional<UUID>>> inFlight = new ConcurrentHashMap<>();
+    private final Counter executedLookups;
+    private final Counter coalescedLookups;
+
+    public CardSearchCoalescer(MeterRegistry meterRegistry) {
+        this.executedLookups = Counter.builder("cards.search.lookups")
+                .description("Buscas de cartão por hash")
+                .tag("result", "executed")
+                .register(meterRegistry);
+        this.coalescedLookups = Counter.builder("cards.search.lookups")
+                .description("Buscas de cartão por hash")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("cards.search.in-flight", inFlight, Map::size)
+                .description("Buscas por hash em andamento")
+                .register(meterRegistry);
+    }
+
+    public Optional<UUID> execute(String cardNumberHash, Supplier<Optional<UUID>> lookup) {
+        CompletableFuture<Optional<UUID>> future = new CompletableFuture<>();
+        CompletableFuture<Optional<UUID>> existing = inFlight.putIfAbsent(cardNumberHash, future);
+        if (existing != null) {
+            coalescedLookups.increment();
+            return await(existing);
+        }
+
+        executedLookups.increment();
+        try {
+            Optional<UUID> result = lookup.get();
+            future.complete(result);
+            return result;
+        } catch (Throwable e) {
+            // Qualquer falha, inclusive Error, precisa completar o future: senão os seguidores esperam para sempre
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cardNumberHash, future);
+        }
+    }
+
+    private Optional<UUID> await(CompletableFuture<Optional<UUID>> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
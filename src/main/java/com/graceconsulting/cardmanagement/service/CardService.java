@@ -1,5 +1,6 @@
 package com.graceconsulting.cardmanagement.service;
 
+import com.graceconsulting.cardmanagement.config.ReplicaRoutingDataSource;
 import com.graceconsulting.cardmanagement.dto.BatchUploadResponse;
 import com.graceconsulting.cardmanagement.dto.CardRequest;
 import com.graceconsulting.cardmanagement.dto.CardResponse;
@@ -19,8 +20,11 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 
 @Slf4j
 @Service
@@ -29,37 +33,89 @@ public class CardService {
 
     private final CardRepository cardRepository;
     private final CardMapper cardMapper;
-
-    @Transactional
+    private final CardIndexSnapshotService cardIndexSnapshotService;
+    private final CardSearchCoalescer cardSearchCoalescer;
+    private final CardLookupBatcher cardLookupBatcher;
+    private final CardWriteBatcher cardWriteBatcher;
+    private final CardStorageMigrationService cardStorageMigrationService;
+    private final CardBlindIndexBackfillService cardBlindIndexBackfillService;
+    private final CardLookupHedger cardLookupHedger;
+    private final RecentCardWrites recentCardWrites;
+
+    // Sem @Transactional: no group commit o chamador não pode reter uma conexão enquanto aguarda o escritor
     public CardResponse createCard(CardRequest request) {
         String cardNumber = cardMapper.normalizeCardNumber(request.cardNumber());
         log.info("Criando novo cartão");
 
-        String hash = cardMapper.hashCardNumber(cardNumber);
-
-        if (cardRepository.existsByCardNumberHash(hash)) {
-            throw new ResourceConflictException("Cartão já cadastrado no sistema");
-        }
-
         Card card = cardMapper.toEntity(request);
-        Card savedCard = cardRepository.save(card);
+        Card savedCard = cardWriteBatcher.isEnabled()
+                ? cardWriteBatcher.submit(card)
+                : insertCard(card);
 
+        // A chave é calculada em memória: a linha pode não trazer mais o hash sem chave
+        recentCardWrites.record(cardMapper.hashCardNumber(cardNumber));
         log.info("Cartão criado com ID: {}", savedCard.getId());
         return cardMapper.toResponse(savedCard, cardNumber);
     }
 
-    @Transactional(readOnly = true)
+    // Insert atômico: a duplicidade é decidida pelo índice único em um único round trip
+    private Card insertCard(Card card) {
+        if (!cardRepository.insertIfAbsent(card)) {
+            throw new ResourceConflictException("Cartão já cadastrado no sistema");
+        }
+        return card;
+    }
+
+    // Sem @Transactional: cada consulta abre a própria transação read-only, e com hedging uma transação aqui
+    // prenderia uma conexão enquanto as tentativas disputam outras do mesmo pool
     public CardSearchResponse searchCard(String cardNumber) {
         String normalizedNumber = cardMapper.normalizeCardNumber(cardNumber);
         log.info("Buscando cartão");
 
         String hash = cardMapper.hashCardNumber(normalizedNumber);
 
-        return cardRepository.findByCardNumberHash(hash)
-                .map(card -> CardSearchResponse.found(card.getId()))
+        return cardIndexSnapshotService.lookup(snapshotKey(hash, normalizedNumber))
+                .or(() -> cardSearchCoalescer.execute(hash, () -> findCardId(hash, normalizedNumber)))
+                .map(CardSearchResponse::found)
                 .orElse(CardSearchResponse.notFound());
     }
 
+    private String snapshotKey(String hash, String normalizedNumber) {
+        return cardIndexSnapshotService.isKeyedByBlindIndex()
+                ? cardMapper.blindIndexCardNumber(normalizedNumber).digest()
+                : hash;
+    }
+
+    private Optional<UUID> findCardId(String hash, String normalizedNumber) {
+        if (recentCardWrites.requiresPrimary(hash)) {
+            return ReplicaRoutingDataSource.onPrimary(() -> queryCardId(hash, normalizedNumber));
+        }
+        if (cardLookupBatcher.isEnabled()) {
+            // Mesma precedência de queryCardId: com o backfill concluído, o hash sem chave não é consultado
+            return cardBlindIndexBackfillService.isReadable()
+                    ? cardLookupBatcher.findByBlindIndex(cardMapper.blindIndexCardNumber(normalizedNumber))
+                    : cardLookupBatcher.find(hash);
+        }
+        if (cardLookupHedger.isEnabled()) {
+            return cardLookupHedger.execute(List.<Callable<Optional<UUID>>>of(() -> queryCardId(hash, normalizedNumber)));
+        }
+        return queryCardId(hash, normalizedNumber);
+    }
+
+    private Optional<UUID> queryCardId(String hash, String normalizedNumber) {
+        if (cardBlindIndexBackfillService.isReadable()) {
+            BlindIndex blindIndex = cardMapper.blindIndexCardNumber(normalizedNumber);
+            return cardRepository.findIdByBlindIndex(blindIndex.prefix(), blindIndex.digestBytes());
+        }
+        if (cardStorageMigrationService.isBinaryReadable()) {
+            return cardRepository.findByCardNumberDigest(HexFormat.of().parseHex(hash)).map(Card::getId);
+        }
+        if (cardStorageMigrationService.isBinaryFormat()) {
+            return cardRepository.findIdByDigestOrHash(HexFormat.of().parseHex(hash), hash);
+        }
+        return cardRepository.findByCardNumberHash(hash).map(Card::getId);
+    }
+
     @Transactional
     public BatchUploadResponse processBatchFile(MultipartFile file) {
         if (file.isEmpty()) {
@@ -83,11 +139,11 @@ public class CardService {
                 lineNumber++;
 
                 // Ignora header e linhas vazias
-                if (isHeaderOrFooterLine(line, lineNumber)) {
+                if (CardBatchLines.isHeaderOrFooterLine(line, lineNumber)) {
                     continue;
                 }
 
-                String cardNumber = extractCardNumber(line);
+                String cardNumber = CardBatchLines.extractCardNumber(line);
                 if (cardNumber == null || cardNumber.isEmpty()) {
                     continue;
                 }
@@ -102,7 +158,7 @@ public class CardService {
                             errorCount++;
                             errors.add(new BatchUploadResponse.BatchItemError(
                                     lineNumber,
-                                    maskCardNumber(cardNumber),
+                                    CardBatchLines.maskCardNumber(cardNumber),
                                     "Cartão inválido"
                             ));
                             log.warn("Linha {}: Cartão inválido", lineNumber);
@@ -111,7 +167,7 @@ public class CardService {
                             duplicateCount++;
                             errors.add(new BatchUploadResponse.BatchItemError(
                                     lineNumber,
-                                    maskCardNumber(cardNumber),
+                                    CardBatchLines.maskCardNumber(cardNumber),
                                     "Cartão já cadastrado no sistema"
                             ));
                             log.warn("Linha {}: Cartão já cadastrado", lineNumber);
@@ -122,7 +178,7 @@ public class CardService {
                     errorCount++;
                     errors.add(new BatchUploadResponse.BatchItemError(
                             lineNumber,
-                            maskCardNumber(cardNumber),
+                            CardBatchLines.maskCardNumber(cardNumber),
                             e.getMessage()
                     ));
                     log.warn("Erro ao processar linha {}: {}", lineNumber, e.getMessage());
@@ -139,64 +195,24 @@ public class CardService {
         return new BatchUploadResponse(batchId, totalProcessed, successCount, duplicateCount, errorCount, errors);
     }
 
-    private boolean isHeaderOrFooterLine(String line, int lineNumber) {
-        if (line.trim().isEmpty()) {
-            return true;
-        }
-        // Header começa com nome do arquivo ou "DESAFIO"
-        if (lineNumber == 1 || line.startsWith("DESAFIO")) {
-            return true;
-        }
-        // Footer começa com "LOTE"
-        if (line.startsWith("LOTE")) {
-            return true;
-        }
-        return false;
-    }
-
-    private String extractCardNumber(String line) {
-        // Formato: [01-01]ID [02-07]NUM_LOTE [08-26]CARTAO
-        // Exemplo: C2     4456897999999999
-        if (line.length() >= 22) {
-            return line.substring(6, Math.min(line.length(), 26)).trim();
-        }
-        return null;
-    }
-
     private BatchCardResult saveCardFromBatch(String cardNumber, String batchId) {
-        if (!isValidCardNumber(cardNumber)) {
+        if (!CardBatchLines.isValidCardNumber(cardNumber)) {
             return BatchCardResult.INVALID;
         }
 
         String hash = cardMapper.hashCardNumber(cardNumber);
 
-        if (cardRepository.existsByCardNumberHash(hash)) {
+        // Mesma precedência da busca: blind index quando completo, senão o formato de armazenamento ativo
+        boolean registered = cardBlindIndexBackfillService.isReadable() || cardStorageMigrationService.isBinaryFormat()
+                ? queryCardId(hash, cardNumber).isPresent()
+                : cardRepository.existsByCardNumberHash(hash);
+        if (registered) {
             return BatchCardResult.DUPLICATE;
         }
 
         Card card = cardMapper.toEntity(cardNumber, batchId);
         cardRepository.save(card);
+        recentCardWrites.record(hash);
         return BatchCardResult.SUCCESS;
     }
-
-    private String maskCardNumber(String cardNumber) {
-        if (cardNumber == null || cardNumber.length() < 8) {
-            return "****";
-        }
-        return cardNumber.substring(0, 4) + "****" + cardNumber.substring(cardNumber.length() - 4);
-    }
-
-    private boolean isValidCardNumber(String cardNumber) {
-        if (cardNumber == null || cardNumber.isEmpty()) {
-            return false;
-        }
-        // Verifica se contém apenas dígitos
-        if (!cardNumber.matches("^\\d+$")) {
-            return false;
-        }
-        // Verifica tamanho (13 a 19 dígitos)
-        int length = cardNumber.length();
-        return length >= 13 && length <= 19;
-    }
-
 }
@@ -0,0 +1,132 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Migração online para o formato binário: move, em lotes pequenos e espaçados, o texto cifrado
+ * em Base64 e o hash hexadecimal de cada linha antiga para as colunas {@code VARBINARY} e
+ * {@code BINARY(32)}, anulando as colunas de texto. Enquanto houver linhas para trás, o índice
+ * único do hash continua sendo a garantia de duplicidade e as buscas consultam os dois formatos;
+ * ao terminar, os índices de {@code card_number_hash} são removidos.
+ *
+ * <p>As colunas de texto continuam mapeadas para permitir a migração online e só podem ser
+ * removidas do banco quando o formato texto deixar de existir no código.
+ */
+@Slf4j
+@Service
+public class CardStorageMigrationService {
+
+    private final CardRepository cardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter migratedRows;
+
+    @Value("${card.storage.format:text}")
+    private String storageFormat;
+
+    @Value("${card.storage.migration.chunk-size:500}")
+    private int chunkSize;
+
+    private volatile boolean complete;
+
+    public CardStorageMigrationService(CardRepository cardRepository,
+                                       TransactionTemplate transactionTemplate,
+                                       MeterRegistry meterRegistry) {
+        this.cardRepository = cardRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.migratedRows = Counter.builder("cards.storage.migrated")
+                .description("Linhas reescritas no formato binário")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!isBinaryFormat()) {
+            cardRepository.ensureCardNumberHashUniqueIndex();
+            return;
+        }
+        complete = !cardRepository.existsByCardNumberHashIsNotNull();
+        if (complete) {
+            dropHashIndexes();
+        } else {
+            cardRepository.ensureCardNumberHashUniqueIndex();
+        }
+        log.info("Formato binário de cartões habilitado; migração {}", complete ? "concluída" : "pendente");
+    }
+
+    public boolean isBinaryFormat() {
+        return "binary".equalsIgnoreCase(storageFormat);
+    }
+
+    /**
+     * Indica se todas as linhas já estão no formato binário, ou seja, se a busca pode usar só esse
+     * índice e as novas linhas dispensam o hash em texto.
+     */
+    public boolean isBinaryReadable() {
+        return isBinaryFormat() && complete;
+    }
+
+    // Continua rodando após a conclusão para mover linhas gravadas com hash por nós que ainda não a
+    // observaram; a conclusão não é revertida porque essas linhas já trazem o digest binário
+    @Scheduled(fixedDelayString = "${card.storage.migration.interval-ms:1000}")
+    public void migrateChunk() {
+        if (!isBinaryFormat()) {
+            return;
+        }
+        try {
+            Integer migrated = transactionTemplate.execute(status -> migrateNextChunk());
+            if (migrated != null && migrated > 0) {
+                migratedRows.increment(migrated);
+                log.debug("Migração binária: {} linhas reescritas", migrated);
+            } else if (!complete) {
+                complete = true;
+                dropHashIndexes();
+                log.info("Migração para o formato binário concluída");
+            }
+        } catch (RuntimeException e) {
+            log.error("Erro na migração para o formato binário: {}", e.getMessage());
+        }
+    }
+
+    private int migrateNextChunk() {
+        List<Card> cards = cardRepository.findByCardNumberHashIsNotNull(PageRequest.of(0, chunkSize));
+        for (Card card : cards) {
+            if (card.getCardNumberCipher() == null && card.getCardNumberEncrypted() != null) {
+                card.setCardNumberCipher(Base64.getDecoder().decode(card.getCardNumberEncrypted()));
+            }
+            if (card.getCardNumberDigest() == null) {
+                // Nós atuais gravam o digest também no formato texto; sem ele, depois da conclusão, a linha veio
+                // de um nó de versão anterior e ficou invisível à busca binária até este ponto
+                if (complete) {
+                    log.warn("Cartão {} gravado sem digest após a migração binária: atualize os nós em formato texto",
+                            card.getId());
+                }
+                card.setCardNumberDigest(HexFormat.of().parseHex(card.getCardNumberHash()));
+            }
+            card.setCardNumberEncrypted(null);
+            card.setCardNumberHash(null);
+        }
+        return cards.size();
+    }
+
+    // Sem linhas com hash, os índices da coluna só ocupam espaço e custam em cada insert
+    private void dropHashIndexes() {
+        int dropped = cardRepository.dropCardNumberHashIndexes();
+        if (dropped > 0) {
+            log.info("Migração binária: {} índices de card_number_hash removidos", dropped);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.dto.CardIndexEntry;
+import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.exception.ResourceConflictException;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Group commit para cadastros individuais: as chamadas concorrentes de {@code createCard} são
+ * enfileiradas e um escritor grava cada micro-lote em uma única transação, verificando
+ * duplicidade com uma consulta {@code IN}. Cada chamador recebe o próprio cartão ou o próprio
+ * {@link ResourceConflictException}.
+ */
+@Slf4j
+@Component
+public class CardWriteBatcher {
+
+    private static final String DUPLICATE_MESSAGE = "Cartão já cadastrado no sistema";
+
+    private final CardRepository cardRepository;
+    private final CardStorageMigrationService cardStorageMigrationService;
+    private final CardBlindIndexBackfillService cardBlindIndexBackfillService;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final DistributionSummary batchSize;
+    private final Timer commitLatency;
+
+    @Value("${card.create.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${card.create.group-commit.window-us:2000}")
+    private long windowMicros;
+
+    @Value("${card.create.group-commit.max-batch-size:128}")
+    private int maxBatchSize;
+
+    private volatile Thread writer;
+
+    public CardWriteBatcher(CardRepository cardRepository,
+                            CardStorageMigrationService cardStorageMigrationService,
+                            CardBlindIndexBackfillService cardBlindIndexBackfillService,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry) {
+        this.cardRepository = cardRepository;
+        this.cardStorageMigrationService = cardStorageMigrationService;
+        this.cardBlindIndexBackfillService = cardBlindIndexBackfillService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = DistributionSummary.builder("cards.create.batch.size")
+                .description("Cartões gravados por transação no group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.commitLatency = Timer.builder("cards.create.batch.commit")
+                .description("Latência da transação de um micro-lote do group commit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        writer = Thread.ofPlatform()
+                .name("card-write-batcher")
+                .daemon()
+                .start(this::writeLoop);
+        log.info("Group commit de cartões habilitado: janela de {}us, lote máximo de {}", windowMicros, maxBatchSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = writer;
+        writer = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        List<PendingWrite> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(p -> p.future().completeExceptionally(
+                new IllegalStateException("Group commit de cartões encerrado")));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enfileira o cartão e bloqueia até o commit do micro-lote em que ele foi gravado.
+     */
+    public Card submit(Card card) {
+        if (writer == null) {
+            throw new IllegalStateException("Group commit de cartões não está ativo");
+        }
+        CompletableFuture<Card> future = new CompletableFuture<>();
+        queue.add(new PendingWrite(card, future));
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(windowMicros);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    flush(batch);
+                } catch (Throwable e) {
+                    // Um Error não pode matar o único escritor: falha só este lote e segue atendendo a fila
+                    log.error("Erro inesperado no commit de lote com {} cartões: {}", batch.size(), e.toString());
+                    batch.forEach(p -> p.future().completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        BatchOutcome outcome;
+        long start = System.nanoTime();
+        try {
+            outcome = transactionTemplate.execute(status -> insertBatch(batch));
+        } catch (RuntimeException e) {
+            // Uma linha problemática não pode derrubar o lote inteiro: grava uma a uma
+            log.warn("Falha no commit de lote com {} cartões, gravando individualmente: {}", batch.size(), e.getMessage());
+            batch.forEach(this::writeSingle);
+            return;
+        }
+        commitLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSize.record(outcome.accepted().size());
+
+        outcome.accepted().forEach(p -> p.future().complete(p.card()));
+        outcome.conflicts().forEach(p -> p.future().completeExceptionally(
+                new ResourceConflictException(DUPLICATE_MESSAGE)));
+    }
+
+    private BatchOutcome insertBatch(List<PendingWrite> batch) {
+        // A duplicidade é verificada nas colunas únicas que as buscas do modo ativo usam: com o blind
+        // index completo, só ele; durante a migração binária, uma linha já existente pode ter só o
+        // hash ou só o digest
+        boolean blindIndex = cardBlindIndexBackfillService.isReadable();
+        Set<String> keys = batch.stream()
+                .map(p -> dedupeKey(p.card(), blindIndex))
+                .collect(Collectors.toSet());
+        List<CardIndexEntry> existing = new ArrayList<>();
+        if (blindIndex) {
+            // O prefixo seleciona os candidatos pelo índice; colisões do prefixo trazem outro digest e não casam
+            existing.addAll(cardRepository.findIndexEntriesByBlindIndexes(batch.stream()
+                    .map(p -> p.card().getCardNumberBlindIndex())
+                    .collect(Collectors.toSet())));
+        } else if (cardStorageMigrationService.isBinaryFormat()) {
+            existing.addAll(cardRepository.findIndexEntriesByDigests(
+                    keys.stream().map(HexFormat.of()::parseHex).toList()));
+        }
+        if (!blindIndex && !cardStorageMigrationService.isBinaryReadable()) {
+            existing.addAll(cardRepository.findIndexEntriesByHashes(keys));
+        }
+        Set<String> seen = existing.stream()
+                .map(CardIndexEntry::cardNumberHash)
+                .collect(Collectors.toCollection(HashSet::new));
+
+        List<PendingWrite> accepted = new ArrayList<>(batch.size());
+        List<PendingWrite> conflicts = new ArrayList<>();
+        for (PendingWrite pending : batch) {
+            if (seen.add(dedupeKey(pending.card(), blindIndex))) {
+                accepted.add(pending);
+            } else {
+                conflicts.add(pending);
+            }
+        }
+
+        cardRepository.saveAll(accepted.stream().map(PendingWrite::card).toList());
+        cardRepository.flush();
+        return new BatchOutcome(accepted, conflicts);
+    }
+
+    private static String dedupeKey(Card card, boolean blindIndex) {
+        if (blindIndex) {
+            return HexFormat.of().formatHex(card.getCardNumberBlindDigest());
+        }
+        return card.getCardNumberDigest() != null
+                ? HexFormat.of().formatHex(card.getCardNumberDigest())
+                : card.getCardNumberHash();
+    }
+
+    private void writeSingle(PendingWrite pending) {
+        // O id atribuído no persist do lote revertido não existe no banco
+        pending.card().setId(null);
+        try {
+            if (!cardRepository.insertIfAbsent(pending.card())) {
+                throw new ResourceConflictException(DUPLICATE_MESSAGE);
+            }
+            pending.future().complete(pending.card());
+        } catch (RuntimeException e) {
+            pending.future().completeExceptionally(e);
+        }
+    }
+
+    private record PendingWrite(Card card, CompletableFuture<Card> future) {}
+
+    private record BatchOutcome(List<PendingWrite> accepted, List<PendingWrite> conflicts) {}
+}
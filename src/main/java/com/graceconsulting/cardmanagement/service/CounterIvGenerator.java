@@ -0,0 +1,142 @@
+package com.graceconsulting.cardmanagement.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Construção determinística do NIST SP 800-38D (8.2.1): campo fixo de 4 bytes com o identificador
+ * do nó seguido de um contador de 64 bits. Gerar um IV custa um incremento atômico, sem consultar a
+ * fonte de entropia.
+ *
+ * <p>A unicidade não depende de sorteio: cada nó que cifra com a mesma chave precisa de um
+ * identificador próprio, atribuído na configuração. O contador nunca recomeça — ele é reservado em
+ * blocos, e o fim de cada bloco é gravado e sincronizado no arquivo de estado antes do primeiro uso,
+ * então um reinício (mesmo após queda) continua a partir do último bloco reservado. Esgotar o
+ * contador é um erro: a chave precisa ser rotacionada antes disso.
+ */
+@Slf4j
+public class CounterIvGenerator implements IvGenerator {
+
+    static final long DEFAULT_BLOCK_SIZE = 1L << 20;
+
+    private static final VarHandle INT_VIEW =
+            MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+    private static final VarHandle LONG_VIEW =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final int nodeId;
+    private final Path statePath;
+    private final long blockSize;
+    private final long counterLimit;
+    private final AtomicLong counter;
+    // ReentrantLock e não synchronized: a reserva grava e sincroniza o arquivo de estado e, com virtual threads,
+    // um monitor prenderia a carrier thread durante o fsync
+    private final ReentrantLock reserveLock = new ReentrantLock();
+
+    private volatile long reservedUntil;
+
+    public CounterIvGenerator(int nodeId, Path statePath) {
+        this(nodeId, statePath, DEFAULT_BLOCK_SIZE, Long.MAX_VALUE);
+    }
+
+    // blockSize e counterLimit reduzidos existem apenas para exercitar reserva e esgotamento em testes
+    CounterIvGenerator(int nodeId, Path statePath, long blockSize, long counterLimit) {
+        if (statePath == null) {
+            throw new IllegalStateException("Arquivo de estado obrigatório para o gerador de IV por contador");
+        }
+        this.nodeId = nodeId;
+        this.statePath = statePath;
+        this.blockSize = blockSize;
+        this.counterLimit = counterLimit;
+        long start = loadNextCounter();
+        this.counter = new AtomicLong(start);
+        this.reservedUntil = start;
+        reserve(start);
+        log.info("Gerador de IV por contador usando nó {} a partir de {}", HexFormat.of().toHexDigits(nodeId), start);
+    }
+
+    @Override
+    public void nextIv(byte[] destination, int offset) {
+        long value = counter.getAndIncrement();
+        if (value < 0 || value >= counterLimit) {
+            throw new IllegalStateException("Contador de IV esgotado para o nó " + HexFormat.of().toHexDigits(nodeId)
+                    + "; rotacione a chave de criptografia");
+        }
+        if (value >= reservedUntil) {
+            reserve(value);
+        }
+        INT_VIEW.set(destination, offset, nodeId);
+        LONG_VIEW.set(destination, offset + 4, value);
+    }
+
+    long reservedUntil() {
+        return reservedUntil;
+    }
+
+    private void reserve(long value) {
+        reserveLock.lock();
+        try {
+            if (value < reservedUntil) {
+                return;
+            }
+            // Os blocos partem do fim do anterior, não do valor que pediu a reserva: quem chega primeiro ao
+            // lock pode não ter o menor valor, e o limite ficaria deslocado para os valores já distribuídos
+            long next = reservedUntil;
+            while (value >= next && next < counterLimit) {
+                next = next >= counterLimit - blockSize ? counterLimit : next + blockSize;
+            }
+            // Gravado e sincronizado antes do uso: um reinício nunca reutiliza valores deste bloco
+            persist(next);
+            reservedUntil = next;
+        } finally {
+            reserveLock.unlock();
+        }
+    }
+
+    private long loadNextCounter() {
+        if (!Files.exists(statePath)) {
+            return 0L;
+        }
+        try {
+            String[] fields = Files.readString(statePath, StandardCharsets.US_ASCII).strip().split("\\s+");
+            int storedNodeId = HexFormat.fromHexDigits(fields[0]);
+            if (storedNodeId != nodeId) {
+                throw new IllegalStateException("Arquivo de estado de IV pertence ao nó "
+                        + HexFormat.of().toHexDigits(storedNodeId) + ", não ao nó " + HexFormat.of().toHexDigits(nodeId));
+            }
+            return Long.parseLong(fields[1]);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao ler estado do contador de IV", e);
+        }
+    }
+
+    private void persist(long next) {
+        try {
+            Path target = statePath.toAbsolutePath();
+            Path parent = target.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.writeString(tmp, HexFormat.of().toHexDigits(nodeId) + " " + next + System.lineSeparator(),
+                    StandardCharsets.US_ASCII, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erro ao reservar bloco do contador de IV", e);
+        }
+    }
+}
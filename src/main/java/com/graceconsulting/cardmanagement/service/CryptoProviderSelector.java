@@ -0,0 +1,193 @@
+package com.graceconsulting.cardmanagement.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Provider;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Escolhe o provider JCA do AES-GCM e do SHA-256: descarta quem falha nos known-answer tests e
+ * mede a vazão dos demais por alguns milissegundos. Sem lista configurada, avalia todos os
+ * providers instalados que oferecem o algoritmo.
+ */
+@Slf4j
+final class CryptoProviderSelector {
+
+    static final String CIPHER_ALGORITHM = "AES/GCM/NoPadding";
+    static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final int BLOCK_SIZE = 1024;
+    private static final HexFormat HEX = HexFormat.of();
+
+    // GCM spec (McGrew/Viega), test case 14: chave AES-256 e IV zerados, um bloco de zeros
+    private static final byte[] KAT_KEY = new byte[32];
+    private static final byte[] KAT_IV = new byte[12];
+    private static final byte[] KAT_PLAIN = new byte[16];
+    private static final byte[] KAT_CIPHER =
+            HEX.parseHex("cea7403d4d606b6e074ec5d3baf39d18" + "d0d1c8a799996bf0265b98b5d48ab919");
+    // FIPS 180-2, SHA-256("abc")
+    private static final byte[] KAT_DIGEST =
+            HEX.parseHex("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+
+    private CryptoProviderSelector() {
+    }
+
+    record Measurement(Provider provider, double megabytesPerSecond) {}
+
+    static Measurement selectCipher(List<String> names, boolean autoSelect, long benchmarkMillis) {
+        return select("Cipher", CIPHER_ALGORITHM, candidates(names, "Cipher", CIPHER_ALGORITHM),
+                autoSelect, benchmarkMillis, CryptoProviderSelector::cipherPassesKat,
+                CryptoProviderSelector::benchmarkCipher);
+    }
+
+    static Measurement selectDigest(List<String> names, boolean autoSelect, long benchmarkMillis) {
+        return select("MessageDigest", DIGEST_ALGORITHM, candidates(names, "MessageDigest", DIGEST_ALGORITHM),
+                autoSelect, benchmarkMillis, CryptoProviderSelector::digestPassesKat,
+                CryptoProviderSelector::benchmarkDigest);
+    }
+
+    private static Measurement select(String type, String algorithm, List<Provider> candidates, boolean autoSelect,
+                                      long benchmarkMillis, KnownAnswerTest kat, Benchmark benchmark) {
+        List<Measurement> measured = new ArrayList<>();
+        for (Provider provider : candidates) {
+            if (!kat.passes(provider)) {
+                log.warn("Provider {} reprovado no known-answer test de {}", provider.getName(), algorithm);
+                continue;
+            }
+            try {
+                double throughput = benchmarkMillis > 0 ? benchmark.run(provider, benchmarkMillis) : Double.NaN;
+                measured.add(new Measurement(provider, throughput));
+                log.info("{} {} via {}: {} MB/s", type, algorithm, provider.getName(),
+                        String.format("%.1f", throughput));
+            } catch (GeneralSecurityException e) {
+                log.warn("Falha ao medir {} via {}: {}", algorithm, provider.getName(), e.getMessage());
+            }
+        }
+        if (measured.isEmpty()) {
+            throw new IllegalStateException("Nenhum provider aprovado para " + algorithm);
+        }
+        Measurement chosen = autoSelect && benchmarkMillis > 0
+                ? measured.stream().max((a, b) -> Double.compare(a.megabytesPerSecond(), b.megabytesPerSecond())).get()
+                : measured.get(0);
+        log.info("{} {} usando provider {}", type, algorithm, chosen.provider().getName());
+        return chosen;
+    }
+
+    private static List<Provider> candidates(List<String> names, String type, String algorithm) {
+        List<Provider> providers = new ArrayList<>();
+        if (names.isEmpty()) {
+            for (Provider provider : Security.getProviders()) {
+                if (supports(provider, type, algorithm)) {
+                    providers.add(provider);
+                }
+            }
+            return providers;
+        }
+        for (String name : names) {
+            Provider provider = Security.getProvider(name);
+            if (provider == null) {
+                log.warn("Provider JCA {} não está instalado", name);
+            } else if (supports(provider, type, algorithm)) {
+                providers.add(provider);
+            }
+        }
+        return providers;
+    }
+
+    private static boolean supports(Provider provider, String type, String algorithm) {
+        try {
+            if ("Cipher".equals(type)) {
+                Cipher.getInstance(algorithm, provider);
+            } else {
+                MessageDigest.getInstance(algorithm, provider);
+            }
+            return true;
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static boolean cipherPassesKat(Provider provider) {
+        try {
+            SecretKeySpec key = new SecretKeySpec(KAT_KEY, "AES");
+            Cipher encrypt = Cipher.getInstance(CIPHER_ALGORITHM, provider);
+            encrypt.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, KAT_IV));
+            Cipher decrypt = Cipher.getInstance(CIPHER_ALGORITHM, provider);
+            decrypt.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, KAT_IV));
+            return Arrays.equals(KAT_CIPHER, encrypt.doFinal(KAT_PLAIN))
+                    && Arrays.equals(KAT_PLAIN, decrypt.doFinal(KAT_CIPHER));
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static boolean digestPassesKat(Provider provider) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM, provider);
+            return Arrays.equals(KAT_DIGEST, digest.digest("abc".getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    private static double benchmarkCipher(Provider provider, long millis) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(CIPHER_ALGORITHM, provider);
+        SecretKeySpec key = new SecretKeySpec(new byte[32], "AES");
+        byte[] iv = new byte[12];
+        byte[] input = new byte[BLOCK_SIZE];
+        byte[] output = new byte[BLOCK_SIZE + 16];
+        long bytes = 0;
+        long counter = 0;
+        long start = System.nanoTime();
+        long deadline = start + millis * 1_000_000;
+        while (System.nanoTime() < deadline) {
+            // O GCM recusa repetir chave e IV na mesma instância: varia o IV a cada bloco
+            counter++;
+            for (int i = 0; i < 8; i++) {
+                iv[i] = (byte) (counter >>> (8 * i));
+            }
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+            cipher.doFinal(input, 0, BLOCK_SIZE, output, 0);
+            bytes += BLOCK_SIZE;
+        }
+        return megabytesPerSecond(bytes, System.nanoTime() - start);
+    }
+
+    private static double benchmarkDigest(Provider provider, long millis) throws GeneralSecurityException {
+        MessageDigest digest = MessageDigest.getInstance(DIGEST_ALGORITHM, provider);
+        byte[] input = new byte[BLOCK_SIZE];
+        long bytes = 0;
+        long start = System.nanoTime();
+        long deadline = start + millis * 1_000_000;
+        while (System.nanoTime() < deadline) {
+            digest.update(input);
+            input[0] = digest.digest()[0];
+            bytes += BLOCK_SIZE;
+        }
+        return megabytesPerSecond(bytes, System.nanoTime() - start);
+    }
+
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return (bytes / (1024.0 * 1024.0)) / (nanos / 1e9);
+    }
+
+    @FunctionalInterface
+    private interface KnownAnswerTest {
+        boolean passes(Provider provider);
+    }
+
+    @FunctionalInterface
+    private interface Benchmark {
+        double run(Provider provider, long millis) throws GeneralSecurityException;
+    }
+}
@@ -1,98 +1,312 @@
 package com.graceconsulting.cardmanagement.service;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.nio.file.Path;
 import java.security.MessageDigest;
-import java.security.SecureRandom;
+import java.security.Provider;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 @Slf4j
 @Service
-public class EncryptionService {
+public class EncryptionService implements MeterBinder {
 
     private static final String ALGORITHM = "AES/GCM/NoPadding";
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final String BLIND_INDEX_ALGORITHM = "HmacSHA256";
     private static final int GCM_IV_LENGTH = 12;
     private static final int GCM_TAG_LENGTH = 128;
+    private static final int GCM_TAG_BYTES = GCM_TAG_LENGTH / 8;
+    private static final int HASH_LENGTH = 32;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final int[] BASE64_VALUES = base64Values();
+    private static final int LEGACY_KEY_VERSION = 0;
+    private static final int MAX_KEY_VERSION = 255;
+
+    // Pools em vez de ThreadLocal: com virtual threads cada thread criaria a própria instância
+    private final Queue<CipherContext> cipherPool = new ConcurrentLinkedQueue<>();
+    private final Queue<HashContext> hashPool = new ConcurrentLinkedQueue<>();
+    private final Queue<Mac> blindIndexPool = new ConcurrentLinkedQueue<>();
 
     @Value("${jwt.secret}")
     private String secretKey;
 
-    private SecretKeySpec keySpec;
+    // Chaves versionadas no formato "versão:segredo", separadas por vírgula; a maior versão cifra
+    @Value("${encryption.keys:}")
+    private String keyRingSpec;
+
+    // Chave dedicada do blind index; vazia deriva uma chave separada de jwt.secret
+    @Value("${encryption.blind-index.key:}")
+    private String blindIndexSecret;
+
+    // Providers JCA candidatos, em ordem de preferência; vazio avalia todos os instalados
+    @Value("${encryption.providers:}")
+    private String providerNames;
+
+    @Value("${encryption.provider.auto-select:false}")
+    private boolean autoSelectProvider;
+
+    @Value("${encryption.provider.benchmark-ms:100}")
+    private long providerBenchmarkMillis;
+
+    @Value("${encryption.iv.strategy:random}")
+    private String ivStrategy;
+
+    @Value("${encryption.iv.counter.state-path:}")
+    private String ivStatePath;
+
+    @Value("${encryption.iv.counter.node-id:}")
+    private String ivNodeId;
+
+    // Índice = versão da chave; a versão 0 é a chave legada derivada de jwt.secret, usada sem cabeçalho
+    private final SecretKeySpec[] keyRing = new SecretKeySpec[MAX_KEY_VERSION + 1];
+    private volatile int currentKeyVersion;
+    private SecretKeySpec blindIndexKey;
+    private IvGenerator ivGenerator;
+    private Provider cipherProvider;
+    private Provider digestProvider;
+    private double cipherThroughput = Double.NaN;
+    private double digestThroughput = Double.NaN;
 
     @PostConstruct
     public void init() {
         try {
-            MessageDigest sha = MessageDigest.getInstance("SHA-256");
-            byte[] key = sha.digest(secretKey.getBytes(StandardCharsets.UTF_8));
-            key = Arrays.copyOf(key, 32);
-            keySpec = new SecretKeySpec(key, "AES");
+            Arrays.fill(keyRing, null);
+            keyRing[LEGACY_KEY_VERSION] = deriveKey(secretKey);
+            int current = LEGACY_KEY_VERSION;
+            if (keyRingSpec != null && !keyRingSpec.isBlank()) {
+                for (String entry : keyRingSpec.split(",")) {
+                    int separator = entry.indexOf(':');
+                    int version = Integer.parseInt(entry.substring(0, separator).trim());
+                    if (version <= LEGACY_KEY_VERSION || version > MAX_KEY_VERSION) {
+                        throw new IllegalArgumentException("Versão de chave fora do intervalo 1-255: " + version);
+                    }
+                    keyRing[version] = deriveKey(entry.substring(separator + 1).trim());
+                    current = Math.max(current, version);
+                }
+            }
+            currentKeyVersion = current;
+            String blindSecret = blindIndexSecret == null || blindIndexSecret.isBlank()
+                    ? "blind-index:" + secretKey
+                    : blindIndexSecret;
+            blindIndexKey = new SecretKeySpec(deriveKey(blindSecret).getEncoded(), BLIND_INDEX_ALGORITHM);
+            blindIndexPool.clear();
+            selectProviders();
+            ivGenerator = createIvGenerator();
         } catch (Exception e) {
             throw new RuntimeException("Erro ao inicializar serviço de criptografia", e);
         }
     }
 
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        if (cipherProvider != null) {
+            Gauge.builder("encryption.provider.throughput", this, s -> s.cipherThroughput)
+                    .description("Vazão medida na inicialização para o provider JCA escolhido")
+                    .baseUnit("megabytes.per.second")
+                    .tags("algorithm", CryptoProviderSelector.CIPHER_ALGORITHM, "provider", cipherProvider.getName())
+                    .register(registry);
+        }
+        if (digestProvider != null) {
+            Gauge.builder("encryption.provider.throughput", this, s -> s.digestThroughput)
+                    .description("Vazão medida na inicialização para o provider JCA escolhido")
+                    .baseUnit("megabytes.per.second")
+                    .tags("algorithm", CryptoProviderSelector.DIGEST_ALGORITHM, "provider", digestProvider.getName())
+                    .register(registry);
+        }
+    }
+
+    public int getCurrentKeyVersion() {
+        return currentKeyVersion;
+    }
+
     public String encrypt(String data) {
-        try {
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            byte[] iv = new byte[GCM_IV_LENGTH];
-            new SecureRandom().nextBytes(iv);
-            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
+        return Base64.getEncoder().encodeToString(encryptToBytes(data));
+    }
 
-            cipher.init(Cipher.ENCRYPT_MODE, keySpec, parameterSpec);
-            byte[] encryptedData = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    /**
+     * Mesmo formato de {@link #encrypt(String)} sem o Base64, para a coluna {@code VARBINARY}.
+     */
+    public byte[] encryptToBytes(String data) {
+        CipherContext context = borrowCipher();
+        try {
+            int version = currentKeyVersion;
+            // Formato versionado: [versão][IV][ciphertext + tag]; sem chaves versionadas mantém o formato legado
+            int header = version == LEGACY_KEY_VERSION ? 0 : 1;
+            byte[] plainText = data.getBytes(StandardCharsets.UTF_8);
+            byte[] combined = new byte[header + GCM_IV_LENGTH + plainText.length + GCM_TAG_BYTES];
+            if (header > 0) {
+                combined[0] = (byte) version;
+            }
+            ivGenerator.nextIv(combined, header);
 
-            byte[] combined = new byte[iv.length + encryptedData.length];
-            System.arraycopy(iv, 0, combined, 0, iv.length);
-            System.arraycopy(encryptedData, 0, combined, iv.length, encryptedData.length);
+            context.cipher.init(Cipher.ENCRYPT_MODE, keyRing[version],
+                    new GCMParameterSpec(GCM_TAG_LENGTH, combined, header, GCM_IV_LENGTH));
+            context.cipher.doFinal(plainText, 0, plainText.length, combined, header + GCM_IV_LENGTH);
 
-            return Base64.getEncoder().encodeToString(combined);
+            return combined;
         } catch (Exception e) {
             log.error("Erro ao criptografar dados: {}", e.getMessage());
             throw new RuntimeException("Erro ao criptografar dados", e);
+        } finally {
+            cipherPool.offer(context);
         }
     }
 
     public String decrypt(String encryptedData) {
+        CipherContext context = borrowCipher();
         try {
             byte[] combined = Base64.getDecoder().decode(encryptedData);
+            int length = open(context, combined, combined.length);
+            return new String(context.output, 0, length, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            log.error("Erro ao descriptografar dados: {}", e.getMessage());
+            throw new RuntimeException("Erro ao descriptografar dados", e);
+        } finally {
+            cipherPool.offer(context);
+        }
+    }
 
-            byte[] iv = Arrays.copyOfRange(combined, 0, GCM_IV_LENGTH);
-            byte[] cipherText = Arrays.copyOfRange(combined, GCM_IV_LENGTH, combined.length);
+    /**
+     * Variante para processamento em lote: decodifica o Base64 no buffer do chamador em vez de
+     * alocar um array por chamada. Buffers pequenos demais caem no {@link #decrypt(String)}.
+     */
+    public String decrypt(String encryptedData, byte[] decodeBuffer) {
+        if (decodeBuffer.length < encryptedData.length() / 4 * 3) {
+            return decrypt(encryptedData);
+        }
+        CipherContext context = borrowCipher();
+        try {
+            int combinedLength = decodeBase64(encryptedData, decodeBuffer);
+            int length = open(context, decodeBuffer, combinedLength);
+            return new String(context.output, 0, length, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            log.error("Erro ao descriptografar dados: {}", e.getMessage());
+            throw new RuntimeException("Erro ao descriptografar dados", e);
+        } finally {
+            cipherPool.offer(context);
+        }
+    }
 
-            Cipher cipher = Cipher.getInstance(ALGORITHM);
-            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_TAG_LENGTH, iv);
-            cipher.init(Cipher.DECRYPT_MODE, keySpec, parameterSpec);
+    /**
+     * Recifra o dado com a chave atual. Devolve a própria instância recebida quando ele já está
+     * na chave atual, o que permite ao job de rotação pular a escrita.
+     */
+    public String reencrypt(String encryptedData) {
+        CipherContext context = borrowCipher();
+        String plainText;
+        try {
+            byte[] combined = Base64.getDecoder().decode(encryptedData);
+            int length = open(context, combined, combined.length);
+            if (context.openedVersion == currentKeyVersion) {
+                return encryptedData;
+            }
+            plainText = new String(context.output, 0, length, StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            log.error("Erro ao descriptografar dados: {}", e.getMessage());
+            throw new RuntimeException("Erro ao descriptografar dados", e);
+        } finally {
+            cipherPool.offer(context);
+        }
+        return encrypt(plainText);
+    }
 
-            byte[] decryptedData = cipher.doFinal(cipherText);
-            return new String(decryptedData, StandardCharsets.UTF_8);
+    /**
+     * Variante de {@link #reencrypt(String)} para a coluna {@code VARBINARY}; também devolve a
+     * própria instância quando o dado já está na chave atual.
+     */
+    public byte[] reencrypt(byte[] combined) {
+        CipherContext context = borrowCipher();
+        String plainText;
+        try {
+            int length = open(context, combined, combined.length);
+            if (context.openedVersion == currentKeyVersion) {
+                return combined;
+            }
+            plainText = new String(context.output, 0, length, StandardCharsets.UTF_8);
         } catch (Exception e) {
             log.error("Erro ao descriptografar dados: {}", e.getMessage());
             throw new RuntimeException("Erro ao descriptografar dados", e);
+        } finally {
+            cipherPool.offer(context);
         }
+        return encryptToBytes(plainText);
     }
 
     public String hash(String data) {
+        HashContext context = borrowHash();
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(data.getBytes(StandardCharsets.UTF_8));
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
+            int length = context.encodeAscii(data);
+            if (length >= 0) {
+                context.digest.update(context.input, 0, length);
+            } else {
+                context.digest.update(data.getBytes(StandardCharsets.UTF_8));
             }
-            return hexString.toString();
+            context.digest.digest(context.output, 0, HASH_LENGTH);
+            return toHex(context.output);
         } catch (Exception e) {
             log.error("Erro ao gerar hash: {}", e.getMessage());
             throw new RuntimeException("Erro ao gerar hash", e);
+        } finally {
+            context.digest.reset();
+            hashPool.offer(context);
+        }
+    }
+
+    /**
+     * Mesmo SHA-256 de {@link #hash(String)} sem o hexadecimal, para a coluna {@code BINARY(32)}.
+     */
+    public byte[] hashBytes(String data) {
+        HashContext context = borrowHash();
+        try {
+            int length = context.encodeAscii(data);
+            if (length >= 0) {
+                context.digest.update(context.input, 0, length);
+            } else {
+                context.digest.update(data.getBytes(StandardCharsets.UTF_8));
+            }
+            return context.digest.digest();
+        } catch (Exception e) {
+            log.error("Erro ao gerar hash: {}", e.getMessage());
+            throw new RuntimeException("Erro ao gerar hash", e);
+        } finally {
+            context.digest.reset();
+            hashPool.offer(context);
+        }
+    }
+
+    /**
+     * HMAC-SHA-256 do dado sob a chave do blind index: os 8 primeiros bytes viram o prefixo
+     * {@code BIGINT} indexado e o digest completo confirma o candidato encontrado pelo prefixo.
+     */
+    public BlindIndex blindIndex(String data) {
+        Mac mac = borrowMac();
+        try {
+            byte[] digest = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+            return new BlindIndex(ByteBuffer.wrap(digest).getLong(), toHex(digest));
+        } catch (Exception e) {
+            log.error("Erro ao gerar blind index: {}", e.getMessage());
+            throw new RuntimeException("Erro ao gerar blind index", e);
+        } finally {
+            blindIndexPool.offer(mac);
         }
     }
 
@@ -103,4 +317,204 @@ public class EncryptionService {
         int length = cardNumber.length();
         return cardNumber.substring(0, 4) + "****" + cardNumber.substring(length - 4);
     }
+
+    // Tenta a chave indicada pelo primeiro byte; se a tag não confere, o dado é do formato legado
+    // cujo IV por acaso começa com um byte de versão conhecido
+    private int open(CipherContext context, byte[] combined, int combinedLength) throws GeneralSecurityException {
+        int version = combined[0] & 0xff;
+        if (version != LEGACY_KEY_VERSION && keyRing[version] != null
+                && combinedLength >= 1 + GCM_IV_LENGTH + GCM_TAG_BYTES) {
+            try {
+                int length = open(context, keyRing[version], combined, 1, combinedLength);
+                context.openedVersion = version;
+                return length;
+            } catch (AEADBadTagException e) {
+                log.trace("Tag inválida para a chave versão {}, tentando formato legado", version);
+            }
+        }
+        int length = open(context, keyRing[LEGACY_KEY_VERSION], combined, 0, combinedLength);
+        context.openedVersion = LEGACY_KEY_VERSION;
+        return length;
+    }
+
+    private int open(CipherContext context, SecretKeySpec key, byte[] combined, int offset, int combinedLength)
+            throws GeneralSecurityException {
+        int cipherTextLength = combinedLength - offset - GCM_IV_LENGTH;
+        context.cipher.init(Cipher.DECRYPT_MODE, key,
+                new GCMParameterSpec(GCM_TAG_LENGTH, combined, offset, GCM_IV_LENGTH));
+        return context.cipher.doFinal(combined, offset + GCM_IV_LENGTH, cipherTextLength,
+                context.output(cipherTextLength), 0);
+    }
+
+    private static int decodeBase64(String source, byte[] destination) {
+        int length = source.length();
+        while (length > 0 && source.charAt(length - 1) == '=') {
+            length--;
+        }
+        int written = 0;
+        int accumulator = 0;
+        int bits = 0;
+        for (int i = 0; i < length; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64_VALUES[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Caractere Base64 inválido na posição " + i);
+            }
+            accumulator = ((accumulator << 6) | value) & 0xffff;
+            bits += 6;
+            if (bits >= 8) {
+                bits -= 8;
+                destination[written++] = (byte) (accumulator >>> bits);
+            }
+        }
+        return written;
+    }
+
+    private static int[] base64Values() {
+        int[] values = new int[128];
+        Arrays.fill(values, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            values[alphabet.charAt(i)] = i;
+        }
+        return values;
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] hex = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int b = bytes[i] & 0xff;
+            hex[i * 2] = HEX_DIGITS[b >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[b & 0x0f];
+        }
+        return new String(hex);
+    }
+
+    private static SecretKeySpec deriveKey(String secret) throws GeneralSecurityException {
+        MessageDigest sha = MessageDigest.getInstance(HASH_ALGORITHM);
+        byte[] key = sha.digest(secret.getBytes(StandardCharsets.UTF_8));
+        return new SecretKeySpec(Arrays.copyOf(key, 32), "AES");
+    }
+
+    private void selectProviders() {
+        List<String> names = providerNames == null || providerNames.isBlank()
+                ? List.of()
+                : Arrays.stream(providerNames.split(",")).map(String::trim).filter(n -> !n.isEmpty()).toList();
+        cipherPool.clear();
+        hashPool.clear();
+        if (names.isEmpty() && providerBenchmarkMillis <= 0) {
+            cipherProvider = null;
+            digestProvider = null;
+            return;
+        }
+        CryptoProviderSelector.Measurement cipher =
+                CryptoProviderSelector.selectCipher(names, autoSelectProvider, providerBenchmarkMillis);
+        CryptoProviderSelector.Measurement digest =
+                CryptoProviderSelector.selectDigest(names, autoSelectProvider, providerBenchmarkMillis);
+        cipherProvider = cipher.provider();
+        cipherThroughput = cipher.megabytesPerSecond();
+        digestProvider = digest.provider();
+        digestThroughput = digest.megabytesPerSecond();
+    }
+
+    private IvGenerator createIvGenerator() {
+        if ("counter".equalsIgnoreCase(ivStrategy)) {
+            // Dois nós com o mesmo identificador repetiriam IVs sob a mesma chave: não há valor padrão
+            if (ivNodeId == null || ivNodeId.isBlank()) {
+                throw new IllegalStateException(
+                        "encryption.iv.counter.node-id é obrigatório com encryption.iv.strategy=counter");
+            }
+            if (ivStatePath == null || ivStatePath.isBlank()) {
+                throw new IllegalStateException(
+                        "encryption.iv.counter.state-path é obrigatório com encryption.iv.strategy=counter");
+            }
+            return new CounterIvGenerator(Integer.parseUnsignedInt(ivNodeId.trim()), Path.of(ivStatePath));
+        }
+        return new RandomIvGenerator();
+    }
+
+    private CipherContext borrowCipher() {
+        CipherContext context = cipherPool.poll();
+        if (context != null) {
+            return context;
+        }
+        try {
+            return new CipherContext(cipherProvider == null
+                    ? Cipher.getInstance(ALGORITHM)
+                    : Cipher.getInstance(ALGORITHM, cipherProvider));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Erro ao inicializar serviço de criptografia", e);
+        }
+    }
+
+    private HashContext borrowHash() {
+        HashContext context = hashPool.poll();
+        if (context != null) {
+            return context;
+        }
+        try {
+            return new HashContext(digestProvider == null
+                    ? MessageDigest.getInstance(HASH_ALGORITHM)
+                    : MessageDigest.getInstance(HASH_ALGORITHM, digestProvider));
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Erro ao gerar hash", e);
+        }
+    }
+
+    private Mac borrowMac() {
+        Mac mac = blindIndexPool.poll();
+        if (mac != null) {
+            return mac;
+        }
+        try {
+            mac = Mac.getInstance(BLIND_INDEX_ALGORITHM);
+            mac.init(blindIndexKey);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Erro ao gerar blind index", e);
+        }
+    }
+
+    private static final class CipherContext {
+        private final Cipher cipher;
+        private byte[] output = new byte[64];
+        private int openedVersion;
+
+        private CipherContext(Cipher cipher) {
+            this.cipher = cipher;
+        }
+
+        private byte[] output(int minLength) {
+            if (output.length < minLength) {
+                output = new byte[minLength];
+            }
+            return output;
+        }
+    }
+
+    private static final class HashContext {
+        private final MessageDigest digest;
+        private final byte[] output = new byte[HASH_LENGTH];
+        private byte[] input = new byte[32];
+
+        private HashContext(MessageDigest digest) {
+            this.digest = digest;
+        }
+
+        // Números de cartão são ASCII: copia direto para o buffer reaproveitado, sem getBytes
+        private int encodeAscii(String data) {
+            int length = data.length();
+            if (input.length < length) {
+                input = new byte[length];
+            }
+            for (int i = 0; i < length; i++) {
+                char c = data.charAt(i);
+                if (c >= 0x80) {
+                    return -1;
+                }
+                input[i] = (byte) c;
+            }
+            return length;
+        }
+    }
 }
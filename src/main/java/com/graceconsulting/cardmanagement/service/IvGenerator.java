@@ -0,0 +1,15 @@
+package com.graceconsulting.cardmanagement.service;
+
+/**
+ * Estratégia de geração do IV (nonce) de 12 bytes do AES-GCM usado pelo {@link EncryptionService}.
+ * Implementações precisam garantir que um mesmo IV nunca se repita para a mesma chave.
+ */
+public interface IvGenerator {
+
+    int IV_LENGTH = 12;
+
+    /**
+     * Escreve um IV novo em {@code destination[offset, offset + IV_LENGTH)}.
+     */
+    void nextIv(byte[] destination, int offset);
+}
@@ -0,0 +1,18 @@
+package com.graceconsulting.cardmanagement.service;
+
+import java.security.SecureRandom;
+
+/**
+ * IV totalmente aleatório a partir de um único {@link SecureRandom} compartilhado.
+ */
+public class RandomIvGenerator implements IvGenerator {
+
+    private final SecureRandom random = new SecureRandom();
+
+    @Override
+    public void nextIv(byte[] destination, int offset) {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        System.arraycopy(iv, 0, destination, offset, IV_LENGTH);
+    }
+}
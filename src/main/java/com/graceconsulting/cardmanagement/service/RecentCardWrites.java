@@ -0,0 +1,68 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Hashes cadastrados por este nó nos últimos {@code read-your-writes-ms}. Com réplicas de leitura, a
+ * busca por um desses hashes vai ao primário: a réplica pode ainda não ter recebido a linha, e quem
+ * acabou de cadastrar o cartão não pode receber "não encontrado". Passada a janela, o atraso de
+ * replicação é considerado absorvido e a busca volta às réplicas.
+ */
+@Slf4j
+@Component
+public class RecentCardWrites {
+
+    private final Counter primaryReads;
+
+    @Value("${datasource.routing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${datasource.routing.read-your-writes-ms:5000}")
+    private long readYourWritesMs;
+
+    @Value("${datasource.routing.read-your-writes-max-size:100000}")
+    private long maxSize;
+
+    private Cache<String, Boolean> recentHashes;
+
+    public RecentCardWrites(MeterRegistry meterRegistry) {
+        this.primaryReads = Counter.builder("datasource.routing.read-your-writes")
+                .description("Buscas enviadas ao primário por cadastro recente do mesmo cartão")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        recentHashes = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(readYourWritesMs))
+                .build();
+        log.info("Leitura do primário por {} ms após cada cadastro", readYourWritesMs);
+    }
+
+    public void record(String cardNumberHash) {
+        if (recentHashes != null && cardNumberHash != null) {
+            recentHashes.put(cardNumberHash, Boolean.TRUE);
+        }
+    }
+
+    public boolean requiresPrimary(String cardNumberHash) {
+        if (recentHashes == null || cardNumberHash == null || recentHashes.getIfPresent(cardNumberHash) == null) {
+            return false;
+        }
+        primaryReads.increment();
+        return true;
+    }
+}
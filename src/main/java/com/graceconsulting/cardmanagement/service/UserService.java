@@ -1,25 +1,38 @@
 package com.graceconsulting.cardmanagement.service;
 
 import com.graceconsulting.cardmanagement.dto.UserRegisterRequest;
+import com.graceconsulting.cardmanagement.dto.UserTokenState;
 import com.graceconsulting.cardmanagement.entity.User;
+import com.graceconsulting.cardmanagement.exception.BusinessException;
 import com.graceconsulting.cardmanagement.exception.ResourceConflictException;
 import com.graceconsulting.cardmanagement.mapper.UserMapper;
 import com.graceconsulting.cardmanagement.repository.UserRepository;
+import com.graceconsulting.cardmanagement.security.TokenRevocationService;
+import com.graceconsulting.cardmanagement.security.UserDetailsCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -37,8 +50,73 @@ public class UserService implements UserDetailsService {
 
         User user = userMapper.toEntity(request);
         User savedUser = userRepository.save(user);
+        afterCommit(() -> userDetailsCache.invalidate(savedUser.getUsername()));
 
         log.info("Usuário registrado com sucesso: {}", savedUser.getUsername());
         return savedUser;
     }
+
+    /**
+     * Grava o novo hash da mesma senha (work factor atualizado após o login). Não revoga tokens.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = findUser(userDetails.getUsername());
+        user.setPassword(newPassword);
+        return userRepository.save(user);
+    }
+
+    @Transactional
+    public void deactivate(String username) {
+        User user = findUser(username);
+        user.setActive(false);
+        revokeTokens(user);
+        log.info("Usuário desativado: {}", username);
+    }
+
+    @Transactional
+    public void changePassword(String username, String currentPassword, String newPassword) {
+        User user = findUser(username);
+        // Um token roubado não basta para trocar a senha e tomar a conta
+        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+            throw new BusinessException("Senha atual incorreta");
+        }
+        user.setPassword(passwordEncoder.encode(newPassword));
+        revokeTokens(user);
+        log.info("Senha alterada para o usuário: {}", username);
+    }
+
+    private User findUser(String username) {
+        return userRepository.findByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + username));
+    }
+
+    // A nova versão invalida os tokens já emitidos; updatedAt leva a alteração aos caches dos outros nós
+    private void revokeTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        user.setUpdatedAt(LocalDateTime.now());
+        userRepository.save(user);
+        UserTokenState state = new UserTokenState(
+                user.getUsername(), user.getTokenVersion(), user.isActive(), user.getUpdatedAt());
+        afterCommit(() -> {
+            userDetailsCache.invalidate(state.username());
+            tokenRevocationService.record(state);
+        });
+    }
+
+    // Antes do commit, outra requisição recarregaria a linha antiga no cache, e um rollback deixaria
+    // revogada uma versão que nunca chegou ao banco
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
@@ -0,0 +1,72 @@
+package com.graceconsulting.cardmanagement.benchmark;
+
+import com.graceconsulting.cardmanagement.service.BulkDecryptionService;
+import com.graceconsulting.cardmanagement.service.EncryptionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Descriptografia de 100 mil cartões: laço sequencial com {@link EncryptionService#decrypt(String)}
+ * contra o {@link BulkDecryptionService} usando todos os núcleos.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BulkDecryptionBenchmark {
+
+    private static final int ROWS = 100_000;
+
+    private EncryptionService encryptionService;
+    private BulkDecryptionService bulkDecryptionService;
+    private List<String> ciphertexts;
+
+    @Setup
+    public void setUp() {
+        encryptionService = new EncryptionService();
+        ReflectionTestUtils.setField(encryptionService, "secretKey", "benchmark-secret-key-for-jwt-minimum-256-bits-required");
+        encryptionService.init();
+        bulkDecryptionService = new BulkDecryptionService(encryptionService);
+        ReflectionTestUtils.setField(bulkDecryptionService, "chunkSize", 8192);
+        bulkDecryptionService.start();
+
+        ciphertexts = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            ciphertexts.add(encryptionService.encrypt("4111" + String.format("%012d", i)));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        bulkDecryptionService.stop();
+    }
+
+    @Benchmark
+    public void sequential(Blackhole blackhole) {
+        for (String ciphertext : ciphertexts) {
+            blackhole.consume(encryptionService.decrypt(ciphertext));
+        }
+    }
+
+    @Benchmark
+    public long bulk(Blackhole blackhole) {
+        return bulkDecryptionService.decryptAll(ciphertexts.stream(), blackhole::consume);
+    }
+}
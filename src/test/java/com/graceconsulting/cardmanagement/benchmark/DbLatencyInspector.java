@@ -0,0 +1,27 @@
+package com.graceconsulting.cardmanagement.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Simula a latência de rede do banco de produção sobre o H2 em memória: cada comando gerado pelo
+ * Hibernate espera {@code benchmark.db-latency-ms} antes de executar, com a conexão já retirada do
+ * pool — exatamente o intervalo em que ela fica indisponível para as outras requisições.
+ */
+public class DbLatencyInspector implements StatementInspector {
+
+    static final String LATENCY_PROPERTY = "benchmark.db-latency-ms";
+
+    private final long latencyMs = Long.getLong(LATENCY_PROPERTY, 0L);
+
+    @Override
+    public String inspect(String sql) {
+        if (latencyMs > 0) {
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return sql;
+    }
+}
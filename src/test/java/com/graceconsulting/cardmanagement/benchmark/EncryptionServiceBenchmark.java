@@ -0,0 +1,143 @@
+package com.graceconsulting.cardmanagement.benchmark;
+
+import com.graceconsulting.cardmanagement.service.EncryptionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o caminho criptográfico atual do {@link EncryptionService} com a implementação
+ * anterior (instâncias novas de Cipher, MessageDigest e SecureRandom a cada chamada).
+ * Com {@code -prof gc}, a coluna {@code gc.alloc.rate.norm} mostra os bytes alocados por operação.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class EncryptionServiceBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-for-jwt-minimum-256-bits-required";
+    private static final String CARD_NUMBER = "4111111111111111";
+
+    private EncryptionService encryptionService;
+    private EncryptionService counterIvService;
+    private LegacyEncryption legacy;
+    private String encrypted;
+
+    @Setup
+    public void setUp() throws Exception {
+        encryptionService = new EncryptionService();
+        ReflectionTestUtils.setField(encryptionService, "secretKey", SECRET);
+        encryptionService.init();
+        counterIvService = new EncryptionService();
+        ReflectionTestUtils.setField(counterIvService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(counterIvService, "ivStrategy", "counter");
+        ReflectionTestUtils.setField(counterIvService, "ivNodeId", "1");
+        ReflectionTestUtils.setField(counterIvService, "ivStatePath",
+                Files.createTempDirectory("iv-counter").resolve("state").toString());
+        counterIvService.init();
+        legacy = new LegacyEncryption(SECRET);
+        encrypted = encryptionService.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return encryptionService.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String encryptCounterIv() {
+        return counterIvService.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String encryptLegacy() throws Exception {
+        return legacy.encrypt(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return encryptionService.decrypt(encrypted);
+    }
+
+    @Benchmark
+    public String decryptLegacy() throws Exception {
+        return legacy.decrypt(encrypted);
+    }
+
+    @Benchmark
+    public String hash() {
+        return encryptionService.hash(CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String hashLegacy() throws Exception {
+        return legacy.hash(CARD_NUMBER);
+    }
+
+    // Cópia fiel da implementação anterior, mantida apenas como linha de base
+    static final class LegacyEncryption {
+
+        private final SecretKeySpec keySpec;
+
+        LegacyEncryption(String secret) throws Exception {
+            byte[] key = MessageDigest.getInstance("SHA-256").digest(secret.getBytes(StandardCharsets.UTF_8));
+            keySpec = new SecretKeySpec(Arrays.copyOf(key, 32), "AES");
+        }
+
+        String encrypt(String data) throws Exception {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            byte[] iv = new byte[12];
+            new SecureRandom().nextBytes(iv);
+            cipher.init(Cipher.ENCRYPT_MODE, keySpec, new GCMParameterSpec(128, iv));
+            byte[] encryptedData = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
+            byte[] combined = new byte[iv.length + encryptedData.length];
+            System.arraycopy(iv, 0, combined, 0, iv.length);
+            System.arraycopy(encryptedData, 0, combined, iv.length, encryptedData.length);
+            return Base64.getEncoder().encodeToString(combined);
+        }
+
+        String decrypt(String encryptedData) throws Exception {
+            byte[] combined = Base64.getDecoder().decode(encryptedData);
+            byte[] iv = Arrays.copyOfRange(combined, 0, 12);
+            byte[] cipherText = Arrays.copyOfRange(combined, 12, combined.length);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, keySpec, new GCMParameterSpec(128, iv));
+            return new String(cipher.doFinal(cipherText), StandardCharsets.UTF_8);
+        }
+
+        String hash(String data) throws Exception {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(data.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder();
+            for (byte b : hash) {
+                String hex = Integer.toHexString(0xff & b);
+                if (hex.length() == 1) hexString.append('0');
+                hexString.append(hex);
+            }
+            return hexString.toString();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.graceconsulting.cardmanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graceconsulting.cardmanagement.CardManagementApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sobe a aplicação inteira numa porta livre e dispara requisições HTTP reais contra ela: filtro JWT,
+ * validação, serviço, pool de conexões e banco embarcado entram na medida. O cliente usa uma virtual
+ * thread por requisição para que o gargalo medido seja o servidor, não o gerador de carga.
+ */
+final class HttpLoad implements AutoCloseable {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final ConfigurableApplicationContext context;
+    private final ExecutorService callers = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+    private final URI baseUri;
+    private String token;
+
+    private HttpLoad(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(callers)
+                .build();
+        this.baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+    }
+
+    /**
+     * Argumentos de linha de comando têm precedência sobre os arquivos de propriedades dos profiles.
+     */
+    static HttpLoad start(String... args) {
+        List<String> all = new ArrayList<>(List.of(args));
+        all.add("--server.port=0");
+        all.add("--logging.level.com.graceconsulting=WARN");
+        return new HttpLoad(new SpringApplicationBuilder(CardManagementApplication.class).run(all.toArray(String[]::new)));
+    }
+
+    void login(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request("/api/auth/login",
+                JSON.writeValueAsString(new Credentials(username, password))), HttpResponse.BodyHandlers.ofString());
+        expect(200, response.statusCode(), "/api/auth/login");
+        token = JSON.readTree(response.body()).get("token").asText();
+    }
+
+    void post(String path, String body, int expectedStatus) throws IOException, InterruptedException {
+        expect(expectedStatus, client.send(request(path, body), HttpResponse.BodyHandlers.discarding()).statusCode(), path);
+    }
+
+    /**
+     * Dispara {@code count} requisições de uma vez e espera todas responderem.
+     */
+    void burst(String path, String body, int count) {
+        HttpRequest request = request(path, body);
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding()));
+        }
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            expect(200, response.join().statusCode(), path);
+        }
+    }
+
+    /**
+     * Tempo total de espera por uma conexão do Hikari desde o boot: quando passa da latência do banco,
+     * é o pool — e não o modelo de threads — que limita a vazão.
+     */
+    double connectionWaitMillis() {
+        Timer acquire = acquireTimer();
+        return acquire == null ? 0 : acquire.totalTime(TimeUnit.MILLISECONDS);
+    }
+
+    long connectionAcquisitions() {
+        Timer acquire = acquireTimer();
+        return acquire == null ? 0 : acquire.count();
+    }
+
+    private Timer acquireTimer() {
+        return context.getBean(MeterRegistry.class).find("hikaricp.connections.acquire").timer();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        callers.shutdownNow();
+    }
+
+    private HttpRequest request(String path, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private static void expect(int expected, int actual, String path) {
+        if (actual != expected) {
+            throw new IllegalStateException("POST " + path + " respondeu " + actual + ", esperado " + expected);
+        }
+    }
+
+    private record Credentials(String username, String password) {
+    }
+}
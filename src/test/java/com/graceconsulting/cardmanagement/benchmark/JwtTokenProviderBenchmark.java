@@ -0,0 +1,58 @@
+package com.graceconsulting.cardmanagement.benchmark;
+
+import com.graceconsulting.cardmanagement.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de autenticar uma requisição com o mesmo token: verificação completa da assinatura a cada
+ * chamada contra o cache de tokens verificados.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    @Param({"false", "true"})
+    private boolean verifiedCache;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", "benchmark-secret-key-for-jwt-minimum-256-bits-required");
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "verifiedCacheEnabled", verifiedCache);
+        ReflectionTestUtils.setField(jwtTokenProvider, "verifiedCacheMaxSize", 10000L);
+        ReflectionTestUtils.setField(jwtTokenProvider, "verifiedCacheMaxTtlMs", 300000L);
+        jwtTokenProvider.init();
+
+        UserDetails user = User.withUsername("user").password("").authorities("ROLE_USER").build();
+        token = jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @Benchmark
+    public Object parseClaims() {
+        return jwtTokenProvider.parseClaims(token);
+    }
+}
@@ -0,0 +1,73 @@
+package com.graceconsulting.cardmanagement.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rajada de {@code concurrency} buscas simultâneas em {@code POST /api/cards/search} contra a
+ * aplicação completa sobre o mesmo H2 embarcado: stack servlet (Tomcat, JPA e Hikari) ou reativa
+ * (Netty, WebFlux e R2DBC com {@code r2dbc-h2}). Os dois pools de conexão têm o mesmo tamanho. O tempo
+ * por operação é o tempo para drenar a rajada.
+ *
+ * <p>O H2 em memória responde em microssegundos, então a medida compara o custo de cada stack por
+ * requisição, não a espera pelo banco: o ganho do event loop com bancos remotos lentos não aparece aqui.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReactiveStackLoadBenchmark {
+
+    private static final String CARD = "{\"cardNumber\":\"4456897999999999\"}";
+
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    @Param({"200", "1000"})
+    private int concurrency;
+
+    @Param({"10"})
+    private int poolSize;
+
+    private HttpLoad load;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        load = HttpLoad.start(
+                "--spring.profiles.active=" + ("reactive".equals(stack) ? "test,reactive" : "test"),
+                "--spring.datasource.url=jdbc:h2:mem:stack-bench;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--spring.r2dbc.url=r2dbc:h2:mem:///stack-bench;DB_CLOSE_DELAY=-1",
+                "--spring.r2dbc.username=sa",
+                "--spring.r2dbc.password=",
+                "--spring.r2dbc.pool.initial-size=" + poolSize,
+                "--spring.r2dbc.pool.max-size=" + poolSize);
+        load.login("user", "user");
+        load.post("/api/cards", CARD, 201);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        load.close();
+    }
+
+    @Benchmark
+    public void burst() {
+        load.burst("/api/cards/search", CARD, concurrency);
+    }
+}
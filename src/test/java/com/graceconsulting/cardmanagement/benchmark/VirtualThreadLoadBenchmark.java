@@ -0,0 +1,99 @@
+package com.graceconsulting.cardmanagement.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rajada de {@code concurrency} buscas simultâneas em {@code POST /api/cards/search} contra a
+ * aplicação completa (Tomcat, filtro JWT, JPA, Hikari, H2), com o Tomcat em threads de plataforma
+ * (200, o padrão) ou em virtual threads. Cada comando SQL custa {@code dbLatencyMs} com a conexão
+ * retirada do pool, como num banco remoto. O tempo por operação é o tempo para drenar a rajada.
+ *
+ * <p>Com o pool padrão de 10 conexões as duas variantes empatam: a vazão fica presa em
+ * {@code poolSize / dbLatencyMs} e as virtual threads só trocam fila no Tomcat por fila no Hikari.
+ * A diferença aparece quando o pool acompanha a concorrência — ver a espera por conexão, reportada
+ * como resultado secundário ({@code burst:connectionWaitMs} e {@code burst:connectionAcquisitions}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class VirtualThreadLoadBenchmark {
+
+    private static final String CARD = "{\"cardNumber\":\"4456897999999999\"}";
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param({"200", "500"})
+    private int concurrency;
+
+    @Param({"10", "200"})
+    private int poolSize;
+
+    @Param({"10"})
+    private long dbLatencyMs;
+
+    private HttpLoad load;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        System.setProperty(DbLatencyInspector.LATENCY_PROPERTY, String.valueOf(dbLatencyMs));
+        load = HttpLoad.start(
+                "--spring.profiles.active=test",
+                "--spring.datasource.url=jdbc:h2:mem:vt-bench;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--spring.threads.virtual.enabled=" + "virtual".equals(threads),
+                "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                        + DbLatencyInspector.class.getName());
+        load.login("user", "user");
+        load.post("/api/cards", CARD, 201);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        load.close();
+    }
+
+    @Benchmark
+    public void burst(ConnectionWait wait) {
+        double waitedBefore = load.connectionWaitMillis();
+        long acquisitionsBefore = load.connectionAcquisitions();
+        load.burst("/api/cards/search", CARD, concurrency);
+        wait.connectionWaitMs += load.connectionWaitMillis() - waitedBefore;
+        wait.connectionAcquisitions += load.connectionAcquisitions() - acquisitionsBefore;
+    }
+
+    /**
+     * Espera por conexão do Hikari acumulada na iteração; a média por aquisição é a razão entre os dois.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ConnectionWait {
+
+        public double connectionWaitMs;
+        public long connectionAcquisitions;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            connectionWaitMs = 0;
+            connectionAcquisitions = 0;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.graceconsulting.cardmanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ReplicaRoutingDataSource Tests")
+class ReplicaRoutingDataSourceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DataSource primary;
+    private DataSource replica0;
+    private FlakyDataSource replica1;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        primary = node("primary");
+        replica0 = node("replica-0");
+        replica1 = new FlakyDataSource(node("replica-1"));
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica0, replica1), meterRegistry);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    @DisplayName("Deve enviar transações de escrita ao primário")
+    void shouldRouteReadWriteTransactionsToPrimary() {
+        assertEquals("primary", readWrite.execute(status -> nodeName()));
+        assertEquals("primary", nodeName());
+    }
+
+    @Test
+    @DisplayName("Deve alternar as transações read-only entre as réplicas")
+    void shouldBalanceReadOnlyTransactionsAcrossReplicas() {
+        List<String> nodes = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(readOnly.execute(status -> nodeName()));
+        }
+
+        assertEquals(Set.of("replica-0", "replica-1"), new HashSet<>(nodes));
+        assertNotEquals(nodes.get(0), nodes.get(1));
+        assertEquals(4, reads("replica"));
+    }
+
+    @Test
+    @DisplayName("Deve ler do primário quando forçado, mesmo em transação read-only")
+    void shouldReadFromPrimaryWhenForced() {
+        String node = ReplicaRoutingDataSource.onPrimary(() -> readOnly.execute(status -> nodeName()));
+
+        assertEquals("primary", node);
+        assertEquals(1, reads("primary"));
+    }
+
+    @Test
+    @DisplayName("Deve tirar do rodízio a réplica que falha e devolvê-la após a verificação")
+    void shouldSkipFailingReplicaUntilHealthCheckPasses() {
+        replica1.down = true;
+
+        Set<String> nodes = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(readOnly.execute(status -> nodeName()));
+        }
+        assertFalse(nodes.contains("replica-1"));
+        assertEquals(1, routing.getHealthyReplicaCount());
+
+        replica1.down = false;
+        routing.checkReplicas();
+
+        assertEquals(2, routing.getHealthyReplicaCount());
+        assertEquals(2, meterRegistry.get("datasource.replicas.healthy").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Deve ler do primário quando nenhuma réplica está saudável")
+    void shouldFallBackToPrimaryWithoutHealthyReplicas() {
+        replica1.down = true;
+        DataSource downReplica = new FlakyDataSource(node("replica-0"));
+        ((FlakyDataSource) downReplica).down = true;
+        routing = new ReplicaRoutingDataSource(node("primary"), List.of(downReplica, replica1), new SimpleMeterRegistry());
+        routing.checkReplicas();
+        JdbcTemplate jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        transaction.setReadOnly(true);
+
+        assertEquals(0, routing.getHealthyReplicaCount());
+        assertEquals("primary", transaction.execute(status -> jdbc.queryForObject("select name from node", String.class)));
+    }
+
+    @Test
+    @DisplayName("Deve tirar do rodízio a réplica atrasada e devolvê-la quando alcançar o primário")
+    void shouldSkipLaggingReplicaUntilItCatchesUp() {
+        JdbcTemplate replica0Jdbc = new JdbcTemplate(replica0);
+        JdbcTemplate replica1Jdbc = new JdbcTemplate(replica1);
+        replica0Jdbc.execute("create table heartbeat (lag_ms bigint)");
+        replica0Jdbc.update("insert into heartbeat (lag_ms) values (8000)");
+        replica1Jdbc.execute("create table heartbeat (lag_ms bigint)");
+        replica1Jdbc.update("insert into heartbeat (lag_ms) values (200)");
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica0, replica1), registry,
+                5000, "select lag_ms from heartbeat");
+
+        routing.checkReplicas();
+
+        assertEquals(1, routing.getHealthyReplicaCount());
+        assertEquals(8000, registry.get("datasource.replicas.lag").tag("replica", "0").gauge().value());
+        assertEquals("replica-1", readOnlyOn(routing));
+
+        replica0Jdbc.update("update heartbeat set lag_ms = 100");
+        routing.checkReplicas();
+
+        assertEquals(2, routing.getHealthyReplicaCount());
+    }
+
+    @Test
+    @DisplayName("Deve ler Seconds_Behind_Source e tirar do rodízio a réplica com replicação parada")
+    void shouldReadSecondsBehindSourceAndSkipStoppedReplication() {
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica0), new SimpleMeterRegistry(),
+                5000, "select cast(null as bigint) as Seconds_Behind_Source, 'Yes' as Replica_IO_Running");
+        routing.checkReplicas();
+        assertEquals(0, routing.getHealthyReplicaCount());
+
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica0), new SimpleMeterRegistry(),
+                5000, "select 'Yes' as Replica_IO_Running, 3 as Seconds_Behind_Source");
+        routing.checkReplicas();
+        assertEquals(1, routing.getHealthyReplicaCount());
+    }
+
+    @Test
+    @DisplayName("Deve desviar ao primário sem tirar do rodízio a réplica com o pool esgotado")
+    void shouldKeepSaturatedReplicaInRotation() {
+        replica1.saturated = true;
+
+        Set<String> nodes = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            nodes.add(readOnly.execute(status -> nodeName()));
+        }
+
+        assertEquals(Set.of("replica-0", "primary"), nodes);
+        assertEquals(2, routing.getHealthyReplicaCount());
+    }
+
+    @Test
+    @DisplayName("Deve manter o estado da réplica quando a verificação encontra o pool esgotado")
+    void shouldKeepReplicaStateWhenHealthCheckFindsPoolSaturated() {
+        replica1.saturated = true;
+        routing.checkReplicas();
+        assertEquals(2, routing.getHealthyReplicaCount());
+
+        replica1.saturated = false;
+        replica1.down = true;
+        routing.checkReplicas();
+        assertEquals(1, routing.getHealthyReplicaCount());
+
+        replica1.down = false;
+        replica1.saturated = true;
+        routing.checkReplicas();
+        assertEquals(1, routing.getHealthyReplicaCount());
+    }
+
+    private String readOnlyOn(ReplicaRoutingDataSource target) {
+        JdbcTemplate jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(target));
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        transaction.setReadOnly(true);
+        return transaction.execute(status -> jdbc.queryForObject("select name from node", String.class));
+    }
+
+    private String nodeName() {
+        return jdbcTemplate.queryForObject("select name from node", String.class);
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("datasource.routing.reads").tag("target", target).counter().count();
+    }
+
+    // Banco H2 em memória próprio, identificado pela única linha da tabela node
+    private static DataSource node(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table node (name varchar(20))");
+        jdbc.update("insert into node (name) values (?)", name);
+        return dataSource;
+    }
+
+    private static final class FlakyDataSource extends DelegatingDataSource {
+
+        private volatile boolean down;
+        private volatile boolean saturated;
+
+        private FlakyDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            if (saturated) {
+                // Como o Hikari: tempo esgotado sem falha de conexão registrada não traz causa
+                throw new SQLTransientConnectionException("replica-1 - Connection is not available, request timed out after 250ms");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.graceconsulting.cardmanagement.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("VirtualThreadPinningMonitor Tests")
+class VirtualThreadPinningMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(meterRegistry);
+        ReflectionTestUtils.setField(monitor, "thresholdMs", 10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    @DisplayName("Deve contar virtual thread presa dentro de synchronized")
+    void shouldCountPinnedVirtualThread() throws Exception {
+        ReflectionTestUtils.setField(monitor, "enabled", true);
+        monitor.start();
+
+        Object lock = new Object();
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        // O RecordingStream entrega os eventos a cada flush do JFR, em torno de um segundo
+        long deadline = System.currentTimeMillis() + 10000;
+        while (counted() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+
+        assertTrue(counted() >= 1);
+        assertTrue(meterRegistry.get("jvm.threads.virtual.pinned.duration").timer().totalTime(TimeUnit.MILLISECONDS) >= 10);
+    }
+
+    @Test
+    @DisplayName("Não deve iniciar gravação JFR com virtual threads desabilitadas")
+    void shouldNotStartWhenDisabled() {
+        monitor.start();
+
+        assertNull(ReflectionTestUtils.getField(monitor, "stream"));
+    }
+
+    private double counted() {
+        return meterRegistry.get("jvm.threads.virtual.pinned").counter().count();
+    }
+}
@@ -3,9 +3,14 @@ package com.graceconsulting.cardmanagement.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.graceconsulting.cardmanagement.dto.AuthRequest;
 import com.graceconsulting.cardmanagement.dto.AuthResponse;
+import com.graceconsulting.cardmanagement.dto.RefreshTokenRequest;
 import com.graceconsulting.cardmanagement.dto.UserRegisterRequest;
 import com.graceconsulting.cardmanagement.entity.User;
 import com.graceconsulting.cardmanagement.exception.GlobalExceptionHandler;
+import com.graceconsulting.cardmanagement.exception.ServiceUnavailableException;
+import com.graceconsulting.cardmanagement.exception.TooManyRequestsException;
+import com.graceconsulting.cardmanagement.security.CardRateLimitFilter;
+import com.graceconsulting.cardmanagement.security.ConcurrencyLimitFilter;
 import com.graceconsulting.cardmanagement.security.JwtAuthenticationFilter;
 import com.graceconsulting.cardmanagement.security.JwtTokenProvider;
 import com.graceconsulting.cardmanagement.service.AuthService;
@@ -24,8 +29,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -53,13 +60,19 @@ class AuthControllerTest {
     @MockBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @MockBean
+    private CardRateLimitFilter cardRateLimitFilter;
+
+    @MockBean
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
     @Test
     @DisplayName("Deve fazer login com sucesso")
     void shouldLoginSuccessfully() throws Exception {
         AuthRequest request = new AuthRequest("testuser", "password123");
         AuthResponse response = new AuthResponse("jwt_token", 3600L);
 
-        when(authService.authenticate(any(AuthRequest.class))).thenReturn(response);
+        when(authService.authenticate(any(AuthRequest.class), any())).thenReturn(response);
 
         mockMvc.perform(post("/api/auth/login")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -75,7 +88,7 @@ class AuthControllerTest {
     void shouldReturn401ForInvalidCredentials() throws Exception {
         AuthRequest request = new AuthRequest("testuser", "wrongpassword");
 
-        when(authService.authenticate(any(AuthRequest.class)))
+        when(authService.authenticate(any(AuthRequest.class), any()))
                 .thenThrow(new BadCredentialsException("Invalid credentials"));
 
         mockMvc.perform(post("/api/auth/login")
@@ -84,6 +97,75 @@ class AuthControllerTest {
                 .andExpect(status().isUnauthorized());
     }
 
+    @Test
+    @DisplayName("Deve retornar 429 quando o limite de login estiver esgotado")
+    void shouldReturn429WhenLoginIsThrottled() throws Exception {
+        AuthRequest request = new AuthRequest("testuser", "password123");
+
+        when(authService.authenticate(any(AuthRequest.class), any()))
+                .thenThrow(new TooManyRequestsException("Muitas tentativas de login, tente novamente mais tarde", 12));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "12"))
+                .andExpect(jsonPath("$.status").value(429));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 503 quando o pool de senhas estiver saturado")
+    void shouldReturn503WhenPasswordPoolIsSaturated() throws Exception {
+        AuthRequest request = new AuthRequest("testuser", "password123");
+
+        when(authService.authenticate(any(AuthRequest.class), any()))
+                .thenThrow(new ServiceUnavailableException("Muitas autenticações simultâneas, tente novamente em instantes"));
+
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.status").value(503));
+    }
+
+    @Test
+    @DisplayName("Deve renovar os tokens com refresh token")
+    void shouldRefreshTokens() throws Exception {
+        when(authService.refresh("refresh_token"))
+                .thenReturn(new AuthResponse("new_token", 900L, "new_refresh_token"));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("refresh_token"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value("new_token"))
+                .andExpect(jsonPath("$.refreshToken").value("new_refresh_token"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 401 para refresh token inválido")
+    void shouldReturn401ForInvalidRefreshToken() throws Exception {
+        when(authService.refresh("invalid")).thenThrow(new BadCredentialsException("Refresh token inválido"));
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("invalid"))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @DisplayName("Deve fazer logout revogando os tokens informados")
+    void shouldLogout() throws Exception {
+        mockMvc.perform(post("/api/auth/logout")
+                        .header("Authorization", "Bearer access_token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new RefreshTokenRequest("refresh_token"))))
+                .andExpect(status().isNoContent());
+
+        verify(authService).logout("access_token", "refresh_token");
+    }
+
     @Test
     @DisplayName("Deve retornar 400 para request sem username")
     void shouldReturn400ForMissingUsername() throws Exception {
@@ -5,6 +5,8 @@ import com.graceconsulting.cardmanagement.dto.*;
 import com.graceconsulting.cardmanagement.exception.BusinessException;
 import com.graceconsulting.cardmanagement.exception.GlobalExceptionHandler;
 import com.graceconsulting.cardmanagement.exception.ResourceConflictException;
+import com.graceconsulting.cardmanagement.security.CardRateLimitFilter;
+import com.graceconsulting.cardmanagement.security.ConcurrencyLimitFilter;
 import com.graceconsulting.cardmanagement.security.JwtAuthenticationFilter;
 import com.graceconsulting.cardmanagement.security.JwtTokenProvider;
 import com.graceconsulting.cardmanagement.service.CardService;
@@ -52,6 +54,12 @@ class CardControllerTest {
     @MockBean
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @MockBean
+    private CardRateLimitFilter cardRateLimitFilter;
+
+    @MockBean
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
     @MockBean
     private UserService userService;
 
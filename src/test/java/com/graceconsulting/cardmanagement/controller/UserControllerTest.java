@@ -0,0 +1,115 @@
+package com.graceconsulting.cardmanagement.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.graceconsulting.cardmanagement.dto.ChangePasswordRequest;
+import com.graceconsulting.cardmanagement.exception.BusinessException;
+import com.graceconsulting.cardmanagement.exception.GlobalExceptionHandler;
+import com.graceconsulting.cardmanagement.security.CardRateLimitFilter;
+import com.graceconsulting.cardmanagement.security.ConcurrencyLimitFilter;
+import com.graceconsulting.cardmanagement.security.JwtAuthenticationFilter;
+import com.graceconsulting.cardmanagement.security.JwtTokenProvider;
+import com.graceconsulting.cardmanagement.service.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(UserController.class)
+@AutoConfigureMockMvc(addFilters = false)
+@Import({GlobalExceptionHandler.class})
+@DisplayName("UserController Tests")
+class UserControllerTest {
+
+    private static final Authentication AUTHENTICATION =
+            new UsernamePasswordAuthenticationToken("testuser", null, List.of());
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private JwtTokenProvider jwtTokenProvider;
+
+    @MockBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockBean
+    private CardRateLimitFilter cardRateLimitFilter;
+
+    @MockBean
+    private ConcurrencyLimitFilter concurrencyLimitFilter;
+
+    @Test
+    @DisplayName("Deve trocar a senha do usuário autenticado")
+    void shouldChangePasswordOfAuthenticatedUser() throws Exception {
+        ChangePasswordRequest request = new ChangePasswordRequest("password123", "newPassword");
+
+        mockMvc.perform(post("/api/users/me/password")
+                        .principal(AUTHENTICATION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isNoContent());
+
+        verify(userService).changePassword("testuser", "password123", "newPassword");
+    }
+
+    @Test
+    @DisplayName("Deve retornar 400 quando a senha atual não confere")
+    void shouldReturn400WhenCurrentPasswordIsWrong() throws Exception {
+        ChangePasswordRequest request = new ChangePasswordRequest("wrong", "newPassword");
+        doThrow(new BusinessException("Senha atual incorreta"))
+                .when(userService).changePassword("testuser", "wrong", "newPassword");
+
+        mockMvc.perform(post("/api/users/me/password")
+                        .principal(AUTHENTICATION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Senha atual incorreta"));
+    }
+
+    @Test
+    @DisplayName("Deve retornar 400 para nova senha curta")
+    void shouldReturn400ForShortNewPassword() throws Exception {
+        ChangePasswordRequest request = new ChangePasswordRequest("password123", "123");
+
+        mockMvc.perform(post("/api/users/me/password")
+                        .principal(AUTHENTICATION)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName("Deve desativar a conta do usuário autenticado")
+    void shouldDeactivateAuthenticatedUser() throws Exception {
+        mockMvc.perform(post("/api/users/me/deactivate")
+                        .principal(AUTHENTICATION))
+                .andExpect(status().isNoContent());
+
+        verify(userService).deactivate("testuser");
+    }
+}
@@ -277,14 +277,22 @@ class CardTest {
             UUID id = UUID.randomUUID();
             LocalDateTime now = LocalDateTime.now();
 
-            Card card = new Card(id, "encrypted", "hash", now, "batch-1");
+            byte[] cipher = {1, 2, 3};
+            byte[] digest = {4, 5, 6};
+            byte[] blindDigest = {7, 8, 9};
+            Card card = new Card(id, "encrypted", "hash", cipher, digest, 42L, blindDigest, now, "batch-1", 3L);
 
             assertAll(
                 () -> assertEquals(id, card.getId()),
                 () -> assertEquals("encrypted", card.getCardNumberEncrypted()),
                 () -> assertEquals("hash", card.getCardNumberHash()),
+                () -> assertArrayEquals(cipher, card.getCardNumberCipher()),
+                () -> assertArrayEquals(digest, card.getCardNumberDigest()),
+                () -> assertEquals(42L, card.getCardNumberBlindIndex()),
+                () -> assertArrayEquals(blindDigest, card.getCardNumberBlindDigest()),
                 () -> assertEquals(now, card.getCreatedAt()),
-                () -> assertEquals("batch-1", card.getBatchId())
+                () -> assertEquals("batch-1", card.getBatchId()),
+                () -> assertEquals(3L, card.getVersion())
             );
         }
     }
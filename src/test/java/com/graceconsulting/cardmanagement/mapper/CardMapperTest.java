@@ -3,6 +3,9 @@ package com.graceconsulting.cardmanagement.mapper;
 import com.graceconsulting.cardmanagement.dto.CardRequest;
 import com.graceconsulting.cardmanagement.dto.CardResponse;
 import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.service.BlindIndex;
+import com.graceconsulting.cardmanagement.service.CardBlindIndexBackfillService;
+import com.graceconsulting.cardmanagement.service.CardStorageMigrationService;
 import com.graceconsulting.cardmanagement.service.EncryptionService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,9 +18,13 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,12 +34,20 @@ class CardMapperTest {
     @Mock
     private EncryptionService encryptionService;
 
+    @Mock
+    private CardStorageMigrationService cardStorageMigrationService;
+
+    @Mock
+    private CardBlindIndexBackfillService cardBlindIndexBackfillService;
+
     private CardMapper cardMapper;
 
     @BeforeEach
     void setUp() {
         cardMapper = new CardMapperImpl();
         ReflectionTestUtils.setField(cardMapper, "encryptionService", encryptionService);
+        ReflectionTestUtils.setField(cardMapper, "cardStorageMigrationService", cardStorageMigrationService);
+        ReflectionTestUtils.setField(cardMapper, "cardBlindIndexBackfillService", cardBlindIndexBackfillService);
     }
 
     @Test
@@ -41,29 +56,75 @@ class CardMapperTest {
         CardRequest request = new CardRequest("4111111111111111");
 
         when(encryptionService.encrypt(anyString())).thenReturn("encrypted_data");
-        when(encryptionService.hash(anyString())).thenReturn("hash_value");
+        when(encryptionService.hashBytes(anyString())).thenReturn(new byte[]{(byte) 0xab, (byte) 0xcd});
 
         Card result = cardMapper.toEntity(request);
 
         assertNotNull(result);
         assertEquals("encrypted_data", result.getCardNumberEncrypted());
-        assertEquals("hash_value", result.getCardNumberHash());
+        assertEquals("abcd", result.getCardNumberHash());
+        assertArrayEquals(new byte[]{(byte) 0xab, (byte) 0xcd}, result.getCardNumberDigest());
     }
 
     @Test
     @DisplayName("Deve converter cardNumber e batchId para Card")
     void shouldConvertCardNumberAndBatchIdToCard() {
         when(encryptionService.encrypt(anyString())).thenReturn("encrypted");
-        when(encryptionService.hash(anyString())).thenReturn("hash");
+        when(encryptionService.hashBytes(anyString())).thenReturn(new byte[]{0x01, 0x02});
 
         Card result = cardMapper.toEntity("4111111111111111", "batch-123");
 
         assertNotNull(result);
         assertEquals("encrypted", result.getCardNumberEncrypted());
-        assertEquals("hash", result.getCardNumberHash());
+        assertEquals("0102", result.getCardNumberHash());
         assertEquals("batch-123", result.getBatchId());
     }
 
+    @Test
+    @DisplayName("Deve gravar só as colunas binárias e manter o hash até a migração terminar")
+    void shouldWriteOnlyBinaryColumnsInBinaryFormat() {
+        ReflectionTestUtils.setField(cardMapper, "storageFormat", "binary");
+        byte[] cipher = {1, 2, 3};
+        byte[] digest = {(byte) 0xab, (byte) 0xcd};
+        when(encryptionService.encryptToBytes("4111111111111111")).thenReturn(cipher);
+        when(encryptionService.hashBytes("4111111111111111")).thenReturn(digest);
+        when(cardStorageMigrationService.isBinaryReadable()).thenReturn(false, true);
+
+        Card migrating = cardMapper.toEntity(new CardRequest("4111 1111 1111 1111"));
+        Card migrated = cardMapper.toEntity("4111111111111111", "batch-123");
+
+        assertNull(migrating.getCardNumberEncrypted());
+        assertArrayEquals(cipher, migrating.getCardNumberCipher());
+        assertArrayEquals(digest, migrating.getCardNumberDigest());
+        assertEquals("abcd", migrating.getCardNumberHash());
+        assertNull(migrated.getCardNumberEncrypted());
+        assertNull(migrated.getCardNumberHash());
+        assertArrayEquals(digest, migrated.getCardNumberDigest());
+    }
+
+    @Test
+    @DisplayName("Deve deixar de gravar o hash sem chave quando o blind index cobre todas as linhas")
+    void shouldStopWritingUnkeyedHashOnceBlindIndexIsReadable() {
+        ReflectionTestUtils.setField(cardMapper, "storageFormat", "binary");
+        ReflectionTestUtils.setField(cardMapper, "blindIndexEnabled", true);
+        ReflectionTestUtils.setField(cardMapper, "retireUnkeyedHash", true);
+        byte[] cipher = {1, 2, 3};
+        BlindIndex blindIndex = new BlindIndex(42L, "ab".repeat(32));
+        when(encryptionService.encryptToBytes("4111111111111111")).thenReturn(cipher);
+        when(encryptionService.blindIndex("4111111111111111")).thenReturn(blindIndex);
+        when(cardStorageMigrationService.isBinaryReadable()).thenReturn(true);
+        when(cardBlindIndexBackfillService.isReadable()).thenReturn(true);
+
+        Card result = cardMapper.toEntity("4111111111111111", "batch-123");
+
+        assertArrayEquals(cipher, result.getCardNumberCipher());
+        assertNull(result.getCardNumberDigest());
+        assertNull(result.getCardNumberHash());
+        assertEquals(42L, result.getCardNumberBlindIndex());
+        assertArrayEquals(blindIndex.digestBytes(), result.getCardNumberBlindDigest());
+        verify(encryptionService, never()).hashBytes(anyString());
+    }
+
     @Test
     @DisplayName("Deve converter Card para CardResponse")
     void shouldConvertCardToCardResponse() {
@@ -0,0 +1,182 @@
+package com.graceconsulting.cardmanagement.reactive;
+
+import com.graceconsulting.cardmanagement.dto.AuthRequest;
+import com.graceconsulting.cardmanagement.dto.AuthResponse;
+import com.graceconsulting.cardmanagement.dto.BatchUploadResponse;
+import com.graceconsulting.cardmanagement.dto.CardRequest;
+import com.graceconsulting.cardmanagement.dto.CardResponse;
+import com.graceconsulting.cardmanagement.dto.CardSearchRequest;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactivedb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactivedb;DB_CLOSE_DELAY=-1",
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="
+})
+@ActiveProfiles({"test", "reactive"})
+@DisplayName("Reactive Card API Tests")
+class ReactiveCardApiTest {
+
+    private static final String CARD_NUMBER = "4456897999999999";
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository.deleteAll();
+        AuthResponse auth = webTestClient.post().uri("/api/auth/login")
+                .bodyValue(new AuthRequest("user", "user"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(AuthResponse.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(auth);
+        token = auth.token();
+    }
+
+    @Test
+    @DisplayName("Deve cadastrar cartão e encontrá-lo pela busca")
+    void shouldCreateAndSearchCard() {
+        CardResponse created = webTestClient.post().uri("/api/cards")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(new CardRequest(CARD_NUMBER))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(CardResponse.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(created);
+        assertNotNull(created.id());
+
+        webTestClient.post().uri("/api/cards/search")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(new CardSearchRequest(CARD_NUMBER))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.found").isEqualTo(true)
+                .jsonPath("$.id").isEqualTo(created.id().toString());
+
+        // O registro gravado via R2DBC é lido normalmente pelo JPA
+        assertTrue(cardRepository.findById(created.id()).isPresent());
+    }
+
+    @Test
+    @DisplayName("Deve retornar 409 ao cadastrar cartão duplicado")
+    void shouldReturnConflictForDuplicateCard() {
+        webTestClient.post().uri("/api/cards")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(new CardRequest(CARD_NUMBER))
+                .exchange()
+                .expectStatus().isCreated();
+
+        webTestClient.post().uri("/api/cards")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(new CardRequest(CARD_NUMBER))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Cartão já cadastrado no sistema");
+    }
+
+    @Test
+    @DisplayName("Deve retornar 400 com os erros de validação")
+    void shouldReturnBadRequestForInvalidCard() {
+        webTestClient.post().uri("/api/cards")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .bodyValue(new CardRequest("123"))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Erro de validação");
+    }
+
+    @Test
+    @DisplayName("Deve retornar 401 sem token")
+    void shouldRejectRequestWithoutToken() {
+        webTestClient.post().uri("/api/cards/search")
+                .bodyValue(new CardSearchRequest(CARD_NUMBER))
+                .exchange()
+                .expectStatus().isUnauthorized()
+                .expectBody()
+                .jsonPath("$.path").isEqualTo("/api/cards/search");
+    }
+
+    @Test
+    @DisplayName("Deve processar o lote em streaming com inválidos e duplicados")
+    void shouldProcessBatchFile() {
+        String content = String.join("\n",
+                "DESAFIO-HYPERATIVA           20180524LOTE0001000003",
+                "C1     4456897999999999",
+                "C2     4456897999999999",
+                "C3     44568979ABC99999",
+                "C4     4456897912999999",
+                "LOTE0001000003");
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("file", new ByteArrayResource(content.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public String getFilename() {
+                return "lote.txt";
+            }
+        });
+
+        BatchUploadResponse response = webTestClient.post().uri("/api/cards/batch")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BatchUploadResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertNotNull(response);
+        assertEquals(4, response.totalProcessed());
+        assertEquals(2, response.successCount());
+        assertEquals(1, response.duplicateCount());
+        assertEquals(1, response.errorCount());
+        // As linhas são gravadas em paralelo: qual das duas repetidas vence depende da ordem de chegada ao banco
+        assertTrue(response.errors().stream()
+                .anyMatch(error -> error.lineNumber() == 4 && error.reason().equals("Cartão inválido")));
+        assertEquals(2, cardRepository.count());
+    }
+
+    @Test
+    @DisplayName("Deve retornar 400 quando o multipart não tem a parte do arquivo")
+    void shouldRejectBatchWithoutFilePart() {
+        MultipartBodyBuilder body = new MultipartBodyBuilder();
+        body.part("description", "lote sem arquivo");
+
+        webTestClient.post().uri("/api/cards/batch")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .body(BodyInserters.fromMultipartData(body.build()))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Arquivo é obrigatório");
+
+        assertEquals(0, cardRepository.count());
+    }
+}
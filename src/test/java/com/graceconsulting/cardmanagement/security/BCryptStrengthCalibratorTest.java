@@ -0,0 +1,28 @@
+package com.graceconsulting.cardmanagement.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BCryptStrengthCalibrator Tests")
+class BCryptStrengthCalibratorTest {
+
+    @Test
+    @DisplayName("Deve manter o work factor mínimo quando o orçamento é menor que o custo")
+    void shouldKeepMinimumStrengthWhenBudgetIsTooSmall() {
+        BCryptStrengthCalibrator.Calibration calibration = BCryptStrengthCalibrator.calibrate(0, 4, 6);
+
+        assertEquals(4, calibration.strength());
+        assertTrue(calibration.millis() > 0);
+    }
+
+    @Test
+    @DisplayName("Deve subir até o work factor máximo quando o orçamento permite")
+    void shouldRaiseStrengthUpToMaximumWithinBudget() {
+        BCryptStrengthCalibrator.Calibration calibration = BCryptStrengthCalibrator.calibrate(60000, 4, 6);
+
+        assertEquals(6, calibration.strength());
+        assertTrue(calibration.millis() > 0);
+    }
+}
@@ -0,0 +1,135 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CardRateLimitFilter Tests")
+class CardRateLimitFilterTest {
+
+    @Nested
+    @DisplayName("Testes do Filtro")
+    class FilterTests {
+
+        private SimpleMeterRegistry meterRegistry;
+        private CardRateLimitFilter filter;
+
+        @BeforeEach
+        void setUp() {
+            meterRegistry = new SimpleMeterRegistry();
+            filter = new CardRateLimitFilter(new ObjectMapper().findAndRegisterModules(), meterRegistry);
+            ReflectionTestUtils.setField(filter, "enabled", true);
+            ReflectionTestUtils.setField(filter, "maxBuckets", 1000L);
+            ReflectionTestUtils.setField(filter, "searchCapacity", 2);
+            ReflectionTestUtils.setField(filter, "searchRefillPerMinute", 1.0);
+            ReflectionTestUtils.setField(filter, "createCapacity", 5);
+            ReflectionTestUtils.setField(filter, "createRefillPerMinute", 60.0);
+            ReflectionTestUtils.setField(filter, "batchCapacity", 1);
+            ReflectionTestUtils.setField(filter, "batchRefillPerMinute", 1.0);
+            filter.init();
+        }
+
+        @AfterEach
+        void tearDown() {
+            SecurityContextHolder.clearContext();
+        }
+
+        @Test
+        @DisplayName("Deve informar os cabeçalhos RateLimit e recusar após esgotar o balde")
+        void shouldExposeHeadersAndRejectWhenBucketIsEmpty() throws Exception {
+            authenticate("alice");
+
+            MockHttpServletResponse first = perform("/api/cards/search");
+            MockHttpServletResponse second = perform("/api/cards/search");
+            MockHttpServletResponse third = perform("/api/cards/search");
+
+            assertEquals(200, first.getStatus());
+            assertEquals("2", first.getHeader("RateLimit-Limit"));
+            assertEquals("1", first.getHeader("RateLimit-Remaining"));
+            assertEquals("0", second.getHeader("RateLimit-Remaining"));
+            assertEquals(429, third.getStatus());
+            assertEquals("60", third.getHeader("Retry-After"));
+            assertTrue(third.getContentAsString().contains("Limite de requisições excedido"));
+            assertEquals(1, meterRegistry.get("cards.rate-limit.rejected").tag("endpoint", "search").counter().count());
+        }
+
+        @Test
+        @DisplayName("Deve manter baldes separados por usuário e por endpoint")
+        void shouldKeepSeparateBucketsPerUserAndEndpoint() throws Exception {
+            authenticate("alice");
+            perform("/api/cards/batch");
+            assertEquals(429, perform("/api/cards/batch").getStatus());
+            assertEquals(200, perform("/api/cards").getStatus());
+
+            authenticate("bob");
+            assertEquals(200, perform("/api/cards/batch").getStatus());
+        }
+
+        @Test
+        @DisplayName("Não deve limitar requisição sem usuário autenticado")
+        void shouldIgnoreUnauthenticatedRequests() throws Exception {
+            for (int i = 0; i < 5; i++) {
+                MockHttpServletResponse response = perform("/api/cards/batch");
+                assertEquals(200, response.getStatus());
+                assertNull(response.getHeader("RateLimit-Limit"));
+            }
+        }
+
+        @Test
+        @DisplayName("Não deve limitar rotas fora dos endpoints de cartões")
+        void shouldIgnoreOtherRoutes() throws Exception {
+            authenticate("alice");
+            for (int i = 0; i < 5; i++) {
+                assertNull(perform("/api/auth/login").getHeader("RateLimit-Limit"));
+            }
+        }
+
+        private void authenticate(String username) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    username, null, List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        }
+
+        private MockHttpServletResponse perform(String uri) throws Exception {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("POST", uri), response, new MockFilterChain());
+            return response;
+        }
+    }
+
+    @Nested
+    @DisplayName("Testes do TokenBucket")
+    class TokenBucketTests {
+
+        @Test
+        @DisplayName("Deve reabastecer conforme o tempo passa")
+        void shouldRefillOverTime() {
+            long now = 0;
+            TokenBucket bucket = new TokenBucket(2, 1.0, now);
+
+            assertTrue(bucket.tryAcquire(now).allowed());
+            assertTrue(bucket.tryAcquire(now).allowed());
+            TokenBucket.Decision rejected = bucket.tryAcquire(now);
+            assertFalse(rejected.allowed());
+            assertEquals(1_000_000_000L, rejected.retryAfterNanos());
+
+            TokenBucket.Decision refilled = bucket.tryAcquire(now + rejected.retryAfterNanos());
+            assertTrue(refilled.allowed());
+            assertEquals(0, refilled.remaining());
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ConcurrencyLimitFilter Tests")
+class ConcurrencyLimitFilterTest {
+
+    private static final long WINDOW = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Nested
+    @DisplayName("Testes do Filtro")
+    class FilterTests {
+
+        private SimpleMeterRegistry meterRegistry;
+        private ConcurrencyLimitFilter filter;
+
+        @BeforeEach
+        void setUp() {
+            meterRegistry = new SimpleMeterRegistry();
+            filter = new ConcurrencyLimitFilter(new ObjectMapper().findAndRegisterModules(), meterRegistry);
+            ReflectionTestUtils.setField(filter, "enabled", true);
+            ReflectionTestUtils.setField(filter, "initialLimit", 1);
+            ReflectionTestUtils.setField(filter, "minLimit", 1);
+            ReflectionTestUtils.setField(filter, "maxLimit", 10);
+            ReflectionTestUtils.setField(filter, "rttTolerance", 1.5);
+            ReflectionTestUtils.setField(filter, "smoothing", 0.2);
+            ReflectionTestUtils.setField(filter, "windowMs", 1000L);
+            ReflectionTestUtils.setField(filter, "minWindowSamples", 10);
+            ReflectionTestUtils.setField(filter, "longWindow", 600);
+            filter.init();
+        }
+
+        @Test
+        @DisplayName("Deve recusar com 503 quando o limite está ocupado")
+        void shouldRejectWhenLimitIsReached() throws Exception {
+            MockHttpServletResponse nested = new MockHttpServletResponse();
+            FilterChain occupying = (request, response) ->
+                    filter.doFilter(new MockHttpServletRequest("POST", "/api/cards/search"), nested, new MockFilterChain());
+
+            MockHttpServletResponse outer = new MockHttpServletResponse();
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/cards/search"), outer, occupying);
+
+            assertEquals(200, outer.getStatus());
+            assertEquals(503, nested.getStatus());
+            assertEquals("1", nested.getHeader("Retry-After"));
+            assertTrue(nested.getContentAsString().contains("Servidor sobrecarregado"));
+            assertEquals(1, meterRegistry.get("cards.concurrency.rejected").counter().count());
+            assertEquals(0, meterRegistry.get("cards.concurrency.in-flight").gauge().value());
+            assertEquals(1, meterRegistry.get("cards.concurrency.limit").gauge().value());
+        }
+
+        @Test
+        @DisplayName("Deve liberar a vaga mesmo quando a requisição falha")
+        void shouldReleaseSlotOnFailure() {
+            FilterChain failing = (request, response) -> {
+                throw new IllegalStateException("falha");
+            };
+
+            assertThrows(IllegalStateException.class, () -> filter.doFilter(
+                    new MockHttpServletRequest("POST", "/api/cards"), new MockHttpServletResponse(), failing));
+            assertEquals(0, meterRegistry.get("cards.concurrency.in-flight").gauge().value());
+        }
+
+        @Test
+        @DisplayName("Não deve limitar o lote nem outras rotas")
+        void shouldIgnoreBatchAndOtherRoutes() throws Exception {
+            MockHttpServletResponse nested = new MockHttpServletResponse();
+            FilterChain occupying = (request, response) ->
+                    filter.doFilter(new MockHttpServletRequest("POST", "/api/cards/batch"), nested, new MockFilterChain());
+
+            filter.doFilter(new MockHttpServletRequest("POST", "/api/cards/search"), new MockHttpServletResponse(), occupying);
+
+            assertEquals(200, nested.getStatus());
+            assertEquals(0, meterRegistry.get("cards.concurrency.rejected").counter().count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Testes do GradientConcurrencyLimit")
+    class GradientTests {
+
+        @Test
+        @DisplayName("Deve aumentar o limite enquanto a latência se mantém estável")
+        void shouldGrowWhileLatencyIsStable() {
+            GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 2, 100, 1.5, 0.2, WINDOW, 10, 600, 0);
+
+            long now = 0;
+            for (int window = 0; window < 20; window++) {
+                now = runSaturatedWindow(limit, now, 5 * MILLI);
+            }
+
+            assertTrue(limit.getLimit() > 20, "limite: " + limit.getLimit());
+        }
+
+        @Test
+        @DisplayName("Deve reduzir o limite quando a latência sobe")
+        void shouldShrinkWhenLatencyRises() {
+            GradientConcurrencyLimit limit = new GradientConcurrencyLimit(50, 2, 100, 1.5, 0.2, WINDOW, 10, 600, 0);
+
+            long now = 0;
+            for (int window = 0; window < 5; window++) {
+                now = runSaturatedWindow(limit, now, 5 * MILLI);
+            }
+            int before = limit.getLimit();
+            for (int window = 0; window < 10; window++) {
+                now = runSaturatedWindow(limit, now, 50 * MILLI);
+            }
+
+            assertTrue(limit.getLimit() < before, before + " -> " + limit.getLimit());
+            assertTrue(limit.getLimit() >= 2);
+        }
+
+        @Test
+        @DisplayName("Não deve crescer sem demanda próxima do limite")
+        void shouldNotGrowWhenApplicationLimited() {
+            GradientConcurrencyLimit limit = new GradientConcurrencyLimit(20, 2, 100, 1.5, 0.2, WINDOW, 10, 600, 0);
+
+            long now = 0;
+            for (int window = 0; window < 10; window++) {
+                for (int i = 0; i < 10; i++) {
+                    assertTrue(limit.tryAcquire());
+                    now += WINDOW / 10;
+                    limit.release(5 * MILLI, now);
+                }
+            }
+
+            assertEquals(20, limit.getLimit());
+        }
+
+        @Test
+        @DisplayName("Deve informar a fração de recusas da última janela")
+        void shouldReportDropRatio() {
+            GradientConcurrencyLimit limit = new GradientConcurrencyLimit(2, 2, 2, 1.5, 0.2, WINDOW, 1, 600, 0);
+
+            assertTrue(limit.tryAcquire());
+            assertTrue(limit.tryAcquire());
+            assertFalse(limit.tryAcquire());
+            assertFalse(limit.tryAcquire());
+            limit.release(MILLI, WINDOW);
+
+            assertEquals(0.5, limit.getDropRatio(), 0.0001);
+            assertEquals(1, limit.getInFlight());
+        }
+
+        private long runSaturatedWindow(GradientConcurrencyLimit limit, long start, long rtt) {
+            int acquired = 0;
+            while (limit.tryAcquire()) {
+                acquired++;
+            }
+            long now = start + WINDOW;
+            for (int i = 0; i < acquired; i++) {
+                limit.release(rtt, now);
+            }
+            return now;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.graceconsulting.cardmanagement.entity.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("JwtAuthenticationFilter Tests")
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "test-secret-key-for-jwt-minimum-256-bits-required-here";
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
+    @Mock
+    private RevokedTokenStore revokedTokenStore;
+
+    private JwtTokenProvider jwtTokenProvider;
+    private JwtAuthenticator authenticator;
+    private JwtAuthenticationFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 3600000L);
+        jwtTokenProvider.init();
+
+        authenticator = new JwtAuthenticator(jwtTokenProvider, userDetailsService,
+                tokenRevocationService, userDetailsCache, revokedTokenStore);
+        ReflectionTestUtils.setField(authenticator, "stateless", true);
+        filter = new JwtAuthenticationFilter(authenticator);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Deve autenticar pelas claims sem consultar o usuário")
+    void shouldAuthenticateFromClaimsWithoutUserLookup() throws Exception {
+        String token = tokenFor(User.builder().username("testuser").password("p").name("Test").build());
+
+        filter.doFilter(requestWith(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertNotNull(authentication);
+        assertEquals("testuser", authentication.getName());
+        assertEquals("ROLE_USER", authentication.getAuthorities().iterator().next().getAuthority());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("Não deve autenticar token revogado")
+    void shouldRejectRevokedToken() throws Exception {
+        String token = tokenFor(User.builder().username("testuser").password("p").name("Test").build());
+        when(tokenRevocationService.isRevoked("testuser", 0)).thenReturn(true);
+
+        filter.doFilter(requestWith(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("Deve consultar o usuário para token sem claims de autorização")
+    void shouldFallBackToUserLookupForLegacyToken() throws Exception {
+        User user = User.builder().username("legacy").password("p").name("Legacy").build();
+        String token = Jwts.builder()
+                .subject("legacy")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+        when(userDetailsService.loadUserByUsername("legacy")).thenReturn(user);
+
+        filter.doFilter(requestWith(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals("legacy", SecurityContextHolder.getContext().getAuthentication().getName());
+    }
+
+    @Test
+    @DisplayName("Não deve autenticar token inválido")
+    void shouldIgnoreInvalidToken() throws Exception {
+        filter.doFilter(requestWith("invalid.token.here"), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService, tokenRevocationService);
+    }
+
+    @Test
+    @DisplayName("Deve usar o cache de usuários quando habilitado")
+    void shouldUseUserDetailsCacheWhenEnabled() throws Exception {
+        ReflectionTestUtils.setField(authenticator, "stateless", false);
+        User user = User.builder().username("testuser").password("p").name("Test").build();
+        when(userDetailsCache.isEnabled()).thenReturn(true);
+        when(userDetailsCache.get("testuser")).thenReturn(user);
+
+        filter.doFilter(requestWith(tokenFor(user)), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals("testuser", SecurityContextHolder.getContext().getAuthentication().getName());
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    @DisplayName("Não deve autenticar usuário desativado carregado do banco")
+    void shouldRejectDisabledUser() throws Exception {
+        ReflectionTestUtils.setField(authenticator, "stateless", false);
+        User user = User.builder().username("testuser").password("p").name("Test").active(false).build();
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(user);
+
+        filter.doFilter(requestWith(tokenFor(user)), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("Não deve autenticar token emitido antes da troca de senha fora do modo stateless")
+    void shouldRejectTokenIssuedBeforePasswordChangeWhenNotStateless() throws Exception {
+        ReflectionTestUtils.setField(authenticator, "stateless", false);
+        User user = User.builder().username("testuser").password("p").name("Test").build();
+        String oldToken = tokenFor(user);
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(user);
+
+        filter.doFilter(requestWith(oldToken), new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+
+        filter.doFilter(requestWith(tokenFor(user)), new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals("testuser", SecurityContextHolder.getContext().getAuthentication().getName());
+        verifyNoInteractions(tokenRevocationService);
+    }
+
+    @Test
+    @DisplayName("Deve comparar a versão do token com a do usuário vindo do cache")
+    void shouldRejectOldTokenVersionFromCachedUser() throws Exception {
+        ReflectionTestUtils.setField(authenticator, "stateless", false);
+        User user = User.builder().username("testuser").password("p").name("Test").build();
+        String oldToken = tokenFor(user);
+        user.setTokenVersion(1);
+        when(userDetailsCache.isEnabled()).thenReturn(true);
+        when(userDetailsCache.get("testuser")).thenReturn(new UserDetailsCache.CachedUser(user));
+
+        filter.doFilter(requestWith(oldToken), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("Não deve autenticar token com jti revogado por logout")
+    void shouldRejectTokenWithRevokedJti() throws Exception {
+        String token = tokenFor(User.builder().username("testuser").password("p").name("Test").build());
+        when(revokedTokenStore.isRevoked(eq(jwtTokenProvider.parseClaims(token).getId()), any())).thenReturn(true);
+
+        filter.doFilter(requestWith(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService, tokenRevocationService);
+    }
+
+    @Test
+    @DisplayName("Não deve aceitar refresh token como bearer")
+    void shouldRejectRefreshTokenAsBearer() throws Exception {
+        String token = jwtTokenProvider.generateRefreshToken(
+                User.builder().username("testuser").password("p").name("Test").build());
+
+        filter.doFilter(requestWith(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService, tokenRevocationService);
+    }
+
+    private String tokenFor(User user) {
+        return jwtTokenProvider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private MockHttpServletRequest requestWith(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cards");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -1,7 +1,11 @@
 package com.graceconsulting.cardmanagement.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -10,6 +14,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Collections;
+import java.time.Duration;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -104,6 +110,90 @@ class JwtTokenProviderTest {
         assertNotEquals(token1, token2);
     }
 
+    @Test
+    @DisplayName("Deve incluir authorities e versão do usuário nas claims")
+    void shouldEmbedAuthoritiesAndVersionClaims() {
+        com.graceconsulting.cardmanagement.entity.User user = com.graceconsulting.cardmanagement.entity.User.builder()
+                .username("testuser")
+                .password("password")
+                .name("Test User")
+                .tokenVersion(3)
+                .build();
+        String token = jwtTokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+        Claims claims = jwtTokenProvider.parseClaims(token);
+
+        assertEquals("testuser", claims.getSubject());
+        assertEquals(List.of("ROLE_USER"), claims.get(JwtTokenProvider.ROLES_CLAIM, List.class));
+        assertEquals(3, claims.get(JwtTokenProvider.VERSION_CLAIM, Integer.class));
+    }
+
+    @Nested
+    @DisplayName("Testes do Cache de Tokens Verificados")
+    class VerifiedCacheTests {
+
+        @BeforeEach
+        void enableCache() {
+            ReflectionTestUtils.setField(jwtTokenProvider, "verifiedCacheEnabled", true);
+            ReflectionTestUtils.setField(jwtTokenProvider, "verifiedCacheMaxSize", 100L);
+            ReflectionTestUtils.setField(jwtTokenProvider, "verifiedCacheMaxTtlMs", 300000L);
+            jwtTokenProvider.init();
+        }
+
+        @Test
+        @DisplayName("Deve reutilizar as claims verificadas para o mesmo token")
+        void shouldReuseVerifiedClaimsForSameToken() {
+            String token = jwtTokenProvider.generateToken(createAuthentication("testuser"));
+
+            Claims first = jwtTokenProvider.parseClaims(token);
+            Claims second = jwtTokenProvider.parseClaims(token);
+
+            assertSame(first, second);
+            assertTrue(jwtTokenProvider.validateToken(token));
+            assertEquals("testuser", jwtTokenProvider.getUsernameFromToken(token));
+        }
+
+        @Test
+        @DisplayName("Não deve cachear token inválido")
+        void shouldNotCacheInvalidToken() {
+            String token = jwtTokenProvider.generateToken(createAuthentication("testuser"));
+            String tampered = token.substring(0, token.length() - 2) + "xx";
+
+            assertFalse(jwtTokenProvider.validateToken(tampered));
+            assertFalse(jwtTokenProvider.validateToken(tampered));
+            assertEquals(0, verifiedTokens().estimatedSize());
+        }
+
+        @Test
+        @DisplayName("Deve expirar a entrada no máximo junto com o token")
+        void shouldExpireEntryNoLaterThanToken() {
+            ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", 2000L);
+            String token = jwtTokenProvider.generateToken(createAuthentication("testuser"));
+
+            jwtTokenProvider.parseClaims(token);
+
+            Cache<String, Claims> cache = verifiedTokens();
+            String key = cache.asMap().keySet().iterator().next();
+            Duration expiresAfter = cache.policy().expireVariably().orElseThrow().getExpiresAfter(key).orElseThrow();
+            assertTrue(expiresAfter.compareTo(Duration.ofSeconds(2)) <= 0);
+        }
+
+        @Test
+        @DisplayName("Deve rejeitar token expirado")
+        void shouldRejectExpiredToken() {
+            ReflectionTestUtils.setField(jwtTokenProvider, "jwtExpiration", -1000L);
+            String token = jwtTokenProvider.generateToken(createAuthentication("testuser"));
+
+            assertThrows(ExpiredJwtException.class, () -> jwtTokenProvider.parseClaims(token));
+        }
+
+        @SuppressWarnings("unchecked")
+        private Cache<String, Claims> verifiedTokens() {
+            return (Cache<String, Claims>) ReflectionTestUtils.getField(jwtTokenProvider, "verifiedTokens");
+        }
+    }
+
     private Authentication createAuthentication(String username) {
         UserDetails userDetails = User.builder()
                 .username(username)
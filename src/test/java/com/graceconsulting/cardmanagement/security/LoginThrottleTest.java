@@ -0,0 +1,150 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.graceconsulting.cardmanagement.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LoginThrottle Tests")
+class LoginThrottleTest {
+
+    @Nested
+    @DisplayName("Testes do Limite por Chave")
+    class ThrottleTests {
+
+        private SimpleMeterRegistry meterRegistry;
+        private LoginThrottle loginThrottle;
+
+        @BeforeEach
+        void setUp() {
+            meterRegistry = new SimpleMeterRegistry();
+            loginThrottle = new LoginThrottle(meterRegistry);
+            ReflectionTestUtils.setField(loginThrottle, "enabled", true);
+            ReflectionTestUtils.setField(loginThrottle, "slots", 1024);
+            ReflectionTestUtils.setField(loginThrottle, "usernameRatePerMinute", 1);
+            ReflectionTestUtils.setField(loginThrottle, "usernameBurst", 3);
+            ReflectionTestUtils.setField(loginThrottle, "ipRatePerMinute", 1);
+            ReflectionTestUtils.setField(loginThrottle, "ipBurst", 5);
+            loginThrottle.init();
+        }
+
+        @Test
+        @DisplayName("Deve recusar o username após esgotar o burst")
+        void shouldRejectUsernameAfterBurst() {
+            for (int i = 0; i < 3; i++) {
+                loginThrottle.check("victim", "10.0.0." + i);
+            }
+
+            TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                    () -> loginThrottle.check("VICTIM", "10.0.0.9"));
+
+            assertTrue(exception.getRetryAfterSeconds() > 0 && exception.getRetryAfterSeconds() <= 60);
+            assertEquals(1, meterRegistry.get("auth.login.throttled").tag("key", "username").counter().count());
+            assertDoesNotThrow(() -> loginThrottle.check("other", "10.0.0.10"));
+        }
+
+        @Test
+        @DisplayName("Deve recusar o IP que tenta muitos usernames")
+        void shouldRejectAddressSprayingUsernames() {
+            for (int i = 0; i < 5; i++) {
+                loginThrottle.check("user" + i, "10.0.0.1");
+            }
+
+            assertThrows(TooManyRequestsException.class, () -> loginThrottle.check("user5", "10.0.0.1"));
+            assertEquals(1, meterRegistry.get("auth.login.throttled").tag("key", "ip").counter().count());
+            assertDoesNotThrow(() -> loginThrottle.check("user5", "10.0.0.2"));
+        }
+
+        @Test
+        @DisplayName("Não deve limitar quando desabilitado")
+        void shouldNotThrottleWhenDisabled() {
+            LoginThrottle disabled = new LoginThrottle(new SimpleMeterRegistry());
+
+            for (int i = 0; i < 100; i++) {
+                disabled.check("user", "10.0.0.1");
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Testes da Tabela de Slots")
+    class RateTableTests {
+
+        @Test
+        @DisplayName("Deve liberar novas tentativas conforme o tempo passa")
+        void shouldRefillOverTime() {
+            LoginThrottle.RateTable table = new LoginThrottle.RateTable(64, 60, 2, 42L);
+            long now = -TimeUnit.HOURS.toNanos(1);
+
+            assertEquals(0, table.acquire("user", now));
+            assertEquals(0, table.acquire("user", now));
+            long wait = table.acquire("user", now);
+            assertEquals(TimeUnit.SECONDS.toNanos(1), wait);
+
+            assertEquals(0, table.acquire("user", now + wait));
+        }
+
+        @Test
+        @DisplayName("Não deve aceitar além do burst com tentativas concorrentes na mesma chave")
+        void shouldNotExceedBurstUnderConcurrentAttempts() throws Exception {
+            for (int round = 0; round < 50; round++) {
+                LoginThrottle.RateTable table = new LoginThrottle.RateTable(64, 1, 5, round);
+                long now = System.nanoTime();
+                AtomicInteger accepted = new AtomicInteger();
+                CountDownLatch start = new CountDownLatch(1);
+                ExecutorService executor = Executors.newFixedThreadPool(16);
+                try {
+                    List<Future<?>> attempts = new ArrayList<>();
+                    for (int i = 0; i < 64; i++) {
+                        attempts.add(executor.submit(() -> {
+                            start.await();
+                            if (table.acquire("victim", now) == 0) {
+                                accepted.incrementAndGet();
+                            }
+                            return null;
+                        }));
+                    }
+                    start.countDown();
+                    for (Future<?> attempt : attempts) {
+                        attempt.get(5, TimeUnit.SECONDS);
+                    }
+                } finally {
+                    executor.shutdownNow();
+                }
+                assertEquals(5, accepted.get());
+            }
+        }
+
+        @Test
+        @DisplayName("Deve manter memória fixa com milhões de chaves distintas")
+        void shouldStayBoundedWithManyDistinctKeys() {
+            LoginThrottle.RateTable table = new LoginThrottle.RateTable(65536, 10, 5, 7L);
+            long now = System.nanoTime();
+            int accepted = 0;
+            for (int i = 0; i < 1_000_000; i++) {
+                if (table.acquire("key-" + i, now) == 0) {
+                    accepted++;
+                }
+            }
+
+            // Slots saturados passam a recusar as chaves que colidem, sem crescer a tabela
+            assertTrue(accepted > 65536 && accepted < 1_000_000);
+            assertEquals(65536, ((AtomicLongArray) ReflectionTestUtils.getField(table, "arrivals")).length());
+        }
+    }
+}
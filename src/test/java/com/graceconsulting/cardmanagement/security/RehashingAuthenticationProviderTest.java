@@ -0,0 +1,80 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.graceconsulting.cardmanagement.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RehashingAuthenticationProvider Tests")
+class RehashingAuthenticationProviderTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private UserDetailsPasswordService passwordService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RehashingAuthenticationProvider provider;
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    @DisplayName("Deve atualizar em segundo plano hash com work factor desatualizado")
+    void shouldRehashOutdatedStrengthInBackground() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(5);
+        User user = createUser(new BCryptPasswordEncoder(4).encode("password"));
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(user);
+        provider = new RehashingAuthenticationProvider(userDetailsService, passwordService, encoder, 10, meterRegistry);
+
+        Authentication result = provider.authenticate(new UsernamePasswordAuthenticationToken("testuser", "password"));
+
+        assertTrue(result.isAuthenticated());
+        ArgumentCaptor<String> newHash = ArgumentCaptor.forClass(String.class);
+        verify(passwordService, timeout(5000)).updatePassword(eq(user), newHash.capture());
+        assertTrue(newHash.getValue().startsWith("$2a$05$"));
+        assertTrue(encoder.matches("password", newHash.getValue()));
+    }
+
+    @Test
+    @DisplayName("Não deve atualizar hash já no work factor atual")
+    void shouldNotRehashCurrentStrength() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        User user = createUser(encoder.encode("password"));
+        when(userDetailsService.loadUserByUsername("testuser")).thenReturn(user);
+        provider = new RehashingAuthenticationProvider(userDetailsService, passwordService, encoder, 10, meterRegistry);
+
+        provider.authenticate(new UsernamePasswordAuthenticationToken("testuser", "password"));
+
+        verify(passwordService, after(200).never()).updatePassword(any(), anyString());
+    }
+
+    private User createUser(String passwordHash) {
+        return User.builder()
+                .username("testuser")
+                .password(passwordHash)
+                .name("Test User")
+                .active(true)
+                .build();
+    }
+}
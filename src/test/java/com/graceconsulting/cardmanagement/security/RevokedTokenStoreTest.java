@@ -0,0 +1,90 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.graceconsulting.cardmanagement.entity.RevokedToken;
+import com.graceconsulting.cardmanagement.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RevokedTokenStore Tests")
+class RevokedTokenStoreTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private RevokedTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RevokedTokenStore(revokedTokenRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "bucketMs", 60000L);
+        ReflectionTestUtils.setField(store, "refreshOverlapMs", 2000L);
+    }
+
+    @Test
+    @DisplayName("Deve gravar a revogação e recusar o token na hora")
+    void shouldRevokeImmediately() {
+        Date expiresAt = new Date(System.currentTimeMillis() + 600000);
+
+        store.revoke("jti-1", expiresAt);
+
+        verify(revokedTokenRepository).insert(eq("jti-1"), any(), any());
+        assertTrue(store.isRevoked("jti-1", expiresAt));
+        assertFalse(store.isRevoked("jti-2", expiresAt));
+        assertFalse(store.isRevoked(null, expiresAt));
+    }
+
+    @Test
+    @DisplayName("Deve carregar revogações feitas por outros nós")
+    void shouldLoadRevocationsFromDatabase() {
+        LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(10).withNano(0);
+        when(revokedTokenRepository.findRevokedSince(any(), any())).thenReturn(List.of(
+                new RevokedToken("remote-jti", expiresAt, LocalDateTime.now())));
+
+        store.refresh();
+
+        assertTrue(store.isRevoked("remote-jti", Date.from(expiresAt.atZone(ZoneId.systemDefault()).toInstant())));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("Deve descartar grupos de tokens já expirados")
+    void shouldDropExpiredBuckets() {
+        Date expired = new Date(System.currentTimeMillis() - 120000);
+        store.revoke("old-jti", expired);
+        when(revokedTokenRepository.findRevokedSince(any(), any())).thenReturn(List.of());
+
+        store.refresh();
+
+        assertFalse(store.isRevoked("old-jti", expired));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Não deve consultar o banco quando desabilitado")
+    void shouldSkipRefreshWhenDisabled() {
+        ReflectionTestUtils.setField(store, "enabled", false);
+
+        store.refresh();
+        store.purgeExpired();
+
+        verifyNoInteractions(revokedTokenRepository);
+    }
+}
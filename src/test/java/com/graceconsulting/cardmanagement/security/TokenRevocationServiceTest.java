@@ -0,0 +1,83 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.graceconsulting.cardmanagement.dto.UserTokenState;
+import com.graceconsulting.cardmanagement.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenRevocationService Tests")
+class TokenRevocationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    void setUp() {
+        revocationService = new TokenRevocationService(userRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revocationService, "enabled", true);
+        ReflectionTestUtils.setField(revocationService, "jwtExpiration", 3600000L);
+        ReflectionTestUtils.setField(revocationService, "refreshOverlapMs", 2000L);
+    }
+
+    @Test
+    @DisplayName("Deve revogar todos os tokens de usuário desativado")
+    void shouldRevokeAllTokensOfDeactivatedUser() {
+        when(userRepository.findTokenStatesChangedSince(any())).thenReturn(List.of(
+                new UserTokenState("inactive", 0, false, LocalDateTime.now())));
+
+        revocationService.refresh();
+
+        assertTrue(revocationService.isRevoked("inactive", 0));
+        assertTrue(revocationService.isRevoked("inactive", 5));
+        assertFalse(revocationService.isRevoked("other", 0));
+    }
+
+    @Test
+    @DisplayName("Deve revogar apenas tokens com versão anterior à atual")
+    void shouldRevokeOnlyOlderTokenVersions() {
+        revocationService.record(new UserTokenState("testuser", 2, true, LocalDateTime.now()));
+
+        assertTrue(revocationService.isRevoked("testuser", 1));
+        assertFalse(revocationService.isRevoked("testuser", 2));
+    }
+
+    @Test
+    @DisplayName("Deve descartar alterações mais antigas que a validade do token")
+    void shouldPruneChangesOlderThanTokenLifetime() {
+        revocationService.record(new UserTokenState("old", 0, false, LocalDateTime.now().minusHours(2)));
+        when(userRepository.findTokenStatesChangedSince(any())).thenReturn(List.of());
+
+        revocationService.refresh();
+
+        assertFalse(revocationService.isRevoked("old", 0));
+    }
+
+    @Test
+    @DisplayName("Deve manter o estado mais recente quando o refresh traz dado antigo")
+    void shouldKeepMostRecentStateOnStaleRefresh() {
+        LocalDateTime now = LocalDateTime.now();
+        revocationService.record(new UserTokenState("testuser", 2, true, now));
+        when(userRepository.findTokenStatesChangedSince(any())).thenReturn(List.of(
+                new UserTokenState("testuser", 1, true, now.minusSeconds(1))));
+
+        revocationService.refresh();
+
+        assertTrue(revocationService.isRevoked("testuser", 1));
+    }
+}
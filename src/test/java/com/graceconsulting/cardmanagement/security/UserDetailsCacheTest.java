@@ -0,0 +1,121 @@
+package com.graceconsulting.cardmanagement.security;
+
+import com.graceconsulting.cardmanagement.dto.UserTokenState;
+import com.graceconsulting.cardmanagement.entity.User;
+import com.graceconsulting.cardmanagement.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserDetailsCache Tests")
+class UserDetailsCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserDetailsCache userDetailsCache;
+    private LocalDateTime initialWatermark;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userDetailsCache = new UserDetailsCache(userRepository, meterRegistry);
+        ReflectionTestUtils.setField(userDetailsCache, "enabled", true);
+        ReflectionTestUtils.setField(userDetailsCache, "maxSize", 100L);
+        ReflectionTestUtils.setField(userDetailsCache, "ttlMs", 60000L);
+        ReflectionTestUtils.setField(userDetailsCache, "versionCheckOverlapMs", 2000L);
+        initialWatermark = LocalDateTime.now().minusMinutes(1);
+        when(userRepository.findLatestUpdatedAt()).thenReturn(Optional.of(initialWatermark));
+        userDetailsCache.init();
+    }
+
+    @Test
+    @DisplayName("Deve consultar o banco apenas na primeira autenticação")
+    void shouldQueryDatabaseOnlyOnFirstLookup() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(createUser("testuser", true)));
+
+        UserDetails first = userDetailsCache.get("testuser");
+        UserDetails second = userDetailsCache.get("testuser");
+
+        assertSame(first, second);
+        assertEquals("", first.getPassword());
+        assertTrue(first.isEnabled());
+        verify(userRepository, times(1)).findByUsername("testuser");
+        assertEquals(0.5, meterRegistry.get("auth.user-details.hit-ratio").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Não deve cachear usuário inexistente")
+    void shouldNotCacheMissingUser() {
+        when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.get("unknown"));
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.get("unknown"));
+
+        verify(userRepository, times(2)).findByUsername("unknown");
+    }
+
+    @Test
+    @DisplayName("Deve recarregar o usuário após invalidação")
+    void shouldReloadAfterInvalidation() {
+        when(userRepository.findByUsername("testuser"))
+                .thenReturn(Optional.of(createUser("testuser", true)))
+                .thenReturn(Optional.of(createUser("testuser", false)));
+
+        assertTrue(userDetailsCache.get("testuser").isEnabled());
+        userDetailsCache.invalidate("testuser");
+
+        assertFalse(userDetailsCache.get("testuser").isEnabled());
+    }
+
+    @Test
+    @DisplayName("Deve invalidar usuários alterados em outro nó quando a marca d'água avança")
+    void shouldInvalidateUsersChangedOnOtherNodes() {
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(createUser("testuser", true)));
+        userDetailsCache.get("testuser");
+
+        LocalDateTime changedAt = LocalDateTime.now();
+        when(userRepository.findLatestUpdatedAt()).thenReturn(Optional.of(changedAt));
+        when(userRepository.findTokenStatesChangedSince(any())).thenReturn(List.of(
+                new UserTokenState("testuser", 1, false, changedAt)));
+        userDetailsCache.checkVersion();
+        userDetailsCache.get("testuser");
+
+        verify(userRepository, times(2)).findByUsername("testuser");
+        verify(userRepository).findTokenStatesChangedSince(initialWatermark.minusSeconds(2));
+    }
+
+    @Test
+    @DisplayName("Não deve buscar alterações quando a marca d'água não mudou")
+    void shouldSkipWhenWatermarkUnchanged() {
+        userDetailsCache.checkVersion();
+
+        verify(userRepository, never()).findTokenStatesChangedSince(any());
+    }
+
+    private User createUser(String username, boolean active) {
+        return User.builder()
+                .username(username)
+                .password("encodedPassword")
+                .name("Test User")
+                .active(active)
+                .build();
+    }
+}
@@ -2,7 +2,13 @@ package com.graceconsulting.cardmanagement.service;
 
 import com.graceconsulting.cardmanagement.dto.AuthRequest;
 import com.graceconsulting.cardmanagement.dto.AuthResponse;
+import com.graceconsulting.cardmanagement.entity.User;
+import com.graceconsulting.cardmanagement.exception.BusinessException;
+import com.graceconsulting.cardmanagement.exception.TooManyRequestsException;
 import com.graceconsulting.cardmanagement.security.JwtTokenProvider;
+import com.graceconsulting.cardmanagement.security.LoginThrottle;
+import com.graceconsulting.cardmanagement.security.RevokedTokenStore;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -20,9 +26,13 @@ import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +45,15 @@ class AuthServiceTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private LoginThrottle loginThrottle;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private RevokedTokenStore revokedTokenStore;
+
     @InjectMocks
     private AuthService authService;
 
@@ -262,4 +281,138 @@ class AuthServiceTest {
             assertEquals(expectedToken, response.token());
         }
     }
+
+    @Nested
+    @DisplayName("Testes de Limite de Login")
+    class LoginThrottleTests {
+
+        @Test
+        @DisplayName("Não deve chamar o AuthenticationManager quando o login estiver limitado")
+        void shouldNotAuthenticateWhenThrottled() {
+            AuthRequest request = new AuthRequest("user", "password");
+            doThrow(new TooManyRequestsException("Muitas tentativas de login, tente novamente mais tarde", 5))
+                    .when(loginThrottle).check("user", "10.0.0.1");
+
+            assertThrows(TooManyRequestsException.class, () -> authService.authenticate(request, "10.0.0.1"));
+
+            verifyNoInteractions(authenticationManager, jwtTokenProvider);
+        }
+
+        @Test
+        @DisplayName("Deve consultar o limite antes de autenticar")
+        void shouldCheckThrottleBeforeAuthenticating() {
+            AuthRequest request = new AuthRequest("user", "password");
+            Authentication authentication = mock(Authentication.class);
+            when(authenticationManager.authenticate(any())).thenReturn(authentication);
+            when(jwtTokenProvider.generateToken(authentication)).thenReturn("token");
+
+            authService.authenticate(request, "10.0.0.1");
+
+            var inOrder = inOrder(loginThrottle, authenticationManager);
+            inOrder.verify(loginThrottle).check("user", "10.0.0.1");
+            inOrder.verify(authenticationManager).authenticate(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Testes de Refresh Token e Logout")
+    class RefreshTokenTests {
+
+        private JwtTokenProvider provider;
+        private AuthService service;
+        private User user;
+
+        @BeforeEach
+        void setUp() {
+            provider = new JwtTokenProvider();
+            ReflectionTestUtils.setField(provider, "jwtSecret", "test-secret-key-for-jwt-minimum-256-bits-required-here");
+            ReflectionTestUtils.setField(provider, "jwtExpiration", 86400000L);
+            ReflectionTestUtils.setField(provider, "refreshEnabled", true);
+            ReflectionTestUtils.setField(provider, "accessExpirationMs", 900000L);
+            ReflectionTestUtils.setField(provider, "refreshExpirationMs", 604800000L);
+            provider.init();
+            service = new AuthService(authenticationManager, provider, loginThrottle, userDetailsService, revokedTokenStore);
+            user = User.builder().username("user").password("hash").name("User").build();
+        }
+
+        @Test
+        @DisplayName("Deve emitir access token curto e refresh token no login")
+        void shouldIssueRefreshTokenOnLogin() {
+            when(authenticationManager.authenticate(any()))
+                    .thenReturn(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+            AuthResponse response = service.authenticate(new AuthRequest("user", "password"));
+
+            assertEquals(900L, response.expiresIn());
+            assertNotNull(response.refreshToken());
+            assertTrue(JwtTokenProvider.isRefreshToken(provider.parseClaims(response.refreshToken())));
+            assertFalse(JwtTokenProvider.isRefreshToken(provider.parseClaims(response.token())));
+        }
+
+        @Test
+        @DisplayName("Deve trocar o refresh token por um novo par e revogar o antigo")
+        void shouldRotateRefreshToken() {
+            String refreshToken = provider.generateRefreshToken(user);
+            String jti = provider.parseClaims(refreshToken).getId();
+            when(userDetailsService.loadUserByUsername("user")).thenReturn(user);
+
+            AuthResponse response = service.refresh(refreshToken);
+
+            verify(revokedTokenStore).revoke(eq(jti), any());
+            assertEquals("user", provider.getUsernameFromToken(response.token()));
+            assertNotEquals(jti, provider.parseClaims(response.refreshToken()).getId());
+        }
+
+        @Test
+        @DisplayName("Deve recusar refresh token reutilizado")
+        void shouldRejectReusedRefreshToken() {
+            String refreshToken = provider.generateRefreshToken(user);
+            when(userDetailsService.loadUserByUsername("user")).thenReturn(user);
+            doThrow(new DataIntegrityViolationException("duplicado")).when(revokedTokenStore).revoke(any(), any());
+
+            assertThrows(BadCredentialsException.class, () -> service.refresh(refreshToken));
+        }
+
+        @Test
+        @DisplayName("Deve recusar access token no lugar do refresh token")
+        void shouldRejectAccessTokenAsRefreshToken() {
+            String accessToken = provider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+
+            assertThrows(BadCredentialsException.class, () -> service.refresh(accessToken));
+            verifyNoInteractions(userDetailsService);
+        }
+
+        @Test
+        @DisplayName("Deve recusar refresh token de usuário com versão de token mais nova")
+        void shouldRejectRefreshTokenAfterPasswordChange() {
+            String refreshToken = provider.generateRefreshToken(user);
+            user.setTokenVersion(1);
+            when(userDetailsService.loadUserByUsername("user")).thenReturn(user);
+
+            assertThrows(BadCredentialsException.class, () -> service.refresh(refreshToken));
+            verify(revokedTokenStore, never()).revoke(any(), any());
+        }
+
+        @Test
+        @DisplayName("Deve revogar access e refresh token no logout e ignorar token inválido")
+        void shouldRevokeTokensOnLogout() {
+            String accessToken = provider.generateToken(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+            String refreshToken = provider.generateRefreshToken(user);
+
+            service.logout(accessToken, refreshToken);
+            service.logout("invalid.token.here", null);
+
+            verify(revokedTokenStore).revoke(eq(provider.parseClaims(accessToken).getId()), any());
+            verify(revokedTokenStore).revoke(eq(provider.parseClaims(refreshToken).getId()), any());
+            verify(revokedTokenStore, times(2)).revoke(any(), any());
+        }
+
+        @Test
+        @DisplayName("Deve recusar logout com refresh token desabilitado")
+        void shouldRejectLogoutWhenDisabled() {
+            ReflectionTestUtils.setField(provider, "refreshEnabled", false);
+
+            assertThrows(BusinessException.class, () -> service.logout("token", null));
+        }
+    }
 }
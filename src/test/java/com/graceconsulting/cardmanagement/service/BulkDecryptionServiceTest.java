@@ -0,0 +1,73 @@
+package com.graceconsulting.cardmanagement.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BulkDecryptionService Tests")
+class BulkDecryptionServiceTest {
+
+    private EncryptionService encryptionService;
+    private BulkDecryptionService bulkDecryptionService;
+
+    @BeforeEach
+    void setUp() {
+        encryptionService = new EncryptionService();
+        ReflectionTestUtils.setField(encryptionService, "secretKey",
+            "test-secret-key-for-jwt-minimum-256-bits-required-here");
+        encryptionService.init();
+
+        bulkDecryptionService = new BulkDecryptionService(encryptionService);
+        ReflectionTestUtils.setField(bulkDecryptionService, "parallelism", 3);
+        ReflectionTestUtils.setField(bulkDecryptionService, "chunkSize", 7);
+        bulkDecryptionService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkDecryptionService.stop();
+    }
+
+    @Test
+    @DisplayName("Deve decifrar em paralelo e entregar na ordem de entrada")
+    void shouldDecryptInParallelPreservingOrder() {
+        List<String> numbers = new ArrayList<>();
+        List<String> ciphertexts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String number = "4111" + String.format("%012d", i);
+            numbers.add(number);
+            ciphertexts.add(encryptionService.encrypt(number));
+        }
+        List<String> decrypted = new ArrayList<>();
+
+        long total = bulkDecryptionService.decryptAll(ciphertexts.stream(), decrypted::add);
+
+        assertEquals(100, total);
+        assertEquals(numbers, decrypted);
+    }
+
+    @Test
+    @DisplayName("Deve retornar zero para entrada vazia")
+    void shouldReturnZeroForEmptyInput() {
+        List<String> decrypted = new ArrayList<>();
+
+        assertEquals(0, bulkDecryptionService.decryptAll(Stream.empty(), decrypted::add));
+        assertTrue(decrypted.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve propagar falha de texto cifrado inválido")
+    void shouldPropagateInvalidCiphertextFailure() {
+        Stream<String> input = Stream.of(encryptionService.encrypt("4111111111111111"), "bm90LWNpZnJhZG8=");
+
+        assertThrows(RuntimeException.class, () -> bulkDecryptionService.decryptAll(input, value -> { }));
+    }
+}
@@ -0,0 +1,116 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.dto.CardRequest;
+import com.graceconsulting.cardmanagement.dto.CardResponse;
+import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "card.blind-index.enabled=true",
+        "card.blind-index.backfill.chunk-size=2",
+        "card.blind-index.backfill.interval-ms=3600000"
+})
+@ActiveProfiles("test")
+@DisplayName("CardBlindIndexBackfillService Tests")
+class CardBlindIndexBackfillServiceTest {
+
+    @Autowired
+    private CardBlindIndexBackfillService backfillService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve gravar o blind index no cadastro")
+    void shouldWriteBlindIndexOnCreate() {
+        CardResponse created = cardService.createCard(new CardRequest("4111111111111111"));
+
+        Card stored = cardRepository.findById(created.id()).orElseThrow();
+        BlindIndex expected = encryptionService.blindIndex("4111111111111111");
+        assertEquals(expected.prefix(), stored.getCardNumberBlindIndex());
+        assertArrayEquals(expected.digestBytes(), stored.getCardNumberBlindDigest());
+        assertEquals(created.id(), cardRepository.findIdByBlindIndex(expected.prefix(), expected.digestBytes()).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Deve preencher linhas antigas em lotes e só então buscar pelo blind index")
+    void shouldBackfillLegacyRowsInChunksBeforeSwitchingReads() {
+        List<String> numbers = List.of("4111111111111111", "5500000000000004", "340000000000009");
+        for (String number : numbers) {
+            cardRepository.save(Card.builder()
+                    .cardNumberEncrypted(encryptionService.encrypt(number))
+                    .cardNumberHash(encryptionService.hash(number))
+                    .build());
+        }
+        backfillService.init();
+
+        backfillService.backfillChunk();
+        assertFalse(backfillService.isReadable());
+
+        backfillService.backfillChunk();
+        backfillService.backfillChunk();
+
+        assertTrue(backfillService.isReadable());
+        assertFalse(cardRepository.existsByCardNumberBlindIndexIsNull());
+        for (String number : numbers) {
+            assertTrue(cardService.searchCard(number).found());
+        }
+        assertFalse(cardService.searchCard("6011000000000004").found());
+    }
+
+    @Test
+    @DisplayName("Deve manter a leitura pelo blind index e preencher no lugar linhas gravadas após a conclusão")
+    void shouldKeepReadsOnBlindIndexWhenStragglerArrivesAfterCompletion() {
+        backfillService.backfillChunk();
+        assertTrue(backfillService.isReadable());
+
+        String straggler = "5500000000000004";
+        cardRepository.save(Card.builder()
+                .cardNumberEncrypted(encryptionService.encrypt(straggler))
+                .cardNumberHash(encryptionService.hash(straggler))
+                .build());
+
+        backfillService.backfillChunk();
+
+        assertTrue(backfillService.isReadable());
+        assertFalse(cardRepository.existsByCardNumberBlindIndexIsNull());
+        assertTrue(cardService.searchCard(straggler).found());
+    }
+
+    @Test
+    @DisplayName("Deve descartar candidato com o mesmo prefixo e digest diferente")
+    void shouldRejectPrefixCollisionWithDifferentDigest() {
+        BlindIndex real = encryptionService.blindIndex("4111111111111111");
+        cardRepository.save(Card.builder()
+                .cardNumberEncrypted(encryptionService.encrypt("4111111111111111"))
+                .cardNumberHash(encryptionService.hash("4111111111111111"))
+                .cardNumberBlindIndex(real.prefix())
+                .cardNumberBlindDigest(real.digestBytes())
+                .build());
+
+        byte[] otherDigest = encryptionService.blindIndex("5500000000000004").digestBytes();
+
+        assertTrue(cardRepository.findIdByBlindIndex(real.prefix(), otherDigest).isEmpty());
+    }
+}
@@ -0,0 +1,332 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.dto.CardIndexEntry;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CardIndexSnapshotService Tests")
+class CardIndexSnapshotServiceTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardStorageMigrationService cardStorageMigrationService;
+
+    @TempDir
+    Path tempDir;
+
+    private Path snapshotPath;
+
+    @BeforeEach
+    void setUp() {
+        snapshotPath = tempDir.resolve("card-index.snapshot");
+    }
+
+    @Test
+    @DisplayName("Não deve consultar o banco quando desabilitado")
+    void shouldDoNothingWhenDisabled() {
+        CardIndexSnapshotService service = newService(false);
+
+        service.replay();
+        service.writeSnapshot();
+
+        assertTrue(service.lookup(hash(1)).isEmpty());
+        verifyNoInteractions(cardRepository);
+        assertFalse(Files.exists(snapshotPath));
+    }
+
+    @Test
+    @DisplayName("Deve encontrar entradas reprocessadas do banco antes de gravar o snapshot")
+    void shouldFindReplayedEntriesBeforeSnapshotIsWritten() {
+        List<CardIndexEntry> entries = entries(3);
+        stubRepository(entries);
+        CardIndexSnapshotService service = newService(true);
+
+        service.replay();
+
+        for (CardIndexEntry entry : entries) {
+            assertEquals(Optional.of(entry.id()), service.lookup(entry.cardNumberHash()));
+        }
+        assertTrue(service.lookup(hash(99)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve mapear o snapshot gravado e responder por busca binária após reinício")
+    void shouldMapWrittenSnapshotAfterRestart() {
+        List<CardIndexEntry> entries = entries(50);
+        stubRepository(entries);
+        CardIndexSnapshotService first = newService(true);
+        first.writeSnapshot();
+
+        assertTrue(Files.exists(snapshotPath));
+
+        CardIndexSnapshotService restarted = newService(true);
+
+        assertEquals(50, restarted.size());
+        for (CardIndexEntry entry : entries) {
+            assertEquals(Optional.of(entry.id()), restarted.lookup(entry.cardNumberHash()));
+        }
+        assertTrue(restarted.lookup(hash(1000)).isEmpty());
+        assertTrue(restarted.lookup("not-a-hash").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Deve reprocessar apenas linhas a partir da marca d'água após reinício")
+    void shouldReplayFromHighWaterMarkAfterRestart() {
+        List<CardIndexEntry> entries = entries(5);
+        stubRepository(entries);
+        newService(true).writeSnapshot();
+        clearInvocations(cardRepository);
+
+        CardIndexSnapshotService restarted = newService(true);
+        restarted.replay();
+
+        LocalDateTime highWaterMark = entries.get(entries.size() - 1).createdAt();
+        verify(cardRepository).findIndexEntriesAfter(eq(highWaterMark.minusSeconds(2)), any(UUID.class), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Deve mesclar novas entradas com o snapshot existente")
+    void shouldMergeNewEntriesIntoExistingSnapshot() {
+        List<CardIndexEntry> entries = new ArrayList<>(entries(10));
+        stubRepository(entries);
+        CardIndexSnapshotService service = newService(true);
+        service.writeSnapshot();
+
+        CardIndexEntry late = new CardIndexEntry(UUID.randomUUID(), hash(500), BASE_TIME.plusHours(1));
+        entries.add(late);
+        service.writeSnapshot();
+
+        CardIndexSnapshotService restarted = newService(true);
+
+        assertEquals(11, restarted.size());
+        assertEquals(Optional.of(late.id()), restarted.lookup(late.cardNumberHash()));
+        assertEquals(Optional.of(entries.get(0).id()), restarted.lookup(entries.get(0).cardNumberHash()));
+    }
+
+    @Test
+    @DisplayName("Deve gravar a primeira carga direto no arquivo, sem acumular entradas pendentes")
+    void shouldStreamInitialLoadIntoSnapshotFile() {
+        List<CardIndexEntry> entries = entries(10);
+        stubRepository(entries);
+        CardIndexSnapshotService service = newService(true);
+
+        service.replay();
+
+        assertTrue(Files.exists(snapshotPath));
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(service, "delta")).isEmpty());
+        assertEquals(10, service.size());
+        for (CardIndexEntry entry : entries) {
+            assertEquals(Optional.of(entry.id()), service.lookup(entry.cardNumberHash()));
+        }
+        assertEquals(10, newService(true).size());
+    }
+
+    @Test
+    @DisplayName("Deve adiar a marca d'água para o início da carga quando linhas chegam durante a paginação")
+    void shouldCapHighWaterMarkAtLoadStart() {
+        LocalDateTime now = LocalDateTime.now();
+        List<CardIndexEntry> entries = new ArrayList<>(entries(3));
+        entries.add(new CardIndexEntry(UUID.randomUUID(), hash(50), now.plusHours(1)));
+        stubRepository(entries);
+        CardIndexSnapshotService service = newService(true);
+
+        service.replay();
+
+        CardIndexSnapshotService restarted = newService(true);
+        LocalDateTime highWaterMark = (LocalDateTime) ReflectionTestUtils.getField(restarted, "replayedUntil");
+        assertFalse(highWaterMark.isBefore(now.minusSeconds(1)));
+        assertTrue(highWaterMark.isBefore(now.plusHours(1)));
+    }
+
+    @Test
+    @DisplayName("Deve chavear pelo blind index e descartar um snapshot gravado com o hash sem chave")
+    void shouldKeyByBlindIndexAndDiscardUnkeyedSnapshot() {
+        List<CardIndexEntry> unkeyed = entries(5);
+        stubRepository(unkeyed);
+        newService(true).writeSnapshot();
+
+        List<CardIndexEntry> blind = entries(3);
+        stubBlindRepository(blind);
+        CardIndexSnapshotService service = newService(true, true);
+
+        assertTrue(service.isKeyedByBlindIndex());
+        assertEquals(0, service.size());
+        service.replay();
+
+        assertEquals(3, service.size());
+        for (CardIndexEntry entry : blind) {
+            assertEquals(Optional.of(entry.id()), service.lookup(entry.cardNumberHash()));
+        }
+        assertEquals(3, newService(true, true).size());
+    }
+
+    @Test
+    @DisplayName("Deve chavear pelo digest binário após a migração, mantendo o snapshot gravado com o hash")
+    void shouldKeyByBinaryDigestAfterMigration() {
+        List<CardIndexEntry> beforeMigration = entries(4);
+        stubRepository(beforeMigration);
+        newService(true).writeSnapshot();
+        clearInvocations(cardRepository);
+
+        List<CardIndexEntry> migrated = new ArrayList<>(beforeMigration);
+        CardIndexEntry late = new CardIndexEntry(UUID.randomUUID(), hash(500), BASE_TIME.plusHours(1));
+        migrated.add(late);
+        stubDigestRepository(migrated);
+        when(cardStorageMigrationService.isBinaryReadable()).thenReturn(true);
+
+        CardIndexSnapshotService restarted = newService(true);
+        assertEquals(4, restarted.size());
+        restarted.replay();
+
+        assertEquals(Optional.of(late.id()), restarted.lookup(late.cardNumberHash()));
+        assertEquals(Optional.of(beforeMigration.get(0).id()), restarted.lookup(beforeMigration.get(0).cardNumberHash()));
+        verify(cardRepository, never()).findIndexEntriesAfter(any(LocalDateTime.class), any(UUID.class), any(Pageable.class));
+
+        restarted.writeSnapshot();
+        assertEquals(5, newService(true).size());
+    }
+
+    @Test
+    @DisplayName("Deve montar o snapshot inicial pelo digest binário quando o hash em texto foi anulado")
+    void shouldBuildInitialSnapshotFromBinaryDigest() {
+        List<CardIndexEntry> migrated = entries(6);
+        stubDigestRepository(migrated);
+        when(cardStorageMigrationService.isBinaryReadable()).thenReturn(true);
+        CardIndexSnapshotService service = newService(true);
+
+        service.replay();
+
+        assertEquals(6, service.size());
+        for (CardIndexEntry entry : migrated) {
+            assertEquals(Optional.of(entry.id()), service.lookup(entry.cardNumberHash()));
+        }
+        verify(cardRepository, never()).findIndexEntriesOrderedByHash(any(String.class), any(Pageable.class));
+    }
+
+    private CardIndexSnapshotService newService(boolean enabled) {
+        return newService(enabled, false);
+    }
+
+    private CardIndexSnapshotService newService(boolean enabled, boolean blindIndexKeys) {
+        CardIndexSnapshotService service = new CardIndexSnapshotService(cardRepository, cardStorageMigrationService);
+        ReflectionTestUtils.setField(service, "enabled", enabled);
+        ReflectionTestUtils.setField(service, "blindIndexKeys", blindIndexKeys);
+        ReflectionTestUtils.setField(service, "snapshotPath", snapshotPath.toString());
+        ReflectionTestUtils.setField(service, "replayPageSize", 4);
+        ReflectionTestUtils.setField(service, "replayOverlapMs", 2000L);
+        service.init();
+        return service;
+    }
+
+    // Simula a paginação por keyset do repositório sobre uma lista em memória
+    private void stubRepository(List<CardIndexEntry> entries) {
+        lenient().when(cardRepository.findIndexEntriesAfter(any(LocalDateTime.class), any(UUID.class), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    LocalDateTime since = invocation.getArgument(0);
+                    UUID lastId = invocation.getArgument(1);
+                    Pageable pageable = invocation.getArgument(2);
+                    return entries.stream()
+                            .filter(e -> e.createdAt().isAfter(since)
+                                    || (e.createdAt().isEqual(since) && e.id().compareTo(lastId) > 0))
+                            .limit(pageable.getPageSize())
+                            .toList();
+                });
+        stubOrderedRepository(entries);
+    }
+
+    private void stubOrderedRepository(List<CardIndexEntry> entries) {
+        lenient().when(cardRepository.findIndexEntriesOrderedByHash(any(String.class), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    String after = invocation.getArgument(0);
+                    Pageable pageable = invocation.getArgument(1);
+                    return entries.stream()
+                            .filter(e -> e.cardNumberHash().compareTo(after) > 0)
+                            .sorted(Comparator.comparing(CardIndexEntry::cardNumberHash))
+                            .limit(pageable.getPageSize())
+                            .toList();
+                });
+    }
+
+    // Após a migração o hash em texto é nulo: só as consultas pelo digest enxergam as linhas
+    private void stubDigestRepository(List<CardIndexEntry> entries) {
+        lenient().when(cardRepository.findDigestEntriesAfter(any(LocalDateTime.class), any(UUID.class), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    LocalDateTime since = invocation.getArgument(0);
+                    UUID lastId = invocation.getArgument(1);
+                    Pageable pageable = invocation.getArgument(2);
+                    return entries.stream()
+                            .filter(e -> e.createdAt().isAfter(since)
+                                    || (e.createdAt().isEqual(since) && e.id().compareTo(lastId) > 0))
+                            .sorted(Comparator.comparing(CardIndexEntry::createdAt).thenComparing(CardIndexEntry::id))
+                            .limit(pageable.getPageSize())
+                            .toList();
+                });
+        lenient().when(cardRepository.findDigestEntriesOrderedByDigest(any(byte[].class), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    String after = HexFormat.of().formatHex(invocation.<byte[]>getArgument(0));
+                    Pageable pageable = invocation.getArgument(1);
+                    return entries.stream()
+                            .filter(e -> e.cardNumberHash().compareTo(after) > 0)
+                            .sorted(Comparator.comparing(CardIndexEntry::cardNumberHash))
+                            .limit(pageable.getPageSize())
+                            .toList();
+                });
+    }
+
+    private void stubBlindRepository(List<CardIndexEntry> entries) {
+        lenient().when(cardRepository.findBlindIndexEntriesAfter(any(LocalDateTime.class), any(UUID.class), any(Pageable.class)))
+                .thenReturn(List.of());
+        lenient().when(cardRepository.findBlindIndexEntriesOrderedByDigest(any(byte[].class), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    String after = HexFormat.of().formatHex(invocation.<byte[]>getArgument(0));
+                    Pageable pageable = invocation.getArgument(1);
+                    return entries.stream()
+                            .filter(e -> e.cardNumberHash().compareTo(after) > 0)
+                            .sorted(Comparator.comparing(CardIndexEntry::cardNumberHash))
+                            .limit(pageable.getPageSize())
+                            .toList();
+                });
+    }
+
+    private List<CardIndexEntry> entries(int count) {
+        List<CardIndexEntry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            entries.add(new CardIndexEntry(UUID.randomUUID(), hash(i), BASE_TIME.plusSeconds(i)));
+        }
+        return entries;
+    }
+
+    private String hash(int seed) {
+        EncryptionService encryptionService = new EncryptionService();
+        return encryptionService.hash("card-" + seed);
+    }
+}
@@ -0,0 +1,145 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.entity.JobCursor;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import com.graceconsulting.cardmanagement.repository.JobCursorRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "encryption.keys=1:rotation-test-secret",
+        "encryption.rotation.enabled=true",
+        "encryption.rotation.chunk-size=4",
+        "encryption.rotation.workers=2",
+        "encryption.rotation.max-rows-per-second=100000",
+        "encryption.rotation.initial-delay-ms=3600000"
+})
+@ActiveProfiles("test")
+@DisplayName("CardKeyRotationService Tests")
+class CardKeyRotationServiceTest {
+
+    @Autowired
+    private CardKeyRotationService rotationService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private JobCursorRepository jobCursorRepository;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private EncryptionService legacy;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository.deleteAll();
+        jobCursorRepository.deleteAll();
+        ReflectionTestUtils.setField(rotationService, "completedVersion", -1);
+        ReflectionTestUtils.setField(rotationService, "totalRows", -1L);
+        legacy = new EncryptionService();
+        ReflectionTestUtils.setField(legacy, "secretKey", "test-secret-key-for-jwt-minimum-256-bits-required-here");
+        legacy.init();
+    }
+
+    @Test
+    @DisplayName("Deve recifrar em lotes com a chave atual e registrar o cursor até concluir")
+    void shouldReencryptInChunksAndPersistCursor() {
+        List<String> numbers = seedLegacyCards(10);
+        double rotatedBefore = meterRegistry.get("cards.key-rotation.rows").counter().count();
+
+        rotationService.rotateChunk();
+        JobCursor cursor = jobCursorRepository.findById("card-key-rotation-v1").orElseThrow();
+        assertEquals(4, cursor.getProcessed());
+        assertFalse(cursor.isCompleted());
+
+        for (int i = 0; i < 3; i++) {
+            rotationService.rotateChunk();
+        }
+
+        cursor = jobCursorRepository.findById("card-key-rotation-v1").orElseThrow();
+        assertTrue(cursor.isCompleted());
+        assertEquals(10, cursor.getProcessed());
+        assertEquals(10.0, meterRegistry.get("cards.key-rotation.rows").counter().count() - rotatedBefore);
+        assertEquals(1.0, meterRegistry.get("cards.key-rotation.progress").gauge().value());
+        for (Card card : cardRepository.findAll()) {
+            assertEquals(1, Base64.getDecoder().decode(card.getCardNumberEncrypted())[0]);
+            assertTrue(numbers.contains(encryptionService.decrypt(card.getCardNumberEncrypted())));
+        }
+    }
+
+    @Test
+    @DisplayName("Não deve processar lotes enquanto outro nó detém o lease do cursor")
+    void shouldSkipWhileAnotherNodeHoldsLease() {
+        seedLegacyCards(6);
+        List<String> legacyCiphertexts = cardRepository.findAll().stream().map(Card::getCardNumberEncrypted).toList();
+        jobCursorRepository.save(JobCursor.builder()
+                .name("card-key-rotation-v1")
+                .leaseOwner("outro-no")
+                .leaseUntil(LocalDateTime.now().plusHours(1))
+                .build());
+
+        rotationService.rotateChunk();
+
+        JobCursor cursor = jobCursorRepository.findById("card-key-rotation-v1").orElseThrow();
+        assertEquals(0, cursor.getProcessed());
+        assertEquals("outro-no", cursor.getLeaseOwner());
+        assertEquals(legacyCiphertexts, cardRepository.findAll().stream().map(Card::getCardNumberEncrypted).toList());
+
+        cursor.setLeaseUntil(LocalDateTime.now().minusSeconds(1));
+        jobCursorRepository.save(cursor);
+
+        rotationService.rotateChunk();
+
+        cursor = jobCursorRepository.findById("card-key-rotation-v1").orElseThrow();
+        assertEquals(4, cursor.getProcessed());
+        assertNotEquals("outro-no", cursor.getLeaseOwner());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar a gravação de um cartão lido antes de outra escrita na mesma linha")
+    void shouldRejectStaleCardWrite() {
+        seedLegacyCards(1);
+        Card stale = cardRepository.findAll().get(0);
+
+        rotationService.rotateChunk();
+
+        stale.setBatchId("batch-antigo");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> cardRepository.save(stale));
+        Card current = cardRepository.findById(stale.getId()).orElseThrow();
+        assertEquals(1, Base64.getDecoder().decode(current.getCardNumberEncrypted())[0]);
+        assertNull(current.getBatchId());
+    }
+
+    private List<String> seedLegacyCards(int count) {
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String number = "411111111111" + String.format("%04d", i);
+            numbers.add(number);
+            cardRepository.save(Card.builder()
+                    .cardNumberEncrypted(legacy.encrypt(number))
+                    .cardNumberHash(encryptionService.hash(number))
+                    .build());
+        }
+        return numbers;
+    }
+}
@@ -0,0 +1,193 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.dto.CardIndexEntry;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CardLookupBatcher Tests")
+class CardLookupBatcherTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardStorageMigrationService cardStorageMigrationService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardLookupBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        batcher = new CardLookupBatcher(cardRepository, cardStorageMigrationService, meterRegistry);
+        ReflectionTestUtils.setField(batcher, "enabled", true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.stop();
+    }
+
+    @Test
+    @DisplayName("Deve resolver buscas da mesma janela com uma única consulta IN")
+    void shouldResolveLookupsOfSameWindowWithSingleQuery() throws Exception {
+        configure(200_000, 64);
+        UUID existingId = UUID.randomUUID();
+        when(cardRepository.findIndexEntriesByHashes(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> hashes = invocation.getArgument(0);
+            return hashes.contains("hash-1")
+                    ? List.of(new CardIndexEntry(existingId, "hash-1", LocalDateTime.now()))
+                    : List.of();
+        });
+
+        CompletableFuture<Optional<UUID>> first = batcher.lookup("hash-1");
+        CompletableFuture<Optional<UUID>> second = batcher.lookup("hash-2");
+        CompletableFuture<Optional<UUID>> duplicate = batcher.lookup("hash-1");
+
+        assertEquals(Optional.of(existingId), first.get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.empty(), second.get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.of(existingId), duplicate.get(5, TimeUnit.SECONDS));
+        verify(cardRepository, times(1)).findIndexEntriesByHashes(anyCollection());
+        assertEquals(2.0, meterRegistry.get("cards.search.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("Deve dividir as buscas respeitando o tamanho máximo do lote")
+    void shouldSplitLookupsByMaxBatchSize() throws Exception {
+        configure(200_000, 2);
+        when(cardRepository.findIndexEntriesByHashes(anyCollection())).thenReturn(List.of());
+
+        List<CompletableFuture<Optional<UUID>>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(batcher.lookup("hash-" + i));
+        }
+        for (CompletableFuture<Optional<UUID>> future : futures) {
+            assertEquals(Optional.empty(), future.get(5, TimeUnit.SECONDS));
+        }
+
+        verify(cardRepository, times(3)).findIndexEntriesByHashes(anyCollection());
+        assertEquals(2.0, meterRegistry.get("cards.search.batch.size").summary().max());
+    }
+
+    @Test
+    @DisplayName("Deve falhar o lote e manter o despachante ativo quando a consulta lança um Error")
+    void shouldKeepDispatcherAliveWhenQueryThrowsError() {
+        configure(1_000, 64);
+        when(cardRepository.findIndexEntriesByHashes(anyCollection()))
+                .thenThrow(new OutOfMemoryError("sem heap para o lote"))
+                .thenReturn(List.of());
+
+        OutOfMemoryError error = assertThrows(OutOfMemoryError.class, () -> batcher.find("hash-1"));
+        assertEquals("sem heap para o lote", error.getMessage());
+
+        assertEquals(Optional.empty(), batcher.find("hash-2"));
+    }
+
+    @Test
+    @DisplayName("Deve propagar a falha da consulta para todos os chamadores do lote")
+    void shouldPropagateQueryFailureToAllCallers() {
+        configure(200_000, 64);
+        when(cardRepository.findIndexEntriesByHashes(anyCollection()))
+                .thenThrow(new IllegalStateException("banco indisponível"));
+
+        CompletableFuture<Optional<UUID>> first = batcher.lookup("hash-1");
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> batcher.find("hash-2"));
+        assertEquals("banco indisponível", error.getMessage());
+        assertThrows(CompletionException.class, first::join);
+    }
+
+    @Test
+    @DisplayName("Deve consultar o índice binário quando a migração terminou")
+    void shouldQueryBinaryIndexWhenMigrationIsComplete() throws Exception {
+        configure(200_000, 64);
+        UUID existingId = UUID.randomUUID();
+        String hash = "ab".repeat(32);
+        when(cardStorageMigrationService.isBinaryReadable()).thenReturn(true);
+        when(cardRepository.findIndexEntriesByDigests(anyCollection()))
+                .thenReturn(List.of(new CardIndexEntry(existingId, HexFormat.of().parseHex(hash), LocalDateTime.now())));
+
+        assertEquals(Optional.of(existingId), batcher.lookup(hash).get(5, TimeUnit.SECONDS));
+        verify(cardRepository, never()).findIndexEntriesByHashes(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Deve consultar hash e digest enquanto a migração binária não terminou")
+    void shouldQueryBothFormatsWhileMigrationIsRunning() throws Exception {
+        configure(200_000, 64);
+        UUID migratedId = UUID.randomUUID();
+        UUID legacyId = UUID.randomUUID();
+        String migrated = "ab".repeat(32);
+        String legacy = "cd".repeat(32);
+        when(cardStorageMigrationService.isBinaryFormat()).thenReturn(true);
+        when(cardRepository.findIndexEntriesByDigests(anyCollection()))
+                .thenReturn(List.of(new CardIndexEntry(migratedId, HexFormat.of().parseHex(migrated), LocalDateTime.now())));
+        when(cardRepository.findIndexEntriesByHashes(anyCollection()))
+                .thenReturn(List.of(new CardIndexEntry(legacyId, legacy, LocalDateTime.now())));
+
+        CompletableFuture<Optional<UUID>> first = batcher.lookup(migrated);
+        CompletableFuture<Optional<UUID>> second = batcher.lookup(legacy);
+
+        assertEquals(Optional.of(migratedId), first.get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.of(legacyId), second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("Deve consultar pelo prefixo do blind index e confirmar pelo digest completo")
+    void shouldQueryBlindIndexPrefixAndMatchFullDigest() throws Exception {
+        configure(200_000, 64);
+        UUID existingId = UUID.randomUUID();
+        String digest = "0123456789abcdef" + "11".repeat(24);
+        String collision = "0123456789abcdef" + "22".repeat(24);
+        when(cardRepository.findIndexEntriesByBlindIndexes(anyCollection()))
+                .thenReturn(List.of(new CardIndexEntry(existingId, digest, LocalDateTime.now())));
+
+        CompletableFuture<Optional<UUID>> hit = batcher.lookupByBlindIndex(new BlindIndex(0x0123456789abcdefL, digest));
+        CompletableFuture<Optional<UUID>> miss = batcher.lookupByBlindIndex(new BlindIndex(0x0123456789abcdefL, collision));
+
+        assertEquals(Optional.of(existingId), hit.get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.empty(), miss.get(5, TimeUnit.SECONDS));
+        verify(cardRepository).findIndexEntriesByBlindIndexes(Set.of(0x0123456789abcdefL));
+        verify(cardRepository, never()).findIndexEntriesByHashes(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Deve falhar imediatamente quando o despachante não está ativo")
+    void shouldFailImmediatelyWhenDispatcherIsNotRunning() {
+        CompletableFuture<Optional<UUID>> future = batcher.lookup("hash-1");
+
+        assertTrue(future.isCompletedExceptionally());
+        verifyNoInteractions(cardRepository);
+    }
+
+    private void configure(long windowMicros, int maxBatchSize) {
+        ReflectionTestUtils.setField(batcher, "windowMicros", windowMicros);
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", maxBatchSize);
+        batcher.start();
+    }
+}
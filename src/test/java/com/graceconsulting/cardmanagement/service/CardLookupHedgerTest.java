@@ -0,0 +1,204 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@DisplayName("CardLookupHedger Tests")
+class CardLookupHedgerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PlatformTransactionManager transactionManager;
+    private CardLookupHedger hedger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        transactionManager = mock(PlatformTransactionManager.class);
+        hedger = new CardLookupHedger(meterRegistry, transactionManager);
+        ReflectionTestUtils.setField(hedger, "enabled", true);
+        ReflectionTestUtils.setField(hedger, "percentile", 0.95);
+        ReflectionTestUtils.setField(hedger, "minDelayMs", 1L);
+        ReflectionTestUtils.setField(hedger, "maxDelayMs", 50L);
+        ReflectionTestUtils.setField(hedger, "maxAttempts", 2);
+        ReflectionTestUtils.setField(hedger, "timeoutMs", 2000L);
+        ReflectionTestUtils.setField(hedger, "budgetRatio", 0.1);
+        ReflectionTestUtils.setField(hedger, "budgetBurst", 10);
+        ReflectionTestUtils.setField(hedger, "maxThreads", 4);
+        hedger.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedger.stop();
+    }
+
+    @Test
+    @DisplayName("Não deve disparar reserva quando a primeira fonte responde a tempo")
+    void shouldNotHedgeFastLookup() {
+        UUID cardId = UUID.randomUUID();
+        AtomicInteger calls = new AtomicInteger();
+
+        Optional<UUID> result = hedger.execute(List.<Callable<Optional<UUID>>>of(() -> {
+            calls.incrementAndGet();
+            return Optional.of(cardId);
+        }));
+
+        assertEquals(Optional.of(cardId), result);
+        assertEquals(1, calls.get());
+        assertEquals(0, count("cards.search.hedging.attempts"));
+    }
+
+    @Test
+    @DisplayName("Deve disparar a segunda fonte após o atraso e cancelar a lenta")
+    void shouldHedgeSlowLookupAndCancelLoser() throws Exception {
+        UUID fastId = UUID.randomUUID();
+        CountDownLatch slowInterrupted = new CountDownLatch(1);
+        Callable<Optional<UUID>> slow = () -> {
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException e) {
+                slowInterrupted.countDown();
+                throw e;
+            }
+            return Optional.empty();
+        };
+        Callable<Optional<UUID>> fast = () -> Optional.of(fastId);
+
+        long start = System.nanoTime();
+        Optional<UUID> result = hedger.execute(List.of(slow, fast));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(Optional.of(fastId), result);
+        assertTrue(elapsedMs < 1000, "Resposta deveria vir da reserva, levou " + elapsedMs + " ms");
+        assertTrue(slowInterrupted.await(2, TimeUnit.SECONDS));
+        assertEquals(1, count("cards.search.hedging.attempts"));
+        assertEquals(1, count("cards.search.hedging.wins"));
+    }
+
+    @Test
+    @DisplayName("Deve tentar a próxima fonte imediatamente quando a primeira falha")
+    void shouldFallBackImmediatelyOnFailure() {
+        UUID cardId = UUID.randomUUID();
+        ReflectionTestUtils.setField(hedger, "hedgeDelayNanos", TimeUnit.SECONDS.toNanos(10));
+
+        Optional<UUID> result = hedger.execute(List.<Callable<Optional<UUID>>>of(
+                () -> {
+                    throw new IllegalStateException("réplica indisponível");
+                },
+                () -> Optional.of(cardId)));
+
+        assertEquals(Optional.of(cardId), result);
+    }
+
+    @Test
+    @DisplayName("Deve repropagar a falha quando todas as tentativas falham")
+    void shouldRethrowWhenAllAttemptsFail() {
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> hedger.execute(List.<Callable<Optional<UUID>>>of(() -> {
+                    throw new IllegalStateException("banco indisponível");
+                })));
+
+        assertEquals("banco indisponível", ex.getMessage());
+    }
+
+    @Test
+    @DisplayName("Deve recusar com 503 quando nenhuma tentativa responde no prazo")
+    void shouldTimeOutWhenNoAttemptAnswers() {
+        ReflectionTestUtils.setField(hedger, "timeoutMs", 100L);
+
+        assertThrows(ServiceUnavailableException.class,
+                () -> hedger.execute(List.<Callable<Optional<UUID>>>of(() -> {
+                    Thread.sleep(5000);
+                    return Optional.empty();
+                })));
+        assertEquals(1, count("cards.search.hedging.timeouts"));
+    }
+
+    @Test
+    @DisplayName("Não deve disparar reserva quando o orçamento acabou")
+    void shouldNotHedgeWithoutBudget() {
+        hedger.stop();
+        ReflectionTestUtils.setField(hedger, "budgetRatio", 0.0);
+        ReflectionTestUtils.setField(hedger, "budgetBurst", 1);
+        hedger.start();
+        UUID slowId = UUID.randomUUID();
+        UUID fastId = UUID.randomUUID();
+        Callable<Optional<UUID>> slow = () -> {
+            Thread.sleep(200);
+            return Optional.of(slowId);
+        };
+        Callable<Optional<UUID>> fast = () -> Optional.of(fastId);
+
+        assertEquals(Optional.of(fastId), hedger.execute(List.of(slow, fast)));
+        assertEquals(Optional.of(slowId), hedger.execute(List.of(slow, fast)));
+
+        assertEquals(1, count("cards.search.hedging.attempts"));
+        assertEquals(1, count("cards.search.hedging.denied"));
+    }
+
+    @Test
+    @DisplayName("Deve recusar a inicialização com max-attempts menor que 1")
+    void shouldRejectMaxAttemptsBelowOne() {
+        hedger.stop();
+        ReflectionTestUtils.setField(hedger, "maxAttempts", 0);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, hedger::start);
+        assertTrue(ex.getMessage().contains("max-attempts"));
+    }
+
+    @Test
+    @DisplayName("Deve limitar as threads de plataforma das tentativas ao tamanho configurado")
+    void shouldBoundPlatformThreads() {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(hedger, "executor");
+
+        assertEquals(4, executor.getMaximumPoolSize());
+    }
+
+    @Test
+    @DisplayName("Deve rodar cada tentativa em transação read-only com o prazo restante como timeout")
+    void shouldRunAttemptInReadOnlyTransactionWithDeadline() {
+        hedger.execute(List.<Callable<Optional<UUID>>>of(Optional::empty));
+
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.isReadOnly() && definition.getTimeout() == 2));
+    }
+
+    @Test
+    @DisplayName("Deve ajustar o atraso ao percentil das latências recentes dentro dos limites")
+    void shouldTrackPercentileDelay() {
+        for (int i = 1; i <= 100; i++) {
+            hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(i % 20 == 0 ? 40 : 10));
+        }
+        // 64 amostras: 3 lentas (4,7%) ficam acima do p95
+        assertEquals(10, hedger.getHedgeDelayMillis());
+
+        for (int i = 0; i < 128; i++) {
+            hedger.recordLatency(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+        assertEquals(50, hedger.getHedgeDelayMillis());
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}
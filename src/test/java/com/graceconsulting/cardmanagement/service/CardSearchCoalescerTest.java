@@ -0,0 +1,159 @@
+package com.graceconsulting.cardmanagement.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CardSearchCoalescer Tests")
+class CardSearchCoalescerTest {
+
+    private static final String HASH = "card_hash_value";
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardSearchCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new CardSearchCoalescer(meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Deve compartilhar uma única consulta entre chamadas concorrentes do mesmo hash")
+    void shouldShareSingleLookupBetweenConcurrentCallers() throws Exception {
+        int callers = 8;
+        UUID cardId = UUID.randomUUID();
+        AtomicInteger lookups = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<Optional<UUID>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> coalescer.execute(HASH, () -> {
+                lookups.incrementAndGet();
+                await(release);
+                return Optional.of(cardId);
+            })));
+            waitUntil(() -> meterRegistry.get("cards.search.in-flight").gauge().value() == 1);
+
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> coalescer.execute(HASH, () -> {
+                    lookups.incrementAndGet();
+                    return Optional.of(UUID.randomUUID());
+                })));
+            }
+            waitUntil(() -> coalescedCount() == callers - 1);
+            release.countDown();
+
+            for (Future<Optional<UUID>> result : results) {
+                assertEquals(Optional.of(cardId), result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, lookups.get());
+        assertEquals(1.0, meterRegistry.get("cards.search.lookups").tag("result", "executed").counter().count());
+        assertEquals(0.0, meterRegistry.get("cards.search.in-flight").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Deve executar nova consulta após a anterior terminar")
+    void shouldRunNewLookupAfterPreviousCompletes() {
+        AtomicInteger lookups = new AtomicInteger();
+
+        coalescer.execute(HASH, () -> Optional.of(new UUID(0, lookups.incrementAndGet())));
+        coalescer.execute(HASH, () -> Optional.of(new UUID(0, lookups.incrementAndGet())));
+
+        assertEquals(2, lookups.get());
+        assertEquals(0.0, coalescedCount());
+    }
+
+    @Test
+    @DisplayName("Deve propagar a exceção da consulta para quem aguardava")
+    void shouldPropagateLookupFailureToWaitingCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Optional<UUID>> leader = executor.submit(() -> coalescer.execute(HASH, () -> {
+                await(release);
+                throw new IllegalStateException("falha no banco");
+            }));
+            waitUntil(() -> meterRegistry.get("cards.search.in-flight").gauge().value() == 1);
+            Future<Optional<UUID>> follower = executor.submit(() -> coalescer.execute(HASH, Optional::empty));
+            waitUntil(() -> coalescedCount() == 1);
+            release.countDown();
+
+            Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderError.getCause());
+            assertInstanceOf(IllegalStateException.class, followerError.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve liberar quem aguardava quando a consulta lança um Error")
+    void shouldReleaseWaitingCallersWhenLookupThrowsError() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<Optional<UUID>> leader = executor.submit(() -> coalescer.execute(HASH, () -> {
+                await(release);
+                throw new StackOverflowError("recursão no driver");
+            }));
+            waitUntil(() -> meterRegistry.get("cards.search.in-flight").gauge().value() == 1);
+            Future<Optional<UUID>> follower = executor.submit(() -> coalescer.execute(HASH, Optional::empty));
+            waitUntil(() -> coalescedCount() == 1);
+            release.countDown();
+
+            Exception leaderError = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerError = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(StackOverflowError.class, leaderError.getCause());
+            assertInstanceOf(StackOverflowError.class, followerError.getCause());
+            assertEquals(0.0, meterRegistry.get("cards.search.in-flight").gauge().value());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double coalescedCount() {
+        return meterRegistry.get("cards.search.lookups").tag("result", "coalesced").counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condição não atingida no tempo esperado");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.dto.CardRequest;
+import com.graceconsulting.cardmanagement.dto.CardResponse;
+import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.exception.ResourceConflictException;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@DisplayName("CardService Concurrency Tests")
+class CardServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve aceitar exatamente um cadastro concorrente do mesmo cartão e devolver conflito aos demais")
+    void shouldAcceptExactlyOneConcurrentCreateOfSameCard() throws Exception {
+        List<Callable<CardResponse>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            tasks.add(() -> cardService.createCard(new CardRequest("4111111111111111")));
+        }
+
+        List<Future<CardResponse>> results = runConcurrently(tasks);
+
+        int created = 0;
+        int conflicts = 0;
+        for (Future<CardResponse> result : results) {
+            try {
+                assertNotNull(result.get(30, TimeUnit.SECONDS).id());
+                created++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(ResourceConflictException.class, e.getCause());
+                conflicts++;
+            }
+        }
+        assertEquals(1, created);
+        assertEquals(THREADS - 1, conflicts);
+        assertEquals(1, cardRepository.count());
+    }
+
+    @Test
+    @DisplayName("Não deve tratar violação de NOT NULL como cartão já cadastrado")
+    void shouldPropagateIntegrityViolationsOtherThanDuplicates() {
+        Card card = Card.builder()
+                .cardNumberEncrypted("encrypted")
+                .cardNumberHash("not-null-check")
+                .createdAt(null)
+                .build();
+
+        assertThrows(DataAccessException.class, () -> cardRepository.insertIfAbsent(card));
+        assertEquals(0, cardRepository.count());
+    }
+
+    @Test
+    @DisplayName("Deve aceitar cadastros concorrentes de cartões distintos")
+    void shouldAcceptConcurrentCreatesOfDistinctCards() throws Exception {
+        List<Callable<CardResponse>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            String cardNumber = String.format("41111111111%05d", i);
+            tasks.add(() -> cardService.createCard(new CardRequest(cardNumber)));
+        }
+
+        for (Future<CardResponse> result : runConcurrently(tasks)) {
+            assertNotNull(result.get(30, TimeUnit.SECONDS).id());
+        }
+        assertEquals(THREADS, cardRepository.count());
+        assertTrue(cardService.searchCard("4111111111100003").found());
+    }
+
+    private List<Future<CardResponse>> runConcurrently(List<Callable<CardResponse>> tasks) {
+        CyclicBarrier barrier = new CyclicBarrier(tasks.size());
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<CardResponse>> results = new ArrayList<>();
+            for (Callable<CardResponse> task : tasks) {
+                results.add(executor.submit(() -> {
+                    barrier.await(10, TimeUnit.SECONDS);
+                    return task.call();
+                }));
+            }
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
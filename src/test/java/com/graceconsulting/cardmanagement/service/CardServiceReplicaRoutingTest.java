@@ -0,0 +1,91 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.dto.CardRequest;
+import com.graceconsulting.cardmanagement.dto.CardSearchResponse;
+import com.graceconsulting.cardmanagement.mapper.CardMapper;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Primário e réplica apontam para o mesmo banco H2, em pools separados: o destino aparece nas métricas.
+// O H2 não tem status de replicação; a consulta de atraso faz o papel de um heartbeat sempre em dia
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routingdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "datasource.routing.enabled=true",
+        "datasource.routing.replica-urls=jdbc:h2:mem:routingdb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "datasource.routing.read-your-writes-ms=60000",
+        "datasource.routing.lag-query=select 0",
+        "spring.datasource.hikari.maximum-pool-size=7",
+        "spring.datasource.hikari.leak-detection-threshold=30000"
+})
+@ActiveProfiles("test")
+@DisplayName("CardService Replica Routing Tests")
+class CardServiceReplicaRoutingTest {
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private CardMapper cardMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve buscar na réplica o cartão cadastrado fora da janela de read-your-writes")
+    void shouldSearchOnReplica() {
+        // Gravado direto no repositório: simula um cadastro feito por outro nó
+        cardRepository.save(cardMapper.toEntity("4111111111111111", null));
+        double before = reads("replica");
+
+        CardSearchResponse response = cardService.searchCard("4111111111111111");
+
+        assertTrue(response.found());
+        assertEquals(before + 1, reads("replica"));
+    }
+
+    @Test
+    @DisplayName("Deve buscar no primário o cartão que este nó acabou de cadastrar")
+    void shouldReadYourWritesFromPrimary() {
+        cardService.createCard(new CardRequest("5500000000000004"));
+        double replicaBefore = reads("replica");
+        double readYourWritesBefore = meterRegistry.get("datasource.routing.read-your-writes").counter().count();
+
+        CardSearchResponse response = cardService.searchCard("5500000000000004");
+
+        assertTrue(response.found());
+        assertEquals(replicaBefore, reads("replica"));
+        assertEquals(readYourWritesBefore + 1, meterRegistry.get("datasource.routing.read-your-writes").counter().count());
+    }
+
+    @Test
+    @DisplayName("Deve aplicar spring.datasource.hikari.* ao pool do primário")
+    void shouldBindHikariPropertiesToPrimaryPool() {
+        assertEquals("primary", primaryDataSource.getPoolName());
+        assertEquals(7, primaryDataSource.getMaximumPoolSize());
+        assertEquals(30000, primaryDataSource.getLeakDetectionThreshold());
+    }
+
+    private double reads(String target) {
+        return meterRegistry.get("datasource.routing.reads").tag("target", target).counter().count();
+    }
+}
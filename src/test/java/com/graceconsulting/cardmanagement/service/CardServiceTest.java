@@ -9,6 +9,7 @@ import com.graceconsulting.cardmanagement.exception.BusinessException;
 import com.graceconsulting.cardmanagement.exception.ResourceConflictException;
 import com.graceconsulting.cardmanagement.mapper.CardMapper;
 import com.graceconsulting.cardmanagement.repository.CardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -19,15 +20,21 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockMultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -42,11 +49,35 @@ class CardServiceTest {
     @Mock
     private CardMapper cardMapper;
 
+    @Mock
+    private CardIndexSnapshotService cardIndexSnapshotService;
+
+    @Mock
+    private CardLookupBatcher cardLookupBatcher;
+
+    @Mock
+    private CardWriteBatcher cardWriteBatcher;
+
+    @Mock
+    private CardStorageMigrationService cardStorageMigrationService;
+
+    @Mock
+    private CardBlindIndexBackfillService cardBlindIndexBackfillService;
+
+    @Mock
+    private CardLookupHedger cardLookupHedger;
+
+    @Mock
+    private RecentCardWrites recentCardWrites;
+
+    @Spy
+    private CardSearchCoalescer cardSearchCoalescer = new CardSearchCoalescer(new SimpleMeterRegistry());
+
     @InjectMocks
     private CardService cardService;
 
     private static final String CARD_NUMBER = "4111111111111111";
-    private static final String CARD_HASH = "card_hash_value";
+    private static final String CARD_HASH = "c0ffee";
 
     @BeforeEach
     void setUp() {
@@ -75,16 +106,15 @@ class CardServiceTest {
             Card savedCard = createCard(cardId);
             CardResponse expectedResponse = new CardResponse(cardId, "****", LocalDateTime.now());
 
-            when(cardRepository.existsByCardNumberHash(anyString())).thenReturn(false);
             when(cardMapper.toEntity(request)).thenReturn(savedCard);
-            when(cardRepository.save(any(Card.class))).thenReturn(savedCard);
+            when(cardRepository.insertIfAbsent(savedCard)).thenReturn(true);
             when(cardMapper.toResponse(eq(savedCard), anyString())).thenReturn(expectedResponse);
 
             CardResponse response = cardService.createCard(request);
 
             assertNotNull(response);
             assertEquals(cardId, response.id());
-            verify(cardRepository).save(any(Card.class));
+            verify(cardRepository).insertIfAbsent(savedCard);
         }
 
         @ParameterizedTest(name = "Deve normalizar cartão: {0}")
@@ -100,9 +130,8 @@ class CardServiceTest {
             Card savedCard = createCard(cardId);
             CardResponse expectedResponse = new CardResponse(cardId, "4111****1111", LocalDateTime.now());
 
-            when(cardRepository.existsByCardNumberHash(anyString())).thenReturn(false);
             when(cardMapper.toEntity(request)).thenReturn(savedCard);
-            when(cardRepository.save(any(Card.class))).thenReturn(savedCard);
+            when(cardRepository.insertIfAbsent(savedCard)).thenReturn(true);
             when(cardMapper.toResponse(eq(savedCard), anyString())).thenReturn(expectedResponse);
 
             cardService.createCard(request);
@@ -114,26 +143,77 @@ class CardServiceTest {
         @DisplayName("Deve lançar ResourceConflictException ao criar cartão duplicado")
         void shouldThrowExceptionWhenCardAlreadyExists() {
             CardRequest request = new CardRequest(CARD_NUMBER);
+            Card card = createCard(null);
 
-            when(cardRepository.existsByCardNumberHash(CARD_HASH)).thenReturn(true);
+            when(cardMapper.toEntity(request)).thenReturn(card);
+            when(cardRepository.insertIfAbsent(card)).thenReturn(false);
 
             ResourceConflictException exception = assertThrows(ResourceConflictException.class,
                 () -> cardService.createCard(request));
 
             assertEquals("Cartão já cadastrado no sistema", exception.getMessage());
             verify(cardRepository, never()).save(any(Card.class));
+            verify(cardMapper, never()).toResponse(any(Card.class), anyString());
+        }
+
+        @Test
+        @DisplayName("Deve registrar o cadastro para leitura no primário")
+        void shouldRecordCreatedCardForReadYourWrites() {
+            CardRequest request = new CardRequest(CARD_NUMBER);
+            Card card = createCard(UUID.randomUUID());
+
+            when(cardMapper.toEntity(request)).thenReturn(card);
+            when(cardRepository.insertIfAbsent(card)).thenReturn(true);
+
+            cardService.createCard(request);
+
+            verify(recentCardWrites).record(CARD_HASH);
         }
 
         @Test
-        @DisplayName("Deve chamar hashCardNumber antes de verificar duplicidade")
-        void shouldCallHashBeforeCheckingDuplicate() {
+        @DisplayName("Deve gravar pelo group commit quando habilitado")
+        void shouldWriteThroughGroupCommitWhenEnabled() {
             CardRequest request = new CardRequest(CARD_NUMBER);
+            UUID cardId = UUID.randomUUID();
+            Card card = createCard(cardId);
+            CardResponse expectedResponse = new CardResponse(cardId, "4111****1111", LocalDateTime.now());
+
+            when(cardWriteBatcher.isEnabled()).thenReturn(true);
+            when(cardMapper.toEntity(request)).thenReturn(card);
+            when(cardWriteBatcher.submit(card)).thenReturn(card);
+            when(cardMapper.toResponse(card, CARD_NUMBER)).thenReturn(expectedResponse);
 
-            when(cardRepository.existsByCardNumberHash(CARD_HASH)).thenReturn(true);
+            CardResponse response = cardService.createCard(request);
+
+            assertEquals(cardId, response.id());
+            verify(cardRepository, never()).insertIfAbsent(any(Card.class));
+        }
+
+        @Test
+        @DisplayName("Deve propagar conflito do group commit")
+        void shouldPropagateConflictFromGroupCommit() {
+            CardRequest request = new CardRequest(CARD_NUMBER);
+            Card card = createCard(null);
+
+            when(cardWriteBatcher.isEnabled()).thenReturn(true);
+            when(cardMapper.toEntity(request)).thenReturn(card);
+            when(cardWriteBatcher.submit(card)).thenThrow(new ResourceConflictException("Cartão já cadastrado no sistema"));
+
+            assertThrows(ResourceConflictException.class, () -> cardService.createCard(request));
+        }
+
+        @Test
+        @DisplayName("Deve decidir duplicidade pelo insert atômico, sem consulta prévia")
+        void shouldDecideDuplicateThroughAtomicInsertWithoutPriorQuery() {
+            CardRequest request = new CardRequest(CARD_NUMBER);
+            Card card = createCard(null);
+
+            when(cardMapper.toEntity(request)).thenReturn(card);
+            when(cardRepository.insertIfAbsent(card)).thenReturn(false);
 
             assertThrows(ResourceConflictException.class, () -> cardService.createCard(request));
 
-            verify(cardMapper).hashCardNumber(CARD_NUMBER);
+            verify(cardRepository, never()).existsByCardNumberHash(anyString());
         }
     }
 
@@ -174,6 +254,122 @@ class CardServiceTest {
             assertNull(response.id());
         }
 
+        @Test
+        @DisplayName("Deve responder pelo snapshot do índice sem consultar o banco")
+        void shouldAnswerFromIndexSnapshotWithoutQueryingDatabase() {
+            UUID cardId = UUID.randomUUID();
+
+            when(cardIndexSnapshotService.lookup(CARD_HASH)).thenReturn(Optional.of(cardId));
+
+            CardSearchResponse response = cardService.searchCard(CARD_NUMBER);
+
+            assertTrue(response.found());
+            assertEquals(cardId, response.id());
+            verify(cardRepository, never()).findByCardNumberHash(anyString());
+        }
+
+        @Test
+        @DisplayName("Deve delegar a busca ao agrupador quando habilitado")
+        void shouldDelegateToBatcherWhenEnabled() {
+            UUID cardId = UUID.randomUUID();
+
+            when(cardLookupBatcher.isEnabled()).thenReturn(true);
+            when(cardLookupBatcher.find(CARD_HASH)).thenReturn(Optional.of(cardId));
+
+            CardSearchResponse response = cardService.searchCard(CARD_NUMBER);
+
+            assertTrue(response.found());
+            assertEquals(cardId, response.id());
+            verify(cardRepository, never()).findByCardNumberHash(anyString());
+        }
+
+        @Test
+        @DisplayName("Deve agrupar pelo blind index quando o backfill terminou")
+        void shouldBatchByBlindIndexWhenBackfillIsComplete() {
+            UUID cardId = UUID.randomUUID();
+            BlindIndex blindIndex = new BlindIndex(42L, "ab".repeat(32));
+
+            when(cardLookupBatcher.isEnabled()).thenReturn(true);
+            when(cardBlindIndexBackfillService.isReadable()).thenReturn(true);
+            when(cardMapper.blindIndexCardNumber(CARD_NUMBER)).thenReturn(blindIndex);
+            when(cardLookupBatcher.findByBlindIndex(blindIndex)).thenReturn(Optional.of(cardId));
+
+            CardSearchResponse response = cardService.searchCard(CARD_NUMBER);
+
+            assertEquals(cardId, response.id());
+            verify(cardLookupBatcher, never()).find(anyString());
+        }
+
+        @Test
+        @DisplayName("Deve consultar o banco através do hedging quando habilitado")
+        void shouldQueryThroughHedgerWhenEnabled() {
+            UUID cardId = UUID.randomUUID();
+            Card card = Card.builder().id(cardId).build();
+
+            when(cardLookupHedger.isEnabled()).thenReturn(true);
+            when(cardLookupHedger.execute(anyList())).thenAnswer(invocation -> {
+                List<Callable<Optional<UUID>>> sources = invocation.getArgument(0);
+                return sources.get(0).call();
+            });
+            when(cardRepository.findByCardNumberHash(CARD_HASH)).thenReturn(Optional.of(card));
+
+            CardSearchResponse response = cardService.searchCard(CARD_NUMBER);
+
+            assertTrue(response.found());
+            assertEquals(cardId, response.id());
+            verify(cardLookupHedger).execute(anyList());
+        }
+
+        @Test
+        @DisplayName("Deve consultar o banco direto quando o cartão foi cadastrado há pouco")
+        void shouldQueryDirectlyForRecentlyCreatedCard() {
+            UUID cardId = UUID.randomUUID();
+            Card card = Card.builder().id(cardId).build();
+
+            when(recentCardWrites.requiresPrimary(CARD_HASH)).thenReturn(true);
+            lenient().when(cardLookupBatcher.isEnabled()).thenReturn(true);
+            when(cardRepository.findByCardNumberHash(CARD_HASH)).thenReturn(Optional.of(card));
+
+            CardSearchResponse response = cardService.searchCard(CARD_NUMBER);
+
+            assertTrue(response.found());
+            verify(cardLookupBatcher, never()).find(anyString());
+            verify(cardLookupHedger, never()).execute(anyList());
+        }
+
+        @Test
+        @DisplayName("Deve buscar pelo digest binário quando a migração terminou")
+        void shouldSearchByBinaryDigestWhenMigrationIsComplete() {
+            UUID cardId = UUID.randomUUID();
+            Card card = Card.builder().id(cardId).build();
+
+            when(cardStorageMigrationService.isBinaryReadable()).thenReturn(true);
+            when(cardRepository.findByCardNumberDigest(aryEq(HexFormat.of().parseHex(CARD_HASH)))).thenReturn(Optional.of(card));
+
+            CardSearchResponse response = cardService.searchCard(CARD_NUMBER);
+
+            assertTrue(response.found());
+            assertEquals(cardId, response.id());
+            verify(cardRepository, never()).findByCardNumberHash(anyString());
+        }
+
+        @Test
+        @DisplayName("Deve buscar pelo blind index quando o backfill terminou")
+        void shouldSearchByBlindIndexWhenBackfillIsComplete() {
+            UUID cardId = UUID.randomUUID();
+            BlindIndex blindIndex = new BlindIndex(42L, "cd".repeat(32));
+
+            when(cardBlindIndexBackfillService.isReadable()).thenReturn(true);
+            when(cardMapper.blindIndexCardNumber(CARD_NUMBER)).thenReturn(blindIndex);
+            when(cardRepository.findIdByBlindIndex(eq(42L), aryEq(blindIndex.digestBytes()))).thenReturn(Optional.of(cardId));
+
+            CardSearchResponse response = cardService.searchCard(CARD_NUMBER);
+
+            assertTrue(response.found());
+            assertEquals(cardId, response.id());
+            verify(cardRepository, never()).findByCardNumberHash(anyString());
+        }
+
         @Test
         @DisplayName("Deve normalizar número antes de buscar")
         void shouldNormalizeBeforeSearch() {
@@ -0,0 +1,107 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.dto.CardRequest;
+import com.graceconsulting.cardmanagement.dto.CardResponse;
+import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.exception.ResourceConflictException;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Banco próprio: a migração remove índices e não pode afetar os contextos no formato texto
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:binarydb;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "card.storage.format=binary",
+        "card.storage.migration.chunk-size=2",
+        "card.storage.migration.interval-ms=3600000"
+})
+@ActiveProfiles("test")
+@DisplayName("CardStorageMigrationService Tests")
+class CardStorageMigrationServiceTest {
+
+    @Autowired
+    private CardStorageMigrationService migrationService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cardRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Deve gravar texto cifrado e digest só como bytes crus no formato binário")
+    void shouldStoreOnlyRawBytesInBinaryFormat() {
+        CardResponse created = cardService.createCard(new CardRequest("4111111111111111"));
+
+        byte[] digest = jdbcTemplate.queryForObject(
+                "select card_number_digest from cards where id = ?", byte[].class, created.id());
+        byte[] cipher = jdbcTemplate.queryForObject(
+                "select card_number_cipher from cards where id = ?", byte[].class, created.id());
+
+        assertEquals(32, digest.length);
+        assertEquals(12 + 16 + 16, cipher.length);
+        Card stored = cardRepository.findById(created.id()).orElseThrow();
+        assertNull(stored.getCardNumberEncrypted());
+        assertNull(stored.getCardNumberHash());
+        assertEquals(encryptionService.hash("4111111111111111"), HexFormat.of().formatHex(stored.getCardNumberDigest()));
+        assertEquals("4111111111111111",
+                encryptionService.decrypt(Base64.getEncoder().encodeToString(stored.getCardNumberCipher())));
+    }
+
+    @Test
+    @DisplayName("Deve mover linhas antigas em lotes, anular o texto e remover os índices do hash ao terminar")
+    void shouldMoveLegacyRowsInChunksAndDropHashIndexes() {
+        List<String> numbers = List.of("4111111111111111", "5500000000000004", "340000000000009");
+        for (String number : numbers) {
+            cardRepository.save(Card.builder()
+                    .cardNumberEncrypted(encryptionService.encrypt(number))
+                    .cardNumberHash(encryptionService.hash(number))
+                    .build());
+        }
+        // Reinício com linhas antigas: volta a exigir o índice único do hash
+        migrationService.init();
+        assertFalse(migrationService.isBinaryReadable());
+
+        migrationService.migrateChunk();
+        assertFalse(migrationService.isBinaryReadable());
+        for (String number : numbers) {
+            assertTrue(cardService.searchCard(number).found());
+            assertThrows(ResourceConflictException.class, () -> cardService.createCard(new CardRequest(number)));
+        }
+
+        migrationService.migrateChunk();
+        migrationService.migrateChunk();
+
+        assertTrue(migrationService.isBinaryReadable());
+        assertFalse(cardRepository.existsByCardNumberHashIsNotNull());
+        assertEquals(0, cardRepository.dropCardNumberHashIndexes());
+        for (String number : numbers) {
+            Card stored = cardRepository.findByCardNumberDigest(encryptionService.hashBytes(number)).orElseThrow();
+            assertNull(stored.getCardNumberEncrypted());
+            assertTrue(cardService.searchCard(number).found());
+            assertThrows(ResourceConflictException.class, () -> cardService.createCard(new CardRequest(number)));
+        }
+    }
+}
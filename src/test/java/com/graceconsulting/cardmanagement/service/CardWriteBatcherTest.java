@@ -0,0 +1,228 @@
+package com.graceconsulting.cardmanagement.service;
+
+import com.graceconsulting.cardmanagement.dto.CardIndexEntry;
+import com.graceconsulting.cardmanagement.entity.Card;
+import com.graceconsulting.cardmanagement.exception.ResourceConflictException;
+import com.graceconsulting.cardmanagement.repository.CardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CardWriteBatcher Tests")
+class CardWriteBatcherTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private CardStorageMigrationService cardStorageMigrationService;
+
+    @Mock
+    private CardBlindIndexBackfillService cardBlindIndexBackfillService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CardWriteBatcher batcher;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        batcher = new CardWriteBatcher(cardRepository, cardStorageMigrationService, cardBlindIndexBackfillService,
+                new TransactionTemplate(transactionManager), meterRegistry);
+        ReflectionTestUtils.setField(batcher, "enabled", true);
+        ReflectionTestUtils.setField(batcher, "windowMicros", 200_000L);
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", 4);
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        batcher.stop();
+    }
+
+    @Test
+    @DisplayName("Deve gravar cadastros concorrentes em uma única transação")
+    void shouldWriteConcurrentCreatesInSingleTransaction() throws Exception {
+        when(cardRepository.findIndexEntriesByHashes(anyCollection())).thenReturn(List.of());
+        when(cardRepository.saveAll(anyList())).thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+        batcher.start();
+
+        List<Future<Card>> results = submitAll(card("hash-1"), card("hash-2"), card("hash-3"), card("hash-4"));
+
+        for (Future<Card> result : results) {
+            assertNotNull(result.get(5, TimeUnit.SECONDS).getId());
+        }
+        verify(cardRepository, times(1)).saveAll(anyList());
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(4.0, meterRegistry.get("cards.create.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    @DisplayName("Deve devolver conflito apenas para os cartões duplicados do lote")
+    void shouldReturnConflictOnlyForDuplicatedCards() throws Exception {
+        when(cardRepository.findIndexEntriesByHashes(anyCollection())).thenReturn(
+                List.of(new CardIndexEntry(UUID.randomUUID(), "existing", LocalDateTime.now())));
+        when(cardRepository.saveAll(anyList())).thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+        batcher.start();
+
+        List<Future<Card>> results = submitAll(card("existing"), card("new"), card("new"), card("other"));
+
+        int created = 0;
+        int conflicts = 0;
+        for (Future<Card> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                created++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(ResourceConflictException.class, e.getCause());
+                conflicts++;
+            }
+        }
+        assertEquals(2, created);
+        assertEquals(2, conflicts);
+    }
+
+    @Test
+    @DisplayName("Deve gravar individualmente quando o commit do lote falha")
+    void shouldFallBackToIndividualWritesWhenBatchFails() throws Exception {
+        when(cardRepository.findIndexEntriesByHashes(anyCollection())).thenReturn(List.of());
+        when(cardRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(cardRepository.insertIfAbsent(any(Card.class))).thenAnswer(invocation -> {
+            Card card = invocation.getArgument(0);
+            card.setId(UUID.randomUUID());
+            return !"hash-1".equals(card.getCardNumberHash());
+        });
+        batcher.start();
+
+        List<Future<Card>> results = submitAll(card("hash-1"), card("hash-2"));
+
+        Exception conflict = assertThrows(Exception.class, () -> results.get(0).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ResourceConflictException.class, conflict.getCause());
+        assertNotNull(results.get(1).get(5, TimeUnit.SECONDS).getId());
+    }
+
+    @Test
+    @DisplayName("Deve falhar o lote e manter o escritor ativo quando o commit lança um Error")
+    void shouldKeepWriterAliveWhenFlushThrowsError() throws Exception {
+        when(cardRepository.findIndexEntriesByHashes(anyCollection())).thenReturn(List.of());
+        when(cardRepository.saveAll(anyList()))
+                .thenThrow(new OutOfMemoryError("sem heap para o lote"))
+                .thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+        batcher.start();
+
+        Future<Card> failed = submitAll(card("hash-1")).get(0);
+        Exception error = assertThrows(Exception.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(OutOfMemoryError.class, error.getCause());
+
+        Future<Card> next = submitAll(card("hash-2")).get(0);
+        assertNotNull(next.get(5, TimeUnit.SECONDS).getId());
+    }
+
+    @Test
+    @DisplayName("Deve verificar duplicidade pelo digest binário quando a migração terminou")
+    void shouldCheckDuplicatesByBinaryDigestWhenMigrationIsComplete() throws Exception {
+        byte[] digest = HexFormat.of().parseHex("ab".repeat(32));
+        when(cardStorageMigrationService.isBinaryFormat()).thenReturn(true);
+        when(cardStorageMigrationService.isBinaryReadable()).thenReturn(true);
+        when(cardRepository.findIndexEntriesByDigests(anyCollection())).thenReturn(
+                List.of(new CardIndexEntry(UUID.randomUUID(), digest, LocalDateTime.now())));
+        batcher.start();
+
+        Card duplicate = card(null);
+        duplicate.setCardNumberDigest(digest);
+        Future<Card> result = submitAll(duplicate).get(0);
+
+        Exception conflict = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ResourceConflictException.class, conflict.getCause());
+        verify(cardRepository, never()).findIndexEntriesByHashes(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Deve verificar duplicidade só pelo blind index quando o backfill terminou")
+    void shouldCheckDuplicatesByBlindIndexWhenBackfillIsComplete() throws Exception {
+        byte[] existingDigest = HexFormat.of().parseHex("ab".repeat(32));
+        byte[] collidingDigest = HexFormat.of().parseHex("cd".repeat(32));
+        when(cardBlindIndexBackfillService.isReadable()).thenReturn(true);
+        when(cardRepository.findIndexEntriesByBlindIndexes(anyCollection())).thenReturn(
+                List.of(new CardIndexEntry(UUID.randomUUID(), existingDigest, LocalDateTime.now())));
+        when(cardRepository.saveAll(anyList())).thenAnswer(invocation -> assignIds(invocation.getArgument(0)));
+        batcher.start();
+
+        // Mesmo prefixo, digest diferente: colisão do prefixo, não duplicata
+        Card duplicate = blindCard(42L, existingDigest);
+        Card colliding = blindCard(42L, collidingDigest);
+        List<Future<Card>> results = submitAll(duplicate, colliding);
+
+        Exception conflict = assertThrows(Exception.class, () -> results.get(0).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ResourceConflictException.class, conflict.getCause());
+        assertNotNull(results.get(1).get(5, TimeUnit.SECONDS).getId());
+        verify(cardRepository, never()).findIndexEntriesByHashes(anyCollection());
+        verify(cardRepository, never()).findIndexEntriesByDigests(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar envio quando o escritor não está ativo")
+    void shouldRejectSubmitWhenWriterIsNotRunning() {
+        assertThrows(IllegalStateException.class, () -> batcher.submit(card("hash-1")));
+        verifyNoInteractions(cardRepository);
+    }
+
+    private List<Future<Card>> submitAll(Card... cards) {
+        List<Future<Card>> results = new ArrayList<>();
+        for (Card card : cards) {
+            results.add(callers.submit(() -> batcher.submit(card)));
+        }
+        return results;
+    }
+
+    private static List<Card> assignIds(List<Card> cards) {
+        cards.forEach(card -> card.setId(UUID.randomUUID()));
+        return cards;
+    }
+
+    private static Card blindCard(long prefix, byte[] digest) {
+        return Card.builder()
+                .cardNumberCipher(new byte[] {1})
+                .cardNumberBlindIndex(prefix)
+                .cardNumberBlindDigest(digest)
+                .build();
+    }
+
+    private static Card card(String hash) {
+        return Card.builder()
+                .cardNumberEncrypted("encrypted")
+                .cardNumberHash(hash)
+                .build();
+    }
+}
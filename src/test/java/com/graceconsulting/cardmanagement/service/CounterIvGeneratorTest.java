@@ -0,0 +1,134 @@
+package com.graceconsulting.cardmanagement.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CounterIvGenerator Tests")
+class CounterIvGeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final int NODE_ID = 0x0A0B0C0D;
+
+    @Test
+    @DisplayName("Deve compor o IV com o identificador do nó e o contador sequencial")
+    void shouldComposeIvFromNodeIdAndCounter() {
+        CounterIvGenerator generator = new CounterIvGenerator(NODE_ID, tempDir.resolve("state"));
+        byte[] first = new byte[16];
+        byte[] second = new byte[IvGenerator.IV_LENGTH];
+
+        generator.nextIv(first, 4);
+        generator.nextIv(second, 0);
+
+        ByteBuffer firstIv = ByteBuffer.wrap(first, 4, IvGenerator.IV_LENGTH);
+        ByteBuffer secondIv = ByteBuffer.wrap(second);
+        assertEquals(NODE_ID, firstIv.getInt());
+        assertEquals(0L, firstIv.getLong());
+        assertEquals(NODE_ID, secondIv.getInt());
+        assertEquals(1L, secondIv.getLong());
+    }
+
+    @Test
+    @DisplayName("Deve gerar IVs únicos sob concorrência, atravessando reservas de bloco")
+    void shouldGenerateUniqueIvsUnderConcurrency() throws Exception {
+        CounterIvGenerator generator = new CounterIvGenerator(NODE_ID, tempDir.resolve("state"), 1_000, Long.MAX_VALUE);
+        Set<String> ivs = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    byte[] iv = new byte[IvGenerator.IV_LENGTH];
+                    for (int i = 0; i < 10_000; i++) {
+                        generator.nextIv(iv, 0);
+                        ivs.add(HexFormat.of().formatHex(iv));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(80_000, ivs.size());
+        assertEquals(80_000, generator.reservedUntil());
+    }
+
+    @Test
+    @DisplayName("Deve manter os blocos alinhados quando um valor maior chega primeiro à reserva")
+    void shouldKeepBlocksAlignedWhenReservedOutOfOrder() {
+        CounterIvGenerator generator = new CounterIvGenerator(NODE_ID, tempDir.resolve("state"), 4, Long.MAX_VALUE);
+
+        // Duas threads passaram do bloco [0, 4) com os valores 4 e 5; a do 5 pega o lock antes
+        ReflectionTestUtils.invokeMethod(generator, "reserve", 5L);
+        ReflectionTestUtils.invokeMethod(generator, "reserve", 4L);
+        assertEquals(8L, generator.reservedUntil());
+
+        ReflectionTestUtils.invokeMethod(generator, "reserve", 13L);
+        assertEquals(16L, generator.reservedUntil());
+    }
+
+    @Test
+    @DisplayName("Deve continuar após o último bloco reservado depois de reinício")
+    void shouldResumeAfterReservedBlockAcrossRestarts() {
+        Path state = tempDir.resolve("iv/counter");
+        CounterIvGenerator first = new CounterIvGenerator(NODE_ID, state, 4, Long.MAX_VALUE);
+        byte[] iv = new byte[IvGenerator.IV_LENGTH];
+        for (int i = 0; i < 5; i++) {
+            first.nextIv(iv, 0);
+        }
+
+        // Simula queda: os valores 5-7 reservados e não usados são descartados, nunca reutilizados
+        CounterIvGenerator restarted = new CounterIvGenerator(NODE_ID, state, 4, Long.MAX_VALUE);
+        restarted.nextIv(iv, 0);
+
+        assertEquals(8L, ByteBuffer.wrap(iv, 4, 8).getLong());
+    }
+
+    @Test
+    @DisplayName("Deve falhar ao esgotar o contador em vez de repetir IVs")
+    void shouldFailWhenCounterIsExhausted() {
+        CounterIvGenerator generator = new CounterIvGenerator(NODE_ID, tempDir.resolve("state"), 4, 2);
+        byte[] iv = new byte[IvGenerator.IV_LENGTH];
+
+        generator.nextIv(iv, 0);
+        generator.nextIv(iv, 0);
+
+        assertThrows(IllegalStateException.class, () -> generator.nextIv(iv, 0));
+    }
+
+    @Test
+    @DisplayName("Deve recusar arquivo de estado de outro nó")
+    void shouldRejectStateFileFromAnotherNode() throws Exception {
+        Path state = tempDir.resolve("state");
+        new CounterIvGenerator(NODE_ID, state);
+
+        assertThrows(IllegalStateException.class, () -> new CounterIvGenerator(NODE_ID + 1, state));
+        assertTrue(Files.readString(state).startsWith(HexFormat.of().toHexDigits(NODE_ID)));
+    }
+
+    @Test
+    @DisplayName("Deve exigir arquivo de estado")
+    void shouldRequireStatePath() {
+        assertThrows(IllegalStateException.class, () -> new CounterIvGenerator(NODE_ID, null));
+    }
+}
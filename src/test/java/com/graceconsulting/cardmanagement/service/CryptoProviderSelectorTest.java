@@ -0,0 +1,47 @@
+package com.graceconsulting.cardmanagement.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CryptoProviderSelector Tests")
+class CryptoProviderSelectorTest {
+
+    @Test
+    @DisplayName("Deve aprovar e medir o provider AES-GCM configurado")
+    void shouldApproveAndMeasureConfiguredCipherProvider() {
+        CryptoProviderSelector.Measurement measurement = CryptoProviderSelector.selectCipher(List.of("SunJCE"), false, 20);
+
+        assertEquals("SunJCE", measurement.provider().getName());
+        assertTrue(measurement.megabytesPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("Deve ignorar providers que não oferecem o algoritmo")
+    void shouldSkipProvidersWithoutAlgorithm() {
+        CryptoProviderSelector.Measurement measurement =
+                CryptoProviderSelector.selectDigest(List.of("SunJCE", "SUN"), false, 0);
+
+        assertEquals("SUN", measurement.provider().getName());
+        assertTrue(Double.isNaN(measurement.megabytesPerSecond()));
+    }
+
+    @Test
+    @DisplayName("Deve escolher o provider mais rápido entre os instalados")
+    void shouldPickFastestInstalledProvider() {
+        CryptoProviderSelector.Measurement measurement = CryptoProviderSelector.selectCipher(List.of(), true, 20);
+
+        assertNotNull(measurement.provider());
+        assertTrue(measurement.megabytesPerSecond() > 0);
+    }
+
+    @Test
+    @DisplayName("Deve falhar quando nenhum provider configurado está disponível")
+    void shouldFailWhenNoConfiguredProviderIsAvailable() {
+        assertThrows(IllegalStateException.class,
+                () -> CryptoProviderSelector.selectCipher(List.of("NaoExiste"), true, 20));
+    }
+}
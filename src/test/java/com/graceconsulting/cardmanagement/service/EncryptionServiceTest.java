@@ -1,15 +1,20 @@
 package com.graceconsulting.cardmanagement.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.NullAndEmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.file.Path;
+import java.util.Base64;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("EncryptionService Tests")
@@ -222,4 +227,180 @@ class EncryptionServiceTest {
             assertEquals(data, decrypted);
         }
     }
+
+    @Nested
+    @DisplayName("Testes de Descriptografia com Buffer")
+    class BufferedDecryptionTests {
+
+        @ParameterizedTest(name = "Deve descriptografar no buffer informado: {0}")
+        @ValueSource(strings = {"4111111111111111", "30000000000004", "números123"})
+        @DisplayName("Deve descriptografar decodificando o Base64 no buffer informado")
+        void shouldDecryptIntoProvidedBuffer(String data) {
+            byte[] buffer = new byte[256];
+
+            assertEquals(data, encryptionService.decrypt(encryptionService.encrypt(data), buffer));
+        }
+
+        @Test
+        @DisplayName("Deve recorrer à descriptografia comum quando o buffer é pequeno")
+        void shouldFallBackWhenBufferIsTooSmall() {
+            String encrypted = encryptionService.encrypt("4111111111111111");
+
+            assertEquals("4111111111111111", encryptionService.decrypt(encrypted, new byte[4]));
+        }
+    }
+
+    @Nested
+    @DisplayName("Testes de Estratégia de IV")
+    class IvStrategyTests {
+
+        @TempDir
+        Path tempDir;
+
+        @Test
+        @DisplayName("Deve criptografar e descriptografar com IV por contador")
+        void shouldRoundTripWithCounterIv() {
+            EncryptionService service = new EncryptionService();
+            ReflectionTestUtils.setField(service, "secretKey", "test-secret-key-for-jwt-minimum-256-bits-required-here");
+            ReflectionTestUtils.setField(service, "ivStrategy", "counter");
+            ReflectionTestUtils.setField(service, "ivNodeId", "7");
+            ReflectionTestUtils.setField(service, "ivStatePath", tempDir.resolve("iv-counter").toString());
+            service.init();
+
+            String first = service.encrypt("4111111111111111");
+            String second = service.encrypt("4111111111111111");
+
+            assertNotEquals(first, second);
+            assertEquals("4111111111111111", service.decrypt(first));
+            // Serviços com a mesma chave decifram independentemente da estratégia de IV
+            assertEquals("4111111111111111", encryptionService.decrypt(second));
+        }
+
+        @Test
+        @DisplayName("Deve recusar IV por contador sem identificador de nó configurado")
+        void shouldRequireNodeIdForCounterIv() {
+            EncryptionService service = new EncryptionService();
+            ReflectionTestUtils.setField(service, "secretKey", "test-secret-key-for-jwt-minimum-256-bits-required-here");
+            ReflectionTestUtils.setField(service, "ivStrategy", "counter");
+            ReflectionTestUtils.setField(service, "ivStatePath", tempDir.resolve("iv-counter").toString());
+
+            RuntimeException ex = assertThrows(RuntimeException.class, service::init);
+            assertInstanceOf(IllegalStateException.class, ex.getCause());
+        }
+    }
+
+    @Nested
+    @DisplayName("Testes de Versionamento de Chave")
+    class KeyRingTests {
+
+        private EncryptionService rotated;
+
+        @BeforeEach
+        void setUp() {
+            rotated = new EncryptionService();
+            ReflectionTestUtils.setField(rotated, "secretKey", "test-secret-key-for-jwt-minimum-256-bits-required-here");
+            ReflectionTestUtils.setField(rotated, "keyRingSpec", "1:first-rotation-secret, 2:second-rotation-secret");
+            rotated.init();
+        }
+
+        @Test
+        @DisplayName("Deve prefixar o texto cifrado com a versão mais recente da chave")
+        void shouldPrefixCiphertextWithCurrentKeyVersion() {
+            byte[] combined = Base64.getDecoder().decode(rotated.encrypt("4111111111111111"));
+
+            assertEquals(2, rotated.getCurrentKeyVersion());
+            assertEquals(2, combined[0]);
+            assertEquals(1 + 12 + 16 + 16, combined.length);
+        }
+
+        @Test
+        @DisplayName("Deve descriptografar dados legados e de versões anteriores")
+        void shouldDecryptLegacyAndOlderVersions() {
+            EncryptionService previous = new EncryptionService();
+            ReflectionTestUtils.setField(previous, "secretKey", "test-secret-key-for-jwt-minimum-256-bits-required-here");
+            ReflectionTestUtils.setField(previous, "keyRingSpec", "1:first-rotation-secret");
+            previous.init();
+
+            for (int i = 0; i < 300; i++) {
+                assertEquals("4111111111111111", rotated.decrypt(encryptionService.encrypt("4111111111111111")));
+            }
+            assertEquals("5500000000000004", rotated.decrypt(previous.encrypt("5500000000000004")));
+        }
+
+        @Test
+        @DisplayName("Deve recifrar apenas dados fora da chave atual")
+        void shouldReencryptOnlyStaleData() {
+            String legacy = encryptionService.encrypt("4111111111111111");
+            String current = rotated.encrypt("4111111111111111");
+
+            String reencrypted = rotated.reencrypt(legacy);
+
+            assertNotEquals(legacy, reencrypted);
+            assertEquals(2, Base64.getDecoder().decode(reencrypted)[0]);
+            assertEquals("4111111111111111", rotated.decrypt(reencrypted));
+            assertSame(current, rotated.reencrypt(current));
+        }
+
+        @Test
+        @DisplayName("Deve rejeitar versão de chave fora do intervalo")
+        void shouldRejectOutOfRangeKeyVersion() {
+            ReflectionTestUtils.setField(rotated, "keyRingSpec", "256:invalid");
+
+            assertThrows(RuntimeException.class, rotated::init);
+        }
+    }
+
+    @Nested
+    @DisplayName("Testes de Blind Index")
+    class BlindIndexTests {
+
+        @Test
+        @DisplayName("Deve gerar blind index determinístico com prefixo dos 8 primeiros bytes")
+        void shouldGenerateDeterministicBlindIndex() {
+            BlindIndex first = encryptionService.blindIndex("4111111111111111");
+            BlindIndex second = encryptionService.blindIndex("4111111111111111");
+
+            assertEquals(first, second);
+            assertEquals(64, first.digest().length());
+            assertEquals(Long.parseUnsignedLong(first.digest().substring(0, 16), 16), first.prefix());
+            assertNotEquals(encryptionService.hash("4111111111111111"), first.digest());
+        }
+
+        @Test
+        @DisplayName("Deve depender da chave dedicada do blind index")
+        void shouldDependOnDedicatedKey() {
+            EncryptionService other = new EncryptionService();
+            ReflectionTestUtils.setField(other, "secretKey", "test-secret-key-for-jwt-minimum-256-bits-required-here");
+            ReflectionTestUtils.setField(other, "blindIndexSecret", "dedicated-blind-index-key");
+            other.init();
+
+            assertNotEquals(encryptionService.blindIndex("4111111111111111"), other.blindIndex("4111111111111111"));
+            assertEquals(encryptionService.hash("4111111111111111"), other.hash("4111111111111111"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Testes de Seleção de Provider")
+    class ProviderSelectionTests {
+
+        @Test
+        @DisplayName("Deve usar os providers configurados e publicar a vazão medida")
+        void shouldUseConfiguredProvidersAndPublishThroughput() {
+            EncryptionService service = new EncryptionService();
+            ReflectionTestUtils.setField(service, "secretKey", "test-secret-key-for-jwt-minimum-256-bits-required-here");
+            ReflectionTestUtils.setField(service, "providerNames", "SunJCE, SUN");
+            ReflectionTestUtils.setField(service, "autoSelectProvider", true);
+            ReflectionTestUtils.setField(service, "providerBenchmarkMillis", 20L);
+            service.init();
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            service.bindTo(registry);
+
+            assertEquals("4111111111111111", encryptionService.decrypt(service.encrypt("4111111111111111")));
+            assertEquals(encryptionService.hash("4111111111111111"), service.hash("4111111111111111"));
+            assertTrue(registry.get("encryption.provider.throughput")
+                    .tags("algorithm", "AES/GCM/NoPadding", "provider", "SunJCE").gauge().value() > 0);
+            assertTrue(registry.get("encryption.provider.throughput")
+                    .tags("algorithm", "SHA-256", "provider", "SUN").gauge().value() > 0);
+        }
+    }
 }
@@ -1,10 +1,14 @@
 package com.graceconsulting.cardmanagement.service;
 
 import com.graceconsulting.cardmanagement.dto.UserRegisterRequest;
+import com.graceconsulting.cardmanagement.dto.UserTokenState;
 import com.graceconsulting.cardmanagement.entity.User;
+import com.graceconsulting.cardmanagement.exception.BusinessException;
 import com.graceconsulting.cardmanagement.exception.ResourceConflictException;
 import com.graceconsulting.cardmanagement.mapper.UserMapper;
 import com.graceconsulting.cardmanagement.repository.UserRepository;
+import com.graceconsulting.cardmanagement.security.TokenRevocationService;
+import com.graceconsulting.cardmanagement.security.UserDetailsCache;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -12,11 +16,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -35,6 +43,15 @@ class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private UserDetailsCache userDetailsCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -198,10 +215,107 @@ class UserServiceTest {
 
             assertEquals(expectedId, result.getId());
             assertEquals("newuser", result.getUsername());
+            verify(userDetailsCache).invalidate("newuser");
             assertEquals("New User", result.getName());
         }
     }
 
+    @Nested
+    @DisplayName("Testes de Revogação de Tokens")
+    class TokenRevocationTests {
+
+        @Test
+        @DisplayName("Deve desativar usuário e revogar seus tokens")
+        void shouldDeactivateUserAndRevokeTokens() {
+            User user = createUser("testuser", "Test User");
+            when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+
+            userService.deactivate("testuser");
+
+            assertFalse(user.isActive());
+            assertEquals(1, user.getTokenVersion());
+            verify(userRepository).save(user);
+            verify(userDetailsCache).invalidate("testuser");
+            ArgumentCaptor<UserTokenState> state = ArgumentCaptor.forClass(UserTokenState.class);
+            verify(tokenRevocationService).record(state.capture());
+            assertEquals("testuser", state.getValue().username());
+            assertFalse(state.getValue().active());
+        }
+
+        @Test
+        @DisplayName("Deve trocar senha e incrementar a versão do token")
+        void shouldChangePasswordAndBumpTokenVersion() {
+            User user = createUser("testuser", "Test User");
+            when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+            when(passwordEncoder.matches("currentPassword", "encodedPassword")).thenReturn(true);
+            when(passwordEncoder.encode("newPassword")).thenReturn("encodedNewPassword");
+
+            userService.changePassword("testuser", "currentPassword", "newPassword");
+
+            assertEquals("encodedNewPassword", user.getPassword());
+            assertEquals(1, user.getTokenVersion());
+            assertTrue(user.isActive());
+            verify(tokenRevocationService).record(new UserTokenState("testuser", 1, true, user.getUpdatedAt()));
+        }
+
+        @Test
+        @DisplayName("Deve recusar troca de senha quando a senha atual não confere")
+        void shouldRejectPasswordChangeWithWrongCurrentPassword() {
+            User user = createUser("testuser", "Test User");
+            when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+            when(passwordEncoder.matches("wrongPassword", "encodedPassword")).thenReturn(false);
+
+            assertThrows(BusinessException.class,
+                    () -> userService.changePassword("testuser", "wrongPassword", "newPassword"));
+            assertEquals("encodedPassword", user.getPassword());
+            assertEquals(0, user.getTokenVersion());
+            verify(userRepository, never()).save(any(User.class));
+            verifyNoInteractions(tokenRevocationService);
+        }
+
+        @Test
+        @DisplayName("Deve publicar a revogação somente após o commit")
+        void shouldPublishRevocationOnlyAfterCommit() {
+            User user = createUser("testuser", "Test User");
+            when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                userService.deactivate("testuser");
+
+                verifyNoInteractions(tokenRevocationService, userDetailsCache);
+
+                TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+                verify(tokenRevocationService).record(new UserTokenState("testuser", 1, false, user.getUpdatedAt()));
+                verify(userDetailsCache).invalidate("testuser");
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        }
+
+        @Test
+        @DisplayName("Deve gravar hash atualizado sem revogar tokens")
+        void shouldUpdatePasswordHashWithoutRevokingTokens() {
+            User user = createUser("testuser", "Test User");
+            when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(user));
+            when(userRepository.save(user)).thenReturn(user);
+
+            UserDetails result = userService.updatePassword(user, "rehashedPassword");
+
+            assertEquals("rehashedPassword", result.getPassword());
+            assertEquals(0, user.getTokenVersion());
+            verifyNoInteractions(tokenRevocationService);
+        }
+
+        @Test
+        @DisplayName("Deve lançar exceção ao desativar usuário inexistente")
+        void shouldThrowWhenDeactivatingUnknownUser() {
+            when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
+
+            assertThrows(UsernameNotFoundException.class, () -> userService.deactivate("unknown"));
+            verifyNoInteractions(tokenRevocationService);
+        }
+    }
+
     private User createUser(String username, String name) {
         return User.builder()
             .id(UUID.randomUUID())